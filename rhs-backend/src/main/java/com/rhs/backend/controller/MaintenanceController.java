@@ -0,0 +1,189 @@
+package com.rhs.backend.controller;
+
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.dto.response.CursorPage;
+import com.rhs.backend.dto.response.BulkOperationResult;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.service.MaintenanceBulkService;
+import com.rhs.backend.service.MaintenanceHotspots;
+import com.rhs.backend.service.MaintenanceLatencyTracker;
+import com.rhs.backend.service.MaintenanceLiveFeed;
+import com.rhs.backend.service.MaintenanceReadCache;
+import com.rhs.backend.service.MaintenanceRollups;
+import com.rhs.backend.service.MaintenanceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Admin endpoints for maintenance queries: listings, the live event feed and bulk triage.
+ * Bulk endpoints return one outcome per requested query; items that could not
+ * be changed do not fail the batch.
+ */
+@RestController
+@RequestMapping("/maintenance")
+@PreAuthorize("hasAuthority('ADMIN')")
+@RequiredArgsConstructor
+public class MaintenanceController {
+
+    private final MaintenanceService maintenanceService;
+    private final MaintenanceBulkService maintenanceBulkService;
+    private final MaintenanceLiveFeed maintenanceLiveFeed;
+    private final MaintenanceLatencyTracker maintenanceLatencyTracker;
+    private final MaintenanceHotspots maintenanceHotspots;
+    private final MaintenanceRollups maintenanceRollups;
+    private final MaintenanceReadCache maintenanceReadCache;
+
+    /**
+     * Query summaries ({@link com.rhs.backend.dto.response.MaintenanceQuerySummary}), newest first,
+     * optionally filtered by priority, status and creation time. Passing limit
+     * and/or cursor returns a keyset page ({@link CursorPage}); pass its
+     * nextCursor to get the following page. Without them the full list is returned.
+     */
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(required = false) String priority,
+            @RequestParam(required = false) QueryStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor != null || limit != null) {
+            try {
+                return ResponseEntity.ok(maintenanceService.searchQueriesPage(priority, status, start, end, cursor,
+                        limit));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        return ResponseEntity.ok(maintenanceService.searchQueries(priority, status, start, end));
+    }
+
+    /**
+     * The full query, live or archived, for detail views.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getQuery(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Server-Sent Events stream of query changes, optionally filtered by
+     * building and/or assigned admin. Replaces polling the list endpoints.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) String building,
+            @RequestParam(required = false) String assignedTo) {
+        return maintenanceLiveFeed.subscribe(building, assignedTo);
+    }
+
+    /**
+     * Time-to-assign and time-to-resolve p50/p90/p99 over a rolling window
+     * such as 24h or 7d, served from memory.
+     */
+    @GetMapping("/stats/latency")
+    public ResponseEntity<?> latency(@RequestParam(defaultValue = "7d") String window) {
+        try {
+            return ResponseEntity.ok(maintenanceLatencyTracker.report(window));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Hit, miss, eviction and invalidation counts of the read cache.
+     */
+    @GetMapping("/stats/cache")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(maintenanceReadCache.stats());
+    }
+
+    /**
+     * Rooms or buildings with the most queries created in a month (default:
+     * this month), e.g. /hotspots?by=room&limit=20.
+     */
+    @GetMapping("/hotspots")
+    public ResponseEntity<?> hotspots(@RequestParam(defaultValue = MaintenanceHotspots.ROOM) String by,
+            @RequestParam(required = false) String month, @RequestParam(defaultValue = "20") int limit) {
+        try {
+            YearMonth yearMonth = month != null ? YearMonth.parse(month) : YearMonth.now();
+            return ResponseEntity.ok(maintenanceHotspots.top(by, yearMonth, limit));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "month must look like 2024-05"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Created vs resolved per day or week, with priority and building
+     * breakdowns, for the last days days (default 90) or from..to.
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<?> trends(@RequestParam(defaultValue = MaintenanceRollups.DAY) String granularity,
+            @RequestParam(defaultValue = "90") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(days - 1L);
+        try {
+            return ResponseEntity.ok(maintenanceRollups.series(granularity, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/bulk/create")
+    public ResponseEntity<?> create(@RequestBody List<MaintenanceQueryDTO> queries) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(maintenanceBulkService.create(queries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/bulk/assign")
+    public ResponseEntity<?> assign(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return run(maintenanceBulkService::assign, request);
+    }
+
+    @PostMapping("/bulk/status")
+    public ResponseEntity<?> changeStatus(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return run(maintenanceBulkService::changeStatus, request);
+    }
+
+    @PostMapping("/bulk/priority")
+    public ResponseEntity<?> reprioritise(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return run(maintenanceBulkService::reprioritise, request);
+    }
+
+    private ResponseEntity<?> run(Function<BulkMaintenanceRequest, BulkOperationResult> operation,
+            BulkMaintenanceRequest request) {
+        try {
+            return ResponseEntity.ok(operation.apply(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,25 +1,170 @@
 package com.rhs.backend.controller;
 
+import com.rhs.backend.dto.request.ReportJobRequest;
+import com.rhs.backend.dto.request.ReportRequestDto;
+import com.rhs.backend.dto.request.ReportScheduleRequest;
+import com.rhs.backend.dto.response.ReportJob;
+import com.rhs.backend.exception.ConflictException;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.model.ReportSchedule;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.service.MaintenanceExportService;
+import com.rhs.backend.service.ReportJobService;
+import com.rhs.backend.service.ReportScheduler;
 import com.rhs.backend.service.ReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/reports")
 public class ReportController {
 
+    // request attributes of Tomcat's sendfile support (see its DefaultServlet)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ReportService reportService;
+    private final MaintenanceExportService maintenanceExportService;
+    private final ReportJobService reportJobService;
+    private final ReportScheduler reportScheduler;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, MaintenanceExportService maintenanceExportService,
+            ReportJobService reportJobService, ReportScheduler reportScheduler) {
         this.reportService = reportService;
+        this.maintenanceExportService = maintenanceExportService;
+        this.reportJobService = reportJobService;
+        this.reportScheduler = reportScheduler;
+    }
+
+    /**
+     * Queue a PDF or Excel report for background rendering. Answers 202 at
+     * once with the job; poll its statusUrl and fetch downloadUrl once it is
+     * COMPLETED.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@Valid @RequestBody ReportJobRequest request) {
+        try {
+            ReportJob job = reportJobService.submit(request);
+            return ResponseEntity.accepted().location(URI.create(job.getStatusUrl())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(reportJobService.get(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The rendered report of a COMPLETED job; 409 while it is still queued,
+     * running or failed. Supports conditional and Range requests.
+     */
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadJob(@PathVariable String id, ServletWebRequest request) {
+        try {
+            Path file = reportJobService.artifact(id);
+            return fileResponse(file, file.getFileName().toString(), request);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Pre-render a report on a schedule (daily, weekly, monthly or cron).
+     */
+    @PostMapping("/schedules")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> createSchedule(@Valid @RequestBody ReportScheduleRequest request) {
+        try {
+            ReportSchedule schedule = reportScheduler.create(request);
+            return ResponseEntity.created(URI.create("/reports/schedules/" + schedule.getId())).body(schedule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/schedules")
+    public ResponseEntity<List<ReportSchedule>> listSchedules() {
+        return ResponseEntity.ok(reportScheduler.list());
+    }
+
+    @GetMapping("/schedules/{id}")
+    public ResponseEntity<?> getSchedule(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(reportScheduler.get(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The job of the schedule's latest run; download it from its downloadUrl.
+     */
+    @GetMapping("/schedules/{id}/latest")
+    public ResponseEntity<?> latestScheduledReport(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(reportScheduler.latest(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/schedules/{id}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> deleteSchedule(@PathVariable String id) {
+        try {
+            reportScheduler.delete(id);
+            return ResponseEntity.noContent().build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/maintenance/stats")
@@ -39,21 +184,138 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getUserStats());
     }
 
+    /**
+     * PDF report of the queries created in an optional range of inclusive
+     * ISO dates, e.g. /reports/pdf?from=2024-01-01&to=2024-03-31. Served
+     * from the stored file when the data has not changed since it was
+     * rendered, otherwise streamed as pages are produced.
+     */
     @GetMapping("/pdf")
-    public ResponseEntity<byte[]> generatePdfReport() {
-        byte[] pdf = reportService.generatePdfReport();
+    public ResponseEntity<?> generatePdfReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest request) {
+        return pdfReport(from != null ? from.atStartOfDay() : null, to != null ? to.atTime(LocalTime.MAX) : null,
+                request);
+    }
+
+    /**
+     * Same report for the start/end of a {@link ReportRequestDto}.
+     */
+    @PostMapping("/pdf")
+    public ResponseEntity<?> generatePdfReport(@RequestBody ReportRequestDto body, ServletWebRequest request) {
+        return pdfReport(body.getStart(), body.getEnd(), request);
+    }
+
+    private ResponseEntity<?> pdfReport(LocalDateTime start, LocalDateTime end, ServletWebRequest request) {
+        if (start != null && end != null && start.isAfter(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "start must not be after end"));
+        }
+        String fingerprint = reportService.pdfFingerprint(start, end);
+        Optional<Path> stored = reportService.storedPdfReport(fingerprint);
+        if (stored.isPresent()) {
+            return fileResponse(stored.get(), "report.pdf", request);
+        }
+        StreamingResponseBody body = out -> reportService.generatePdfReport(start, end, fingerprint, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=report.pdf")
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .body(body);
+    }
+
+    /**
+     * A stored report file as a download, with an ETag and Last-Modified so
+     * a repeat request gets 304. Range requests get 206 with the requested
+     * bytes, read from the file in small buffers. A plain GET on Tomcat is
+     * handed to its sendfile support, so the file goes from the page cache
+     * to the socket without passing through the JVM at all.
+     */
+    private ResponseEntity<?> fileResponse(Path file, String downloadName, ServletWebRequest request) {
+        long size;
+        long lastModified;
+        try {
+            size = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Report file is no longer available"));
+        }
+        // stored files are renamed into place complete and never rewritten
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        if (request.checkNotModified(etag, lastModified)) {
+            return null; // 304 or 412 already set
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentDisposition(ContentDisposition.attachment().filename(downloadName).build());
+        headers.setContentType(downloadName.endsWith(".pdf") ? MediaType.APPLICATION_PDF
+                : MediaType.APPLICATION_OCTET_STREAM);
+
+        HttpServletRequest servletRequest = request.getRequest();
+        if (HttpMethod.GET.matches(servletRequest.getMethod()) && servletRequest.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(servletRequest.getAttribute(SENDFILE_SUPPORT))) {
+            servletRequest.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            servletRequest.setAttribute(SENDFILE_START, 0L);
+            servletRequest.setAttribute(SENDFILE_END, size);
+            headers.setContentLength(size);
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
     }
 
     @GetMapping("/excel")
-    public ResponseEntity<byte[]> exportToExcel() {
-        byte[] excel = reportService.exportToExcel();
+    public ResponseEntity<StreamingResponseBody> exportToExcel() {
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export.xlsx")
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(excel);
+                .body(reportService::exportToExcel);
+    }
+
+    /**
+     * Stream maintenance queries as NDJSON or CSV straight from a Mongo
+     * cursor, optionally filtered by status and creation date (inclusive
+     * ISO dates) and gzipped, e.g.
+     * /reports/maintenance/export?format=csv&from=2024-01-01&gzip=true
+     */
+    @GetMapping("/maintenance/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> exportMaintenance(
+            @RequestParam(defaultValue = MaintenanceExportService.NDJSON) String format,
+            @RequestParam(required = false) QueryStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Integer batchSize) {
+        try {
+            MaintenanceExportService.checkFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.atTime(LocalTime.MAX) : null;
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                maintenanceExportService.export(format, status, start, end, batchSize, compressed);
+                compressed.finish();
+            } else {
+                maintenanceExportService.export(format, status, start, end, batchSize, out);
+            }
+        };
+
+        String fileName = "maintenance_queries_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmm")) + "." + format
+                + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : MaintenanceExportService.CSV.equals(format) ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .contentType(contentType)
+                .body(body);
     }
 }
@@ -48,11 +48,19 @@ public class MaintenanceQueryDTO {
     // Admin details for display (optional, populated on read)
     private String assignedToName;
 
+    private LocalDateTime assignedAt;
+
     private String resolutionNotes;
 
+    // id of an open query this one probably repeats
+    private String possibleDuplicateOf;
+
     private LocalDateTime resolvedAt;
 
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // pass back as expectedVersion to make a transition conditional
+    private Long version;
 }
@@ -0,0 +1,35 @@
+package com.rhs.backend.dto.request;
+
+import com.rhs.backend.model.enums.QueryStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Body of the bulk maintenance endpoints. Which of adminId, status and
+ * priority is required depends on the endpoint.
+ */
+@Data
+public class BulkMaintenanceRequest {
+    public static final int MAX_BATCH = 1000;
+
+    @NotEmpty(message = "At least one query ID is required")
+    @Size(max = MAX_BATCH, message = "At most " + MAX_BATCH + " queries per batch")
+    private List<String> queryIds;
+
+    private String adminId;
+
+    private QueryStatus status;
+
+    private String priority;
+
+    private String resolutionNotes;
+
+    /**
+     * Assign only: skip queries that already have an assignee instead of
+     * reassigning them.
+     */
+    private Boolean onlyUnassigned;
+}
@@ -0,0 +1,21 @@
+package com.rhs.backend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Body of POST /reports/jobs. start and end bound the creation date of the
+ * queries in the report; either may be left out.
+ */
+@Data
+public class ReportJobRequest {
+
+    @NotBlank(message = "format is required (pdf or excel)")
+    private String format;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+}
@@ -0,0 +1,27 @@
+package com.rhs.backend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Body of POST /reports/schedules. schedule is daily, weekly or monthly
+ * (run off-peak at 05:00) or a six-field cron expression; rangeDays limits
+ * the report to queries created in that many days before each run.
+ */
+@Data
+public class ReportScheduleRequest {
+
+    private String name;
+
+    @NotBlank(message = "format is required (pdf or excel)")
+    private String format;
+
+    @NotBlank(message = "schedule is required (daily, weekly, monthly or a cron expression)")
+    private String schedule;
+
+    @Positive(message = "rangeDays must be positive")
+    private Integer rangeDays;
+
+    private Boolean enabled;
+}
@@ -0,0 +1,41 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk maintenance operation, with one entry per requested query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        // the query's status or version did not allow the change
+        CONFLICT,
+        FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String id;
+        private Outcome outcome;
+        private String message;
+    }
+
+    private String action;
+    private int requested;
+    private int updated;
+    private int failed;
+    private List<Item> items;
+}
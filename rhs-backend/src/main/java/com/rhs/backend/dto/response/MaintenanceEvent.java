@@ -0,0 +1,40 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a maintenance query, pushed to live feed subscribers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceEvent {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        ASSIGNED,
+        RESOLVED,
+        PRIORITY_CHANGED,
+        // the subscriber fell behind and events were dropped; reload the list
+        RESYNC
+    }
+
+    private Type type;
+
+    private String queryId;
+
+    private String building;
+
+    private String assignedToId;
+
+    private MaintenanceQuerySummary query;
+
+    private LocalDateTime occurredAt;
+}
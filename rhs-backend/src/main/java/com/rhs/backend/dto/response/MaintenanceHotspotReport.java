@@ -0,0 +1,34 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The rooms or buildings with the most maintenance queries created in a
+ * month. Counts are sketch estimates: never below the true count and at most
+ * a fraction of a percent of the month's total above it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceHotspotReport {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String key;
+        private long count;
+    }
+
+    private String dimension;
+    private String month;
+    // queries counted for the month
+    private long total;
+    private List<Entry> hotspots;
+}
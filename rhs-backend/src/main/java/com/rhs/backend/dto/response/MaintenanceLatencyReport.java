@@ -0,0 +1,48 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Time-to-assign and time-to-resolve percentiles over a rolling window,
+ * overall and per priority and building. Times are in fractional hours,
+ * measured from when the query was created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceLatencyReport {
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private Percentiles overall;
+        private Map<String, Percentiles> byPriority;
+        private Map<String, Percentiles> byBuilding;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Percentiles {
+        private long count;
+        private double p50Hours;
+        private double p90Hours;
+        private double p99Hours;
+        private double maxHours;
+    }
+
+    private String window;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Distribution timeToAssign;
+    private Distribution timeToResolve;
+}
@@ -0,0 +1,36 @@
+package com.rhs.backend.dto.response;
+
+import com.rhs.backend.model.enums.QueryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight maintenance query row for list views.
+ * Only carries what a listing shows; the full document is fetched on demand.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceQuerySummary {
+
+    private String id;
+
+    private String queryTitle;
+
+    private QueryStatus status;
+
+    private String priority;
+
+    private String roomId;
+
+    private LocalDateTime createdAt;
+
+    private String assignedToName;
+
+    private String possibleDuplicateOf;
+}
@@ -0,0 +1,51 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated maintenance statistics as produced by MaintenanceStatsEngine.
+ * Resolution times are in fractional hours.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceStats {
+    private long total;
+    private Map<String, Long> statusCounts;
+    private Map<String, Long> priorityCounts;
+    private Map<String, Long> buildingCounts;
+    private long resolvedSamples;
+    private double avgResolutionHours;
+    // null when the source does not track distributions (e.g. the live counters)
+    private Double resolutionHoursP50;
+    private Double resolutionHoursP90;
+    private Double resolutionHoursP99;
+
+    /**
+     * Flatten to the display keys used by the stats endpoints and PDF summary.
+     */
+    public Map<String, Object> toDisplayMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("Total Queries", total);
+        stats.put("Pending", statusCounts.getOrDefault("PENDING", 0L));
+        stats.put("In Progress", statusCounts.getOrDefault("IN_PROGRESS", 0L));
+        stats.put("Resolved", statusCounts.getOrDefault("RESOLVED", 0L));
+        stats.put("Cancelled", statusCounts.getOrDefault("CANCELLED", 0L));
+        stats.put("By Priority", priorityCounts);
+        stats.put("By Building", buildingCounts);
+        stats.put("Avg Resolution Hours", avgResolutionHours);
+        if (resolutionHoursP50 != null) {
+            stats.put("Resolution Hours P50", resolutionHoursP50);
+            stats.put("Resolution Hours P90", resolutionHoursP90);
+            stats.put("Resolution Hours P99", resolutionHoursP99);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,28 @@
+package com.rhs.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Queries created and resolved in one day or week (starting Monday).
+ * Breakdowns use the priority and building a query had when it was counted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceTrendPoint {
+    private LocalDate start;
+    private long created;
+    private long resolved;
+    private double avgResolutionHours;
+    private Map<String, Long> createdByPriority;
+    private Map<String, Long> resolvedByPriority;
+    private Map<String, Long> createdByBuilding;
+    private Map<String, Long> resolvedByBuilding;
+}
@@ -0,0 +1,33 @@
+package com.rhs.backend.dto.response;
+
+import com.rhs.backend.model.enums.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A report job as a polling client sees it. downloadUrl is only set once the
+ * job has COMPLETED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+    private String id;
+    private String reportType;
+    private Map<String, Object> parameters;
+    private ReportJobStatus status;
+    private long rowsWritten;
+    private Long fileSize;
+    private String error;
+    private Date submittedAt;
+    private Date startedAt;
+    private Date completedAt;
+    private String statusUrl;
+    private String downloadUrl;
+}
@@ -0,0 +1,16 @@
+package com.rhs.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A write lost a race: the resource's version or state no longer matches what
+ * the caller expected. Maps to 409 so clients know to reload and retry.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
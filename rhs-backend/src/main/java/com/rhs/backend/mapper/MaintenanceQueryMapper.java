@@ -1,16 +1,18 @@
 package com.rhs.backend.mapper;
 
 import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.response.MaintenanceQuerySummary;
 import com.rhs.backend.model.MaintenanceQuery;
-import com.rhs.backend.model.Student;
-import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.embedded.AdminRef;
+import com.rhs.backend.model.embedded.StudentRef;
 import com.rhs.backend.model.enums.QueryStatus;
 import com.rhs.backend.repository.StudentRepository;
 import com.rhs.backend.repository.AdminRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Mapper for converting between MaintenanceQuery entities and DTOs
@@ -22,6 +24,16 @@ public class MaintenanceQueryMapper {
     private final StudentRepository studentRepository;
     private final AdminRepository adminRepository;
 
+    /**
+     * Create a reference loader for one request or batch.
+     * Share it across mapper calls to reuse already loaded students and admins.
+     * 
+     * @return a new, empty MaintenanceReferenceLoader
+     */
+    public MaintenanceReferenceLoader newReferenceLoader() {
+        return new MaintenanceReferenceLoader(studentRepository, adminRepository);
+    }
+
     /**
      * Convert DTO to Entity (for creating/updating)
      * 
@@ -29,6 +41,32 @@ public class MaintenanceQueryMapper {
      * @return MaintenanceQuery entity
      */
     public MaintenanceQuery toEntity(MaintenanceQueryDTO dto) {
+        return toEntity(dto, newReferenceLoader());
+    }
+
+    /**
+     * Convert a batch of DTOs to Entities, resolving all student and admin
+     * references with one findAllById per type
+     * 
+     * @param dtos the MaintenanceQueryDTOs
+     * @return MaintenanceQuery entities, in the same order
+     */
+    public List<MaintenanceQuery> toEntities(List<MaintenanceQueryDTO> dtos) {
+        MaintenanceReferenceLoader loader = newReferenceLoader();
+        loader.prefetch(dtos);
+        return dtos.stream()
+                .map(dto -> toEntity(dto, loader))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert DTO to Entity using the given loader for references
+     * 
+     * @param dto    the MaintenanceQueryDTO
+     * @param loader the request's reference loader
+     * @return MaintenanceQuery entity
+     */
+    public MaintenanceQuery toEntity(MaintenanceQueryDTO dto, MaintenanceReferenceLoader loader) {
         if (dto == null) {
             return null;
         }
@@ -50,16 +88,12 @@ public class MaintenanceQueryMapper {
 
         // Fetch and set student reference
         if (dto.getStudentId() != null) {
-            Student student = studentRepository.findById(dto.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("Student not found with ID: " + dto.getStudentId()));
-            builder.student(student);
+            builder.student(StudentRef.of(loader.student(dto.getStudentId())));
         }
 
         // Fetch and set admin reference if assigned
         if (dto.getAssignedToId() != null) {
-            Admin admin = adminRepository.findById(dto.getAssignedToId())
-                    .orElseThrow(() -> new RuntimeException("Admin not found with ID: " + dto.getAssignedToId()));
-            builder.assignedTo(admin);
+            builder.assignedTo(AdminRef.of(loader.admin(dto.getAssignedToId())));
         }
 
         return builder.build();
@@ -73,6 +107,19 @@ public class MaintenanceQueryMapper {
      * @return updated MaintenanceQuery entity
      */
     public MaintenanceQuery updateEntity(MaintenanceQueryDTO dto, MaintenanceQuery existingEntity) {
+        return updateEntity(dto, existingEntity, newReferenceLoader());
+    }
+
+    /**
+     * Partial update using the given loader for references
+     * 
+     * @param dto            the MaintenanceQueryDTO
+     * @param existingEntity the existing MaintenanceQuery entity
+     * @param loader         the request's reference loader
+     * @return updated MaintenanceQuery entity
+     */
+    public MaintenanceQuery updateEntity(MaintenanceQueryDTO dto, MaintenanceQuery existingEntity,
+            MaintenanceReferenceLoader loader) {
         if (dto == null || existingEntity == null) {
             return existingEntity;
         }
@@ -105,16 +152,12 @@ public class MaintenanceQueryMapper {
 
         // Update student reference if provided
         if (dto.getStudentId() != null) {
-            Student student = studentRepository.findById(dto.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("Student not found with ID: " + dto.getStudentId()));
-            existingEntity.setStudent(student);
+            existingEntity.setStudent(StudentRef.of(loader.student(dto.getStudentId())));
         }
 
         // Update admin reference if provided
         if (dto.getAssignedToId() != null) {
-            Admin admin = adminRepository.findById(dto.getAssignedToId())
-                    .orElseThrow(() -> new RuntimeException("Admin not found with ID: " + dto.getAssignedToId()));
-            existingEntity.setAssignedTo(admin);
+            existingEntity.setAssignedTo(AdminRef.of(loader.admin(dto.getAssignedToId())));
         }
 
         return existingEntity;
@@ -140,9 +183,12 @@ public class MaintenanceQueryMapper {
                 .status(entity.getStatus())
                 .priority(entity.getPriority())
                 .resolutionNotes(entity.getResolutionNotes())
+                .possibleDuplicateOf(entity.getPossibleDuplicateOf())
+                .assignedAt(entity.getAssignedAt())
                 .resolvedAt(entity.getResolvedAt())
                 .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt());
+                .updatedAt(entity.getUpdatedAt())
+                .version(entity.getVersion());
 
         // Extract student information
         if (entity.getStudent() != null) {
@@ -159,4 +205,31 @@ public class MaintenanceQueryMapper {
 
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Convert a (possibly projected) Entity to a list-view summary
+     * 
+     * @param entity the MaintenanceQuery entity, at least the summary fields loaded
+     * @return MaintenanceQuerySummary
+     */
+    public MaintenanceQuerySummary toSummary(MaintenanceQuery entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        MaintenanceQuerySummary.MaintenanceQuerySummaryBuilder builder = MaintenanceQuerySummary.builder()
+                .id(entity.getId())
+                .queryTitle(entity.getQueryTitle())
+                .status(entity.getStatus())
+                .priority(entity.getPriority())
+                .roomId(entity.getRoomId())
+                .createdAt(entity.getCreatedAt())
+                .possibleDuplicateOf(entity.getPossibleDuplicateOf());
+
+        if (entity.getAssignedTo() != null) {
+            builder.assignedToName(entity.getAssignedTo().getFirstName() + " " + entity.getAssignedTo().getLastName());
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.rhs.backend.mapper;
+
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.Student;
+import com.rhs.backend.repository.AdminRepository;
+import com.rhs.backend.repository.StudentRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batching, memoizing loader for the Student and Admin references of
+ * maintenance query DTOs.
+ *
+ * One loader is meant to live for one request or batch: prefetch collects the
+ * ids of a whole batch and resolves each type with a single findAllById, and
+ * every later lookup is served from memory. Ids that were looked up but not
+ * found are remembered too, so they are not queried again.
+ *
+ * Not thread safe; create one per request via
+ * {@link MaintenanceQueryMapper#newReferenceLoader()}.
+ */
+public class MaintenanceReferenceLoader {
+
+    private final StudentRepository studentRepository;
+    private final AdminRepository adminRepository;
+
+    private final Map<String, Student> students = new HashMap<>();
+    private final Map<String, Admin> admins = new HashMap<>();
+
+    MaintenanceReferenceLoader(StudentRepository studentRepository, AdminRepository adminRepository) {
+        this.studentRepository = studentRepository;
+        this.adminRepository = adminRepository;
+    }
+
+    /**
+     * Load the references of every DTO in the batch that are not cached yet.
+     * At most one findAllById per type.
+     */
+    public void prefetch(Collection<MaintenanceQueryDTO> dtos) {
+        prefetchStudents(dtos.stream().map(MaintenanceQueryDTO::getStudentId).collect(Collectors.toList()));
+        prefetchAdmins(dtos.stream().map(MaintenanceQueryDTO::getAssignedToId).collect(Collectors.toList()));
+    }
+
+    public void prefetchStudents(Collection<String> ids) {
+        load(ids, students, studentRepository::findAllById, Student::getId);
+    }
+
+    public void prefetchAdmins(Collection<String> ids) {
+        load(ids, admins, adminRepository::findAllById, Admin::getId);
+    }
+
+    /**
+     * @throws RuntimeException when no student exists with the given id
+     */
+    public Student student(String id) {
+        prefetchStudents(Set.of(id));
+        Student student = students.get(id);
+        if (student == null) {
+            throw new RuntimeException("Student not found with ID: " + id);
+        }
+        return student;
+    }
+
+    /**
+     * @throws RuntimeException when no admin exists with the given id
+     */
+    public Admin admin(String id) {
+        prefetchAdmins(Set.of(id));
+        Admin admin = admins.get(id);
+        if (admin == null) {
+            throw new RuntimeException("Admin not found with ID: " + id);
+        }
+        return admin;
+    }
+
+    private static <T> void load(Collection<String> ids, Map<String, T> cache,
+            Function<Iterable<String>, Iterable<T>> findAllById, Function<T, String> idOf) {
+        Set<String> missing = ids.stream()
+                .filter(Objects::nonNull)
+                .filter(id -> !cache.containsKey(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (T found : findAllById.apply(missing)) {
+            cache.put(idOf.apply(found), found);
+        }
+        // remember misses as well so a bad id costs one lookup per loader
+        missing.forEach(id -> cache.putIfAbsent(id, null));
+    }
+}
@@ -0,0 +1,42 @@
+package com.rhs.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audit trail entry for a maintenance operation.
+ * Bulk operations write one entry per batch listing every query they changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "maintenance_audit")
+public class MaintenanceAuditEntry {
+    @Id
+    private String id;
+
+    private String action;
+
+    private Map<String, Object> parameters;
+
+    private List<String> queryIds;
+
+    private int requested;
+
+    private int updated;
+
+    private int failed;
+
+    @Indexed
+    private LocalDateTime performedAt;
+}
@@ -1,37 +1,83 @@
 package com.rhs.backend.model;
 
 import lombok.*;
-import org.bson.types.ObjectId;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
 
-import com.rhs.backend.model.enums.PriorityLevel;
-import com.rhs.backend.model.enums.Status;
+import com.rhs.backend.model.embedded.AdminRef;
+import com.rhs.backend.model.embedded.StudentRef;
+import com.rhs.backend.model.enums.QueryStatus;
 
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Maintenance query document.
+ * Compound indexes back the admin search filters and keyset pagination so they
+ * can be answered by MongoDB instead of scanning the whole collection.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Document(collection = "maintenance_queries")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_createdAt", def = "{'status': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "priority_createdAt", def = "{'priority': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "roomId_status", def = "{'roomId': 1, 'status': 1}"),
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        // range scans of overdue open queries by the SLA escalator
+        @CompoundIndex(name = "status_priority_createdAt", def = "{'status': 1, 'priority': 1, 'createdAt': 1}"),
+        @CompoundIndex(name = "status_priority_escalatedAt", def = "{'status': 1, 'priority': 1, 'escalatedAt': 1}")
+})
 public class MaintenanceQuery {
-    private String id; // optional for updates
+    @Id
+    private String id;
 
-    @NotNull
-    private String studentId;
+    private StudentRef student;
 
-    @NotNull
     private String roomId;
 
-    @NotBlank
-    private String issueType;
+    private String queryTitle;
 
-    private String description;
+    private String queryDescription;
 
-    @NotNull
-    private PriorityLevel priority;
+    private List<String> photoUrls;
 
-    private Status status;
+    private QueryStatus status;
 
-    private List<String> photos;
-}
\ No newline at end of file
+    private String priority; // PriorityLevel name
+
+    private AdminRef assignedTo;
+
+    // first assignment; drives the time-to-assign stats
+    private LocalDateTime assignedAt;
+
+    private String resolutionNotes;
+
+    private LocalDateTime resolvedAt;
+
+    // open query this one probably repeats, flagged at submission
+    private String possibleDuplicateOf;
+
+    // when the SLA last restarted: escalated, reprioritised or moved back to PENDING
+    private LocalDateTime escalatedAt;
+
+    // ids of the last few bulk batches that changed this query
+    private List<String> bulkIds;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    // bumped by every state transition; null on documents written before versioning
+    @Version
+    private Long version;
+}
@@ -0,0 +1,50 @@
+package com.rhs.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A report rendered ahead of time on a cron schedule, see ReportScheduler.
+ * rangeDays bounds the report to queries created since that many days
+ * before the run; null covers all time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "report_schedules")
+public class ReportSchedule {
+    @Id
+    private String id;
+
+    private String name;
+
+    private String format;
+
+    private String cron;
+
+    private Integer rangeDays;
+
+    private boolean enabled;
+
+    // the next fire time still owed; a past value after a restart is a missed run
+    @Indexed
+    private Date nextRunAt;
+
+    private Date lastRunAt;
+
+    private String lastReportId;
+
+    private String lastError;
+
+    private long missedRuns;
+
+    private Date createdAt;
+}
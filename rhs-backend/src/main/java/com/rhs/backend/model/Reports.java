@@ -3,8 +3,10 @@ package com.rhs.backend.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.rhs.backend.model.enums.ReportJobStatus;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -26,6 +28,20 @@ public class Reports {
     private Date generatedAt;
     private String filePath;
 
+    // set for reports rendered by the background job engine
+    private ReportJobStatus status;
+    private Long rowsWritten;
+    private Long fileSize;
+    private String error;
+    private Date startedAt;
+    private Date completedAt;
+    private Date updatedAt;
+
+    // identifies the parameters and data a stored report was rendered from, see ReportArtifactCache
+    @Indexed(sparse = true)
+    private String fingerprint;
+    private Date lastAccessedAt;
+
     // === UML methods (stubs for clarity) ===
 
     public void generateMaintenanceReport(Date startDate, Date endDate) {
@@ -47,6 +63,6 @@ public class Reports {
     }
 
     public void scheduleReport(String frequency) {
-        // handled by a scheduler in ReportService (future expansion)
+        // handled by ReportScheduler, stub for reference
     }
 }
@@ -0,0 +1,45 @@
+package com.rhs.backend.model.embedded;
+
+import com.rhs.backend.model.Admin;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The admin a maintenance query is assigned to, as embedded in the query.
+ * A plain value type for the same reason as {@link StudentRef}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminRef {
+    private String id;
+
+    @Field("first_name")
+    private String firstName;
+
+    @Field("last_name")
+    private String lastName;
+
+    @Field("email")
+    private String email;
+
+    @Field("department")
+    private String department;
+
+    public static AdminRef of(Admin admin) {
+        if (admin == null) {
+            return null;
+        }
+        return AdminRef.builder()
+                .id(admin.getId())
+                .firstName(admin.getFirstName())
+                .lastName(admin.getLastName())
+                .email(admin.getEmail())
+                .department(admin.getDepartment())
+                .build();
+    }
+}
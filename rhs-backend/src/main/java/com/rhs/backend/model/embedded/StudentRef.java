@@ -0,0 +1,53 @@
+package com.rhs.backend.model.embedded;
+
+import com.rhs.backend.model.Student;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The student a maintenance query was filed by, as embedded in the query.
+ *
+ * A plain value type rather than the Student document: index resolution
+ * follows embedded entities, so embedding Student would put its unique
+ * email/firebase_uid/student_number indexes on maintenance_queries. Field
+ * names match Student so documents written with the full type still read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentRef {
+    private String id;
+
+    @Field("first_name")
+    private String firstName;
+
+    @Field("last_name")
+    private String lastName;
+
+    @Field("email")
+    private String email;
+
+    @Field("student_number")
+    private String studentNumber;
+
+    @Field("room_details")
+    private RoomDetails roomDetails;
+
+    public static StudentRef of(Student student) {
+        if (student == null) {
+            return null;
+        }
+        return StudentRef.builder()
+                .id(student.getId())
+                .firstName(student.getFirstName())
+                .lastName(student.getLastName())
+                .email(student.getEmail())
+                .studentNumber(student.getStudentNumber())
+                .roomDetails(student.getRoomDetails())
+                .build();
+    }
+}
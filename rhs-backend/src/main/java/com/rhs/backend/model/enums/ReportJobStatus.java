@@ -0,0 +1,11 @@
+package com.rhs.backend.model.enums;
+
+/**
+ * Lifecycle of a report rendered by the background job engine.
+ */
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,119 @@
+package com.rhs.backend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Where archived maintenance queries live and how far forward in time they
+ * reach.
+ *
+ * Only RESOLVED and CANCELLED queries closed more than archive-after-days
+ * ago are archived, so every archived query was created before that cutoff.
+ * Reads use this to skip "maintenance_queries_archive" whenever their date
+ * range starts after it. The newest archived createdAt is also kept in
+ * "maintenance_archive_state", which still covers queries archived under a
+ * shorter archive-after-days than the one now configured.
+ */
+@Component
+@Slf4j
+public class MaintenanceArchive {
+
+    public static final String COLLECTION = "maintenance_queries_archive";
+    static final String STATE_COLLECTION = "maintenance_archive_state";
+    private static final String STATE_ID = "archive";
+
+    private final MongoTemplate mongoTemplate;
+    private final int afterDays;
+
+    private volatile LocalDateTime newestArchived;
+
+    public MaintenanceArchive(MongoTemplate mongoTemplate,
+            @Value("${maintenance.archive.after-days:180}") int afterDays) {
+        this.mongoTemplate = mongoTemplate;
+        // the latency tracker re-seeds the last 30 days from the hot collection
+        this.afterDays = Math.max(afterDays, 31);
+    }
+
+    public int getAfterDays() {
+        return afterDays;
+    }
+
+    /**
+     * Queries closed before this are due for archiving.
+     */
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(afterDays);
+    }
+
+    /**
+     * Whether the archive can hold queries created on or after start. A null
+     * start means the whole history is wanted.
+     */
+    public boolean mayHoldCreatedFrom(LocalDateTime start) {
+        if (start == null) {
+            return true;
+        }
+        LocalDateTime newest = newestArchived;
+        return start.isBefore(cutoff()) || (newest != null && !start.isAfter(newest));
+    }
+
+    /**
+     * Record the newest createdAt of a batch before it is copied, so readers
+     * never skip the archive while it holds the batch.
+     */
+    public void recordArchiving(LocalDateTime newestCreatedAt) {
+        if (newestCreatedAt == null) {
+            return;
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(STATE_ID)),
+                new Update().max("newestCreatedAt", newestCreatedAt), STATE_COLLECTION);
+        LocalDateTime newest = newestArchived;
+        if (newest == null || newestCreatedAt.isAfter(newest)) {
+            newestArchived = newestCreatedAt;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        // the same read patterns as the hot collection, see MaintenanceQuery
+        IndexOperations indexes = mongoTemplate.indexOps(COLLECTION);
+        indexes.ensureIndex(new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("createdAt_id"));
+        indexes.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("status_createdAt"));
+        indexes.ensureIndex(new Index().on("priority", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("priority_createdAt"));
+        indexes.ensureIndex(new Index().on("roomId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                .named("roomId_status"));
+        refresh();
+    }
+
+    /**
+     * Pick up batches archived by other instances.
+     */
+    @Scheduled(fixedDelayString = "${maintenance.archive.refresh-ms:60000}",
+            initialDelayString = "${maintenance.archive.refresh-ms:60000}")
+    public void refresh() {
+        Document state = mongoTemplate.findById(STATE_ID, Document.class, STATE_COLLECTION);
+        if (state != null && state.get("newestCreatedAt") instanceof Date date) {
+            // stored like every other LocalDateTime, as a Date in the system zone
+            newestArchived = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops indexes that auto index creation used to derive from the Student
+ * and Admin documents once embedded in maintenance queries (unique email,
+ * firebase_uid and student_number among them, which let a student file only
+ * one query). The queries now embed StudentRef/AdminRef, which declare no
+ * indexes, so any index on student.* or assignedTo.* is one of those.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceQueryIndexes {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropEmbeddedUserIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(MaintenanceQuery.class);
+        for (IndexInfo index : indexes.getIndexInfo()) {
+            boolean embeddedUser = !index.getIndexFields().isEmpty() && index.getIndexFields().stream()
+                    .allMatch(field -> field.getKey().startsWith("student.")
+                            || field.getKey().startsWith("assignedTo."));
+            if (embeddedUser) {
+                indexes.dropIndex(index.getName());
+                log.info("Dropped index {} on maintenance_queries", index.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.dto.response.CursorPage;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Custom MaintenanceQuery operations that are built with MongoTemplate
+ */
+public interface MaintenanceRepositoryCustom {
+
+    /**
+     * Search queries by optional filters. Only the filters that are present
+     * are added to the Mongo query, so the matching compound index is used.
+     * 
+     * @param priority the priority level name (nullable)
+     * @param status   the query status (nullable)
+     * @param start    created on or after (nullable)
+     * @param end      created on or before (nullable)
+     * @return list of maintenance queries, newest first
+     */
+    List<MaintenanceQuery> search(String priority, QueryStatus status, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Keyset pagination over (createdAt, _id), newest first.
+     * Seeks past the cursor instead of skipping, so every page costs the same.
+     * 
+     * @param priority the priority level name (nullable)
+     * @param status   the query status (nullable)
+     * @param start    created on or after (nullable)
+     * @param end      created on or before (nullable)
+     * @param cursor   opaque cursor from the previous page (null for the first page)
+     * @param limit    page size
+     * @return page of maintenance queries plus the next cursor
+     */
+    CursorPage<MaintenanceQuery> searchPage(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit);
+
+    /**
+     * Same as {@link #search} but only loads the summary fields
+     * ({@link MaintenanceRepositoryImpl#SUMMARY_FIELDS}); everything else on the
+     * returned entities is null.
+     */
+    List<MaintenanceQuery> searchSummaries(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end);
+
+    /**
+     * Same as {@link #searchPage} but only loads the summary fields.
+     */
+    CursorPage<MaintenanceQuery> searchSummaryPage(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit);
+
+    /**
+     * Summaries of the queries raised for one room, newest first. Served by
+     * the roomId_status index.
+     */
+    List<MaintenanceQuery> findSummariesByRoom(String roomId);
+
+    /**
+     * Hand every query matching the filters to action, read over a
+     * server-side cursor that fetches batchSize documents per round trip, so
+     * memory stays constant however many match. Archived queries, when the
+     * filters can match any, come first; each collection is read oldest
+     * first. Only {@link MaintenanceRepositoryImpl#EXPORT_FIELDS} are loaded.
+     *
+     * @param status    the query status (nullable)
+     * @param start     created on or after (nullable)
+     * @param end       created on or before (nullable)
+     * @param batchSize documents per cursor batch
+     * @param action    called once per query, in cursor order
+     */
+    void forEachByCreatedAt(QueryStatus status, LocalDateTime start, LocalDateTime end, int batchSize,
+            Consumer<MaintenanceQuery> action);
+
+    /**
+     * A cheap signal that changes whenever a query created in the range is
+     * added, removed or updated: the number of matches and their newest
+     * updatedAt, including the archive when the range reaches it.
+     *
+     * @param start created on or after (nullable)
+     * @param end   created on or before (nullable)
+     */
+    String dataVersion(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Find a query by id in the hot collection or, failing that, the archive.
+     */
+    Optional<MaintenanceQuery> findByIdIncludingArchive(String id);
+
+    /**
+     * Apply a state transition as one findAndModify that only $sets the given
+     * fields and bumps the version. The update is conditional on the current
+     * status being one of expectedStatuses and/or the version matching
+     * expectedVersion; pass null to skip either check.
+     * 
+     * @param id               the query ID
+     * @param expectedStatuses statuses the transition is allowed from (nullable)
+     * @param expectedVersion  version the caller last read (nullable)
+     * @param update           the fields to set
+     * @return the document as it was before the update
+     * @throws com.rhs.backend.exception.ResourceNotFoundException when the query does not exist
+     * @throws com.rhs.backend.exception.ConflictException         when a check fails
+     */
+    MaintenanceQuery transition(String id, Collection<QueryStatus> expectedStatuses, Long expectedVersion,
+            Update update);
+}
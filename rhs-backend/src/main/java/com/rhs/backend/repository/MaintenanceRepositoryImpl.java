@@ -0,0 +1,325 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.dto.response.CursorPage;
+import com.rhs.backend.exception.ConflictException;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate backed implementation of {@link MaintenanceRepositoryCustom}.
+ * Picked up by Spring Data through the "Impl" suffix.
+ *
+ * Searches also read {@link MaintenanceArchive#COLLECTION} when their status
+ * and date range can match archived queries, and merge both results in the
+ * same newest-first order. A query that is briefly in both collections while
+ * it is being archived is returned once.
+ */
+@RequiredArgsConstructor
+public class MaintenanceRepositoryImpl implements MaintenanceRepositoryCustom {
+
+    /**
+     * Fields a list view needs. Leaves out the description, photos, student and
+     * the embedded admin apart from its name. createdAt and id also feed the cursor.
+     */
+    static final String[] SUMMARY_FIELDS = {
+            "id", "queryTitle", "status", "priority", "roomId", "createdAt",
+            "assignedTo.firstName", "assignedTo.lastName", "possibleDuplicateOf"
+    };
+
+    /**
+     * Fields an export row needs: everything but the photos and the embedded
+     * student and admin, of which only the building and the admin's id and
+     * name are kept.
+     */
+    static final String[] EXPORT_FIELDS = {
+            "id", "queryTitle", "queryDescription", "status", "priority", "roomId",
+            "student.roomDetails.building", "assignedTo.id", "assignedTo.firstName", "assignedTo.lastName",
+            "assignedAt", "resolutionNotes", "resolvedAt", "escalatedAt", "possibleDuplicateOf",
+            "createdAt", "updatedAt"
+    };
+
+    private static final Comparator<MaintenanceQuery> NEWEST_FIRST = Comparator
+            .comparing(MaintenanceQuery::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(MaintenanceQuery::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceArchive maintenanceArchive;
+
+    @Override
+    public List<MaintenanceQuery> search(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end) {
+        return find(searchQuery(priority, status, start, end), spansArchive(status, start));
+    }
+
+    @Override
+    public List<MaintenanceQuery> searchSummaries(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end) {
+        Query query = searchQuery(priority, status, start, end);
+        query.fields().include(SUMMARY_FIELDS);
+        return find(query, spansArchive(status, start));
+    }
+
+    @Override
+    public List<MaintenanceQuery> findSummariesByRoom(String roomId) {
+        Query query = new Query(Criteria.where("roomId").is(roomId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        query.fields().include(SUMMARY_FIELDS);
+        return find(query, spansArchive(null, null));
+    }
+
+    @Override
+    public void forEachByCreatedAt(QueryStatus status, LocalDateTime start, LocalDateTime end, int batchSize,
+            Consumer<MaintenanceQuery> action) {
+        Query query = new Query(searchCriteria(null, status, start, end))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .cursorBatchSize(batchSize);
+        query.fields().include(EXPORT_FIELDS);
+        // one cursor at a time, so neither sits idle long enough to time out
+        if (spansArchive(status, start)) {
+            try (Stream<MaintenanceQuery> archived = mongoTemplate.stream(query, MaintenanceQuery.class,
+                    MaintenanceArchive.COLLECTION)) {
+                archived.forEach(action);
+            }
+        }
+        try (Stream<MaintenanceQuery> hot = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            hot.forEach(action);
+        }
+    }
+
+    @Override
+    public String dataVersion(LocalDateTime start, LocalDateTime end) {
+        TypedAggregation<MaintenanceQuery> aggregation = Aggregation.newAggregation(MaintenanceQuery.class,
+                Aggregation.match(searchCriteria(null, null, start, end)),
+                Aggregation.group().count().as("count").max("updatedAt").as("maxUpdatedAt"));
+        List<Document> results = new ArrayList<>();
+        results.add(mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult());
+        if (spansArchive(null, start)) {
+            results.add(mongoTemplate.aggregate(aggregation, MaintenanceArchive.COLLECTION, Document.class)
+                    .getUniqueMappedResult());
+        }
+        long count = 0;
+        long maxUpdatedAt = 0;
+        for (Document result : results) {
+            if (result == null) {
+                continue;
+            }
+            count += ((Number) result.get("count")).longValue();
+            if (result.get("maxUpdatedAt") instanceof Date updatedAt) {
+                maxUpdatedAt = Math.max(maxUpdatedAt, updatedAt.getTime());
+            }
+        }
+        return count + "@" + maxUpdatedAt;
+    }
+
+    @Override
+    public Optional<MaintenanceQuery> findByIdIncludingArchive(String id) {
+        MaintenanceQuery query = mongoTemplate.findById(id, MaintenanceQuery.class);
+        if (query == null) {
+            query = mongoTemplate.findById(id, MaintenanceQuery.class, MaintenanceArchive.COLLECTION);
+        }
+        return Optional.ofNullable(query);
+    }
+
+    @Override
+    public CursorPage<MaintenanceQuery> searchPage(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit) {
+        return page(priority, status, start, end, cursor, limit, false);
+    }
+
+    @Override
+    public CursorPage<MaintenanceQuery> searchSummaryPage(String priority, QueryStatus status,
+            LocalDateTime start, LocalDateTime end, String cursor, int limit) {
+        return page(priority, status, start, end, cursor, limit, true);
+    }
+
+    @Override
+    public MaintenanceQuery transition(String id, Collection<QueryStatus> expectedStatuses, Long expectedVersion,
+            Update update) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedStatuses != null && !expectedStatuses.isEmpty()) {
+            criteria.and("status").in(expectedStatuses);
+        }
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        update.inc("version", 1);
+
+        MaintenanceQuery before = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), MaintenanceQuery.class);
+        if (before != null) {
+            return before;
+        }
+
+        // nothing matched; only now pay for a read to tell "missing" from "conflict"
+        MaintenanceQuery current = mongoTemplate.findById(id, MaintenanceQuery.class);
+        if (current == null) {
+            throw new ResourceNotFoundException("Maintenance query not found with ID: " + id);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new ConflictException("Maintenance query " + id + " was modified concurrently (expected version "
+                    + expectedVersion + ", found " + current.getVersion() + ")");
+        }
+        throw new ConflictException("Maintenance query " + id + " is " + current.getStatus()
+                + ", expected one of " + expectedStatuses);
+    }
+
+    private Query searchQuery(String priority, QueryStatus status, LocalDateTime start, LocalDateTime end) {
+        return new Query(searchCriteria(priority, status, start, end))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    private CursorPage<MaintenanceQuery> page(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit, boolean summaryOnly) {
+        Criteria criteria = searchCriteria(priority, status, start, end);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, seekCriteria(cursor));
+        }
+
+        // fetch one extra row to learn whether another page exists
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit + 1);
+        if (summaryOnly) {
+            query.fields().include(SUMMARY_FIELDS);
+        }
+        List<MaintenanceQuery> rows = find(query, spansArchive(status, start));
+
+        boolean hasMore = rows.size() > limit;
+        List<MaintenanceQuery> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+
+        return CursorPage.<MaintenanceQuery>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Run query against the hot collection and, when asked, the archive too.
+     * Both results are already newest first, so the merge keeps that order
+     * and the query's limit.
+     */
+    private List<MaintenanceQuery> find(Query query, boolean withArchive) {
+        List<MaintenanceQuery> hot = mongoTemplate.find(query, MaintenanceQuery.class);
+        if (!withArchive) {
+            return hot;
+        }
+        List<MaintenanceQuery> archived = mongoTemplate.find(query, MaintenanceQuery.class,
+                MaintenanceArchive.COLLECTION);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<String, MaintenanceQuery> byId = new LinkedHashMap<>();
+        hot.forEach(row -> byId.put(row.getId(), row));
+        archived.forEach(row -> byId.putIfAbsent(row.getId(), row));
+        return byId.values().stream()
+                .sorted(NEWEST_FIRST)
+                .limit(query.getLimit() > 0 ? query.getLimit() : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Only closed queries are archived, and only those created before the
+     * archive's horizon.
+     */
+    private boolean spansArchive(QueryStatus status, LocalDateTime start) {
+        return (status == null || status == QueryStatus.RESOLVED || status == QueryStatus.CANCELLED)
+                && maintenanceArchive.mayHoldCreatedFrom(start);
+    }
+
+    /**
+     * Rows strictly after the cursor in (createdAt desc, _id desc) order.
+     * Rows without a createdAt sort after every dated row, so a dated
+     * cursor is followed by them and an undated one seeks on _id alone.
+     */
+    static Criteria seekCriteria(String cursor) {
+        String[] parts = decodeCursor(cursor);
+        String id = parts[1];
+        if (parts[0].isEmpty()) {
+            return Criteria.where("createdAt").is(null).and("id").lt(id);
+        }
+        LocalDateTime createdAt = LocalDateTime.parse(parts[0]);
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(createdAt),
+                Criteria.where("createdAt").is(createdAt).and("id").lt(id),
+                Criteria.where("createdAt").is(null));
+    }
+
+    /**
+     * "createdAt|id", with an empty createdAt for a row that has none.
+     */
+    static String encodeCursor(MaintenanceQuery last) {
+        String createdAt = last.getCreatedAt() != null ? last.getCreatedAt().toString() : "";
+        String raw = createdAt + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            if (!parts[0].isEmpty()) {
+                LocalDateTime.parse(parts[0]);
+            }
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Build criteria from whichever filters are present.
+     * Priorities are stored as upper-case PriorityLevel names.
+     */
+    static Criteria searchCriteria(String priority, QueryStatus status, LocalDateTime start, LocalDateTime end) {
+        Criteria criteria = new Criteria();
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        if (priority != null) {
+            criteria.and("priority").is(priority.toUpperCase());
+        }
+        if (start != null || end != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (start != null) {
+                createdAt.gte(start);
+            }
+            if (end != null) {
+                createdAt.lte(end);
+            }
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.model.ReportSchedule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReportScheduleRepository extends MongoRepository<ReportSchedule, String> {
+}
@@ -0,0 +1,121 @@
+package com.rhs.backend.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A small LRU cache with a size bound and a time-to-live per entry.
+ *
+ * Entries live in an access-ordered LinkedHashMap, so the eldest entry is the
+ * least recently used one and is evicted when the cache is full. Expired
+ * entries are dropped when they are next read.
+ *
+ * Loads run outside the lock. Every invalidation bumps a generation counter
+ * and a load only stores its value if no invalidation happened while it ran,
+ * so a read racing a write can never put the pre-write value back.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public BoundedCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("maxEntries and ttlMillis must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached value for key, or the loader's value, which is then cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        V value = loader.apply(key);
+        synchronized (this) {
+            if (value != null && generation == loadGeneration) {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        generation++;
+        Iterator<K> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (predicate.test(keys.next())) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), maxEntries, hits, misses, evictions, expirations, invalidations);
+    }
+
+    /**
+     * Counters since startup. Evictions are entries dropped to stay within
+     * maxEntries; expirations are entries found past their time-to-live.
+     */
+    public record Stats(int size, int maxEntries, long hits, long misses, long evictions, long expirations,
+            long invalidations) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
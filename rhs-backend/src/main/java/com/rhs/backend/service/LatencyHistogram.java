@@ -0,0 +1,87 @@
+package com.rhs.backend.service;
+
+/**
+ * Log-linear histogram of durations in whole seconds, in the style of
+ * HdrHistogram. Values below 64 get a bucket each; above that every power of
+ * two is split into 32 equal buckets, so any recorded value is known to
+ * within about 3% while the whole range up to two years fits in 704 counters.
+ *
+ * Not thread safe; MaintenanceLatencyTracker guards access.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_BITS = 26;
+
+    static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_BITS - SUB_BUCKET_BITS) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+
+    void record(long seconds) {
+        long value = Math.min(Math.max(seconds, 0), MAX_VALUE);
+        counts[index(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    /**
+     * The value at the given percentile (0-100), reported as the middle of
+     * its bucket and never above the largest recorded value. 0 when empty.
+     */
+    long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min((lowest(i) + highest(i)) / 2, max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >> shift) - HALF);
+    }
+
+    static long lowest(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF + HALF;
+        return subBucket << shift;
+    }
+
+    static long highest(int index) {
+        return index < SUB_BUCKETS ? index : lowest(index + 1) - 1;
+    }
+}
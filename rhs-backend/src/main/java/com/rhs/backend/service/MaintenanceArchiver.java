@@ -0,0 +1,150 @@
+package com.rhs.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.MaintenanceArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves RESOLVED and CANCELLED queries closed more than archive-after-days
+ * ago from "maintenance_queries" to {@link MaintenanceArchive#COLLECTION},
+ * so the hot collection and its indexes only hold recent and open work.
+ *
+ * Each batch is copied with replace-upserts keyed on _id, then removed from
+ * the hot collection only at the version that was copied. Every step can be
+ * repeated, so a run that dies half way is finished by the next one. A query
+ * changed between the copy and the delete stays hot and its archive copy is
+ * dropped again.
+ *
+ * Counters and rollups are unaffected: archiving is not a state change.
+ */
+@Component
+@Slf4j
+public class MaintenanceArchiver {
+
+    static final String HOT_COLLECTION = "maintenance_queries";
+
+    private static final List<String> CLOSED_STATUSES = List.of(QueryStatus.RESOLVED.name(),
+            QueryStatus.CANCELLED.name());
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceArchive maintenanceArchive;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public MaintenanceArchiver(MongoTemplate mongoTemplate, MaintenanceArchive maintenanceArchive,
+            @Value("${maintenance.archive.enabled:true}") boolean enabled,
+            @Value("${maintenance.archive.batch:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.maintenanceArchive = maintenanceArchive;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${maintenance.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = maintenanceArchive.cutoff();
+        Object lastId = null;
+        long archived = 0;
+        while (true) {
+            List<Document> batch = nextBatch(cutoff, lastId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+            archived += archiveBatch(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} maintenance queries closed before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Closed queries due for archiving, in _id order after lastId. Resolved
+     * queries go by resolvedAt, cancelled ones by their last update.
+     */
+    private List<Document> nextBatch(LocalDateTime cutoff, Object lastId) {
+        Criteria criteria = Criteria.where("status").in(CLOSED_STATUSES)
+                .orOperator(Criteria.where("resolvedAt").lt(cutoff),
+                        Criteria.where("resolvedAt").is(null).and("updatedAt").lt(cutoff));
+        if (lastId != null) {
+            criteria.and("_id").gt(lastId);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+        return mongoTemplate.find(query, Document.class, HOT_COLLECTION);
+    }
+
+    private long archiveBatch(List<Document> batch) {
+        maintenanceArchive.recordArchiving(batch.stream()
+                .map(document -> document.get("createdAt"))
+                .filter(Date.class::isInstance)
+                .map(date -> LocalDateTime.ofInstant(((Date) date).toInstant(), ZoneId.systemDefault()))
+                .max(LocalDateTime::compareTo)
+                .orElse(null));
+
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceArchive.COLLECTION);
+        for (Document document : batch) {
+            copy.replaceOne(new Query(Criteria.where("_id").is(document.get("_id"))), document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        copy.execute();
+
+        BulkOperations remove = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HOT_COLLECTION);
+        for (Document document : batch) {
+            remove.remove(new Query(Criteria.where("_id").is(document.get("_id"))
+                    .and("version").is(document.get("version"))));
+        }
+        BulkWriteResult removed = remove.execute();
+
+        if (removed.getDeletedCount() < batch.size()) {
+            dropChangedCopies(batch);
+        }
+        return removed.getDeletedCount();
+    }
+
+    /**
+     * Queries still in the hot collection were changed after they were
+     * copied; their archive copies are stale.
+     */
+    private void dropChangedCopies(List<Document> batch) {
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).collect(Collectors.toList());
+        Query stillHot = new Query(Criteria.where("_id").in(ids));
+        stillHot.fields().include("_id", "version");
+        Set<Object> changed = new HashSet<>();
+        for (Document current : mongoTemplate.find(stillHot, Document.class, HOT_COLLECTION)) {
+            batch.stream()
+                    .filter(document -> document.get("_id").equals(current.get("_id")))
+                    .filter(document -> !Objects.equals(document.get("version"), current.get("version")))
+                    .forEach(document -> changed.add(document.get("_id")));
+        }
+        if (!changed.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(changed)), MaintenanceArchive.COLLECTION);
+            log.info("Kept {} maintenance queries hot that changed while being archived", changed.size());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.embedded.AdminRef;
+import com.rhs.backend.model.enums.PriorityLevel;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.AdminRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Picks an assignee for maintenance queries from in-memory workloads.
+ *
+ * Every admin who can manage queries has a slot holding their open load: the
+ * sum of the priority weights (LOW 1 .. URGENT 4) of the open queries assigned
+ * to them. Slots are kept in TreeSets ordered by load, one over all eligible
+ * admins and one per department, so a pick and every load change are
+ * O(log n). Picks prefer the configured maintenance departments and fall back
+ * to any eligible admin.
+ *
+ * Off unless maintenance.assignment.enabled is set to true.
+ *
+ * Loads follow every transition reported by the services and are rebuilt from
+ * Mongo on startup and periodically, which also picks up roster changes.
+ */
+@Component
+@Slf4j
+public class MaintenanceAssignmentEngine {
+
+    private static final Comparator<Slot> BY_LOAD = Comparator
+            .comparingLong((Slot slot) -> slot.load)
+            .thenComparingInt(slot -> slot.open)
+            .thenComparing(slot -> slot.admin.getId());
+
+    private static final Set<QueryStatus> OPEN_STATUSES = Set.of(QueryStatus.PENDING, QueryStatus.IN_PROGRESS);
+
+    private final AdminRepository adminRepository;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final List<String> departments;
+
+    private final Map<String, Slot> slots = new HashMap<>();
+    private final TreeSet<Slot> all = new TreeSet<>(BY_LOAD);
+    private final Map<String, TreeSet<Slot>> byDepartment = new HashMap<>();
+
+    public MaintenanceAssignmentEngine(AdminRepository adminRepository, MongoTemplate mongoTemplate,
+            @Value("${maintenance.assignment.enabled:false}") boolean enabled,
+            @Value("${maintenance.assignment.departments:Maintenance}") List<String> departments) {
+        this.adminRepository = adminRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.departments = departments.stream().map(MaintenanceAssignmentEngine::departmentKey)
+                .collect(Collectors.toList());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assign a new query before it is inserted, so auto-assignment costs no
+     * extra round trip. Leaves the query unassigned when nobody is eligible.
+     *
+     * @param query the new query, not yet saved
+     * @param save  inserts the query and returns the saved copy
+     * @return the saved query
+     */
+    public MaintenanceQuery assignOnCreate(MaintenanceQuery query, UnaryOperator<MaintenanceQuery> save) {
+        Optional<Admin> assignee = enabled ? reserve(query.getPriority()) : Optional.empty();
+        try {
+            assignee.ifPresent(admin -> {
+                query.setAssignedTo(AdminRef.of(admin));
+                query.setAssignedAt(query.getCreatedAt() != null ? query.getCreatedAt() : LocalDateTime.now());
+                query.setStatus(QueryStatus.IN_PROGRESS);
+            });
+            MaintenanceQuery saved = save.apply(query);
+            onTransition(new MaintenanceTransition(null, null, null, null, null, saved));
+            return saved;
+        } finally {
+            // the saved query now carries the load
+            assignee.ifPresent(admin -> release(admin.getId(), query.getPriority()));
+        }
+    }
+
+    /**
+     * Pick the least loaded eligible admin for a query of this priority and
+     * hold the load on them until {@link #release}. Used while a batch of
+     * decisions is made before anything is written.
+     */
+    public synchronized Optional<Admin> reserve(String priority) {
+        TreeSet<Slot> pool = null;
+        for (String department : departments) {
+            TreeSet<Slot> candidates = byDepartment.get(department);
+            if (candidates != null && !candidates.isEmpty()
+                    && (pool == null || BY_LOAD.compare(candidates.first(), pool.first()) < 0)) {
+                pool = candidates;
+            }
+        }
+        if (pool == null) {
+            pool = all;
+        }
+        if (pool.isEmpty()) {
+            return Optional.empty();
+        }
+        Slot slot = pool.first();
+        adjust(slot, weight(priority), 1);
+        return Optional.of(slot.admin);
+    }
+
+    public synchronized void release(String adminId, String priority) {
+        Slot slot = slots.get(adminId);
+        if (slot != null) {
+            adjust(slot, -weight(priority), -1);
+        }
+    }
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        // creations were accounted for in assignOnCreate
+        onTransitions(event.getTransitions());
+    }
+
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    /**
+     * Move load between admins for changes to status, priority or assignee.
+     */
+    public synchronized void onTransitions(List<MaintenanceTransition> transitions) {
+        for (MaintenanceTransition transition : transitions) {
+            MaintenanceQuery query = transition.query();
+            if (transition.previousAssigneeId() != null && OPEN_STATUSES.contains(transition.previousStatus())) {
+                release(transition.previousAssigneeId(), transition.previousPriority());
+            }
+            if (query.getAssignedTo() != null && OPEN_STATUSES.contains(query.getStatus())) {
+                Slot slot = slots.get(query.getAssignedTo().getId());
+                if (slot != null) {
+                    adjust(slot, weight(query.getPriority()), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the roster and every load from Mongo: one query for eligible
+     * admins and one aggregation over open, assigned queries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${maintenance.assignment.reload-ms:600000}",
+            initialDelayString = "${maintenance.assignment.reload-ms:600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        List<Admin> admins = adminRepository.findAdminsWhoCanManageQueries().stream()
+                .filter(admin -> !Boolean.FALSE.equals(admin.getIsEnabled()))
+                .collect(Collectors.toList());
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").in(OPEN_STATUSES).and("assignedTo").ne(null)),
+                Aggregation.group("assignedTo.id", "priority").count().as("count"));
+        List<Document> loads = mongoTemplate.aggregate(aggregation, MaintenanceQuery.class, Document.class)
+                .getMappedResults();
+
+        synchronized (this) {
+            slots.clear();
+            all.clear();
+            byDepartment.clear();
+            for (Admin admin : admins) {
+                slots.put(admin.getId(), new Slot(admin));
+            }
+            for (Document row : loads) {
+                Document key = (Document) row.get("_id");
+                Object adminId = key.get("id");
+                Slot slot = adminId != null ? slots.get(adminId.toString()) : null;
+                if (slot != null) {
+                    int count = ((Number) row.get("count")).intValue();
+                    slot.load += (long) weight(key.getString("priority")) * count;
+                    slot.open += count;
+                }
+            }
+            slots.values().forEach(this::index);
+        }
+        log.info("Assignment engine loaded {} eligible admins", admins.size());
+    }
+
+    private void adjust(Slot slot, long load, int open) {
+        unindex(slot);
+        slot.load = Math.max(0, slot.load + load);
+        slot.open = Math.max(0, slot.open + open);
+        index(slot);
+    }
+
+    private void index(Slot slot) {
+        all.add(slot);
+        byDepartment.computeIfAbsent(departmentKey(slot.admin.getDepartment()), key -> new TreeSet<>(BY_LOAD))
+                .add(slot);
+    }
+
+    private void unindex(Slot slot) {
+        all.remove(slot);
+        TreeSet<Slot> department = byDepartment.get(departmentKey(slot.admin.getDepartment()));
+        if (department != null) {
+            department.remove(slot);
+        }
+    }
+
+    /**
+     * URGENT work counts four times as much as LOW when balancing.
+     */
+    static int weight(String priority) {
+        if (priority == null) {
+            return 1;
+        }
+        try {
+            return PriorityLevel.valueOf(priority.toUpperCase()).ordinal() + 1;
+        } catch (IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    private static String departmentKey(String department) {
+        return department == null ? "" : department.trim().toLowerCase();
+    }
+
+    private static final class Slot {
+        private final Admin admin;
+        private long load;
+        private int open;
+
+        Slot(Admin admin) {
+            this.admin = admin;
+        }
+    }
+}
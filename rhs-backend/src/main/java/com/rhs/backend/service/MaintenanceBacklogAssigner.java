@@ -0,0 +1,124 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.PriorityLevel;
+import com.rhs.backend.model.enums.QueryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Assigns PENDING queries that were created while nobody was eligible, or
+ * before auto-assignment was enabled. URGENT queries are handled first and
+ * oldest first within a priority.
+ *
+ * Picks for a whole batch are reserved in the assignment engine, then written
+ * with one bulk assign per admin. The bulk write only touches queries that
+ * are still unassigned, so a manual assignment made meanwhile wins.
+ */
+@Component
+@Slf4j
+public class MaintenanceBacklogAssigner {
+
+    private static final PriorityLevel[] ORDER = {
+            PriorityLevel.URGENT, PriorityLevel.HIGH, PriorityLevel.MEDIUM, PriorityLevel.LOW
+    };
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceAssignmentEngine maintenanceAssignmentEngine;
+    private final MaintenanceBulkService maintenanceBulkService;
+    private final int batchSize;
+
+    public MaintenanceBacklogAssigner(MongoTemplate mongoTemplate,
+            MaintenanceAssignmentEngine maintenanceAssignmentEngine, MaintenanceBulkService maintenanceBulkService,
+            @Value("${maintenance.assignment.backlog-batch:200}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.maintenanceAssignmentEngine = maintenanceAssignmentEngine;
+        this.maintenanceBulkService = maintenanceBulkService;
+        this.batchSize = Math.min(batchSize, BulkMaintenanceRequest.MAX_BATCH);
+    }
+
+    @Scheduled(fixedDelayString = "${maintenance.assignment.backlog-ms:60000}",
+            initialDelayString = "${maintenance.assignment.backlog-ms:60000}")
+    public void sweep() {
+        if (!maintenanceAssignmentEngine.isEnabled()) {
+            return;
+        }
+        int remaining = batchSize;
+        int assigned = 0;
+        for (PriorityLevel priority : ORDER) {
+            if (remaining <= 0) {
+                break;
+            }
+            List<String> ids = unassigned(priority.name(), remaining);
+            remaining -= ids.size();
+            assigned += assign(priority.name(), ids, true);
+        }
+        if (assigned > 0) {
+            log.info("Auto-assigned {} backlog maintenance queries", assigned);
+        }
+    }
+
+    private List<String> unassigned(String priority, int limit) {
+        // served by the status_priority_createdAt index
+        Query query = new Query(Criteria.where("status").is(QueryStatus.PENDING)
+                .and("priority").is(priority)
+                .and("assignedTo").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(limit);
+        query.fields().include("id");
+        return mongoTemplate.find(query, MaintenanceQuery.class).stream()
+                .map(MaintenanceQuery::getId)
+                .toList();
+    }
+
+    /**
+     * Spread the given queries over the least loaded admins. With
+     * onlyUnassigned, queries that were assigned meanwhile are left alone.
+     * Returns how many were assigned.
+     */
+    int assign(String priority, List<String> ids, boolean onlyUnassigned) {
+        Map<String, List<String>> byAdmin = new LinkedHashMap<>();
+        List<String> reserved = new ArrayList<>();
+        try {
+            for (String id : ids) {
+                Optional<Admin> admin = maintenanceAssignmentEngine.reserve(priority);
+                if (admin.isEmpty()) {
+                    break;
+                }
+                reserved.add(admin.get().getId());
+                byAdmin.computeIfAbsent(admin.get().getId(), key -> new ArrayList<>()).add(id);
+            }
+        } finally {
+            // the bulk writes below report the real load through their MaintenanceChangedEvent
+            reserved.forEach(adminId -> maintenanceAssignmentEngine.release(adminId, priority));
+        }
+
+        int assigned = 0;
+        for (Map.Entry<String, List<String>> entry : byAdmin.entrySet()) {
+            BulkMaintenanceRequest request = new BulkMaintenanceRequest();
+            request.setAdminId(entry.getKey());
+            request.setQueryIds(entry.getValue());
+            request.setOnlyUnassigned(onlyUnassigned);
+            try {
+                assigned += maintenanceBulkService.assign(request).getUpdated();
+            } catch (RuntimeException e) {
+                log.warn("Backlog assignment to admin {} failed: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return assigned;
+    }
+}
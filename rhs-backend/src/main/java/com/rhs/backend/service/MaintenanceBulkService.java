@@ -0,0 +1,353 @@
+package com.rhs.backend.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.dto.response.BulkOperationResult;
+import com.rhs.backend.dto.response.BulkOperationResult.Item;
+import com.rhs.backend.dto.response.BulkOperationResult.Outcome;
+import com.rhs.backend.dto.response.MaintenanceEvent;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.mapper.MaintenanceQueryMapper;
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceAuditEntry;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.embedded.AdminRef;
+import com.rhs.backend.model.enums.PriorityLevel;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.AdminRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Create, assign, change status or reprioritise many maintenance queries at once.
+ *
+ * Each batch costs one read of the current states, one unordered bulk write
+ * with a version-guarded updateOne per query, and only if some of those did
+ * not match, one more read to find out which. The audit trail, the
+ * notification and one {@link MaintenanceChangedEvent} cover the whole batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceBulkService {
+
+    // enough to outlive any batch racing ours
+    private static final int RECENT_BULK_IDS = 5;
+
+    private static final Set<QueryStatus> OPEN_STATUSES = EnumSet.of(QueryStatus.PENDING, QueryStatus.IN_PROGRESS);
+
+    private final MongoTemplate mongoTemplate;
+    private final AdminRepository adminRepository;
+    private final MaintenanceQueryMapper maintenanceQueryMapper;
+    private final MaintenanceAssignmentEngine maintenanceAssignmentEngine;
+    private final MaintenanceDuplicateDetector maintenanceDuplicateDetector;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Create many queries at once, e.g. the reports collected on paper after
+     * an outage. The students and admins of the whole batch are loaded with
+     * one findAllById per type; each query is then flagged for duplicates and
+     * auto-assigned just as a single create would be.
+     */
+    public List<MaintenanceQueryDTO> create(List<MaintenanceQueryDTO> queries) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("At least one query is required");
+        }
+        if (queries.size() > BulkMaintenanceRequest.MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + BulkMaintenanceRequest.MAX_BATCH + " queries per batch");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MaintenanceQuery> created = new ArrayList<>();
+        for (MaintenanceQuery entity : maintenanceQueryMapper.toEntities(queries)) {
+            entity.setStatus(QueryStatus.PENDING);
+            if (entity.getPriority() != null) {
+                entity.setPriority(entity.getPriority().toUpperCase());
+            }
+            entity.setCreatedAt(now);
+            entity.setUpdatedAt(now);
+            maintenanceDuplicateDetector.flag(entity);
+            created.add(maintenanceAssignmentEngine.assignOnCreate(entity, mongoTemplate::insert));
+        }
+        eventPublisher.publishEvent(MaintenanceChangedEvent.created(this, created));
+        log.info("[NOTIFY] Bulk CREATE added {} maintenance queries", created.size());
+        return created.stream().map(maintenanceQueryMapper::toDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Assign open queries to an admin and move them to IN_PROGRESS. With
+     * onlyUnassigned, queries someone already picked up are reported as
+     * conflicts rather than reassigned.
+     */
+    public BulkOperationResult assign(BulkMaintenanceRequest request) {
+        if (request.getAdminId() == null) {
+            throw new IllegalArgumentException("adminId is required");
+        }
+        Admin admin = adminRepository.findById(request.getAdminId())
+                .orElseThrow(() -> new ResourceNotFoundException("Admin not found with ID: " + request.getAdminId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("assignedTo", AdminRef.of(admin))
+                .set("status", QueryStatus.IN_PROGRESS)
+                .set("updatedAt", now)
+                .min("assignedAt", now);
+
+        boolean onlyUnassigned = Boolean.TRUE.equals(request.getOnlyUnassigned());
+        return execute("ASSIGN", Map.of("adminId", admin.getId()), MaintenanceEvent.Type.ASSIGNED,
+                request.getQueryIds(),
+                query -> OPEN_STATUSES.contains(query.getStatus())
+                        && (!onlyUnassigned || query.getAssignedTo() == null), update,
+                query -> {
+                    query.setAssignedTo(AdminRef.of(admin));
+                    if (query.getAssignedAt() == null) {
+                        query.setAssignedAt(now);
+                    }
+                    query.setStatus(QueryStatus.IN_PROGRESS);
+                    query.setUpdatedAt(now);
+                });
+    }
+
+    /**
+     * Move queries to a new status. Resolving is only allowed from an open status.
+     * Queries moved back to PENDING restart their SLA.
+     */
+    public BulkOperationResult changeStatus(BulkMaintenanceRequest request) {
+        QueryStatus status = request.getStatus();
+        if (status == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("status", status).set("updatedAt", now);
+        if (status == QueryStatus.RESOLVED) {
+            update.set("resolvedAt", now);
+            if (request.getResolutionNotes() != null) {
+                update.set("resolutionNotes", request.getResolutionNotes());
+            }
+        }
+        if (status == QueryStatus.PENDING) {
+            update.set("escalatedAt", now);
+        }
+        Predicate<MaintenanceQuery> allowed = status == QueryStatus.RESOLVED
+                ? query -> OPEN_STATUSES.contains(query.getStatus())
+                : query -> query.getStatus() != status;
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("status", status);
+        if (request.getResolutionNotes() != null) {
+            parameters.put("resolutionNotes", request.getResolutionNotes());
+        }
+
+        MaintenanceEvent.Type eventType = status == QueryStatus.RESOLVED
+                ? MaintenanceEvent.Type.RESOLVED : MaintenanceEvent.Type.STATUS_CHANGED;
+        return execute("STATUS", parameters, eventType, request.getQueryIds(), allowed, update,
+                query -> {
+                    query.setStatus(status);
+                    query.setUpdatedAt(now);
+                    if (status == QueryStatus.RESOLVED) {
+                        query.setResolvedAt(now);
+                    }
+                    if (status == QueryStatus.PENDING) {
+                        query.setEscalatedAt(now);
+                    }
+                });
+    }
+
+    /**
+     * Change the priority of open queries. Their SLA restarts at the new
+     * priority, as after an escalation.
+     */
+    public BulkOperationResult reprioritise(BulkMaintenanceRequest request) {
+        if (request.getPriority() == null) {
+            throw new IllegalArgumentException("priority is required");
+        }
+        String priority = PriorityLevel.valueOf(request.getPriority().toUpperCase()).name();
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("priority", priority).set("escalatedAt", now).set("updatedAt", now);
+
+        return execute("PRIORITY", Map.of("priority", priority), MaintenanceEvent.Type.PRIORITY_CHANGED,
+                request.getQueryIds(),
+                query -> OPEN_STATUSES.contains(query.getStatus()) && !priority.equals(query.getPriority()), update,
+                query -> {
+                    query.setPriority(priority);
+                    query.setEscalatedAt(now);
+                    query.setUpdatedAt(now);
+                });
+    }
+
+    /**
+     * Escalate PENDING queries that breached their SLA: raise them to the given
+     * priority (URGENT queries keep theirs) and stamp escalatedAt.
+     */
+    public BulkOperationResult escalate(List<String> queryIds, String priority) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("priority", priority).set("escalatedAt", now).set("updatedAt", now);
+
+        return execute("ESCALATE", Map.of("priority", priority), MaintenanceEvent.Type.PRIORITY_CHANGED, queryIds,
+                query -> query.getStatus() == QueryStatus.PENDING, update,
+                query -> {
+                    query.setPriority(priority);
+                    query.setEscalatedAt(now);
+                    query.setUpdatedAt(now);
+                });
+    }
+
+    private BulkOperationResult execute(String action, Map<String, Object> parameters,
+            MaintenanceEvent.Type eventType, List<String> queryIds, Predicate<MaintenanceQuery> allowed, Update update,
+            Consumer<MaintenanceQuery> change) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(queryIds));
+        if (ids.size() > BulkMaintenanceRequest.MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + BulkMaintenanceRequest.MAX_BATCH + " queries per batch");
+        }
+        // tags our writes, so a guarded update that did not match can be told from one that did
+        String batchId = UUID.randomUUID().toString();
+        update.inc("version", 1).push("bulkIds").slice(-RECENT_BULK_IDS).each(batchId);
+
+        Map<String, MaintenanceQuery> current = loadStates(ids);
+        Map<String, Item> outcomes = new LinkedHashMap<>();
+        List<MaintenanceQuery> candidates = new ArrayList<>();
+        for (String id : ids) {
+            MaintenanceQuery query = current.get(id);
+            if (query == null) {
+                outcomes.put(id, new Item(id, Outcome.NOT_FOUND, "Maintenance query not found with ID: " + id));
+            } else if (!allowed.test(query)) {
+                outcomes.put(id, new Item(id, Outcome.CONFLICT, "Not applicable while " + query.getStatus()));
+            } else {
+                candidates.add(query);
+            }
+        }
+
+        Set<Integer> failedIndexes = new LinkedHashSet<>();
+        if (!candidates.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceQuery.class);
+            for (MaintenanceQuery query : candidates) {
+                bulk.updateOne(new Query(Criteria.where("id").is(query.getId()).and("version").is(query.getVersion())),
+                        update);
+            }
+            BulkWriteResult result;
+            try {
+                result = bulk.execute();
+            } catch (BulkOperationException e) {
+                result = e.getResult();
+                for (BulkWriteError error : e.getErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    String id = candidates.get(error.getIndex()).getId();
+                    outcomes.put(id, new Item(id, Outcome.FAILED, error.getMessage()));
+                }
+            }
+
+            List<MaintenanceQuery> attempted = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    attempted.add(candidates.get(i));
+                }
+            }
+            Set<String> lost = result.getMatchedCount() < attempted.size() ? lostRaces(attempted, batchId) : Set.of();
+
+            List<MaintenanceTransition> transitions = new ArrayList<>();
+            for (MaintenanceQuery query : attempted) {
+                if (lost.contains(query.getId())) {
+                    outcomes.put(query.getId(), new Item(query.getId(), Outcome.CONFLICT, "Modified concurrently"));
+                    continue;
+                }
+                MaintenanceTransition transition = MaintenanceTransition.of(query);
+                change.accept(query);
+                transitions.add(transition);
+                outcomes.put(query.getId(), new Item(query.getId(), Outcome.UPDATED, null));
+            }
+            if (!transitions.isEmpty()) {
+                eventPublisher.publishEvent(MaintenanceChangedEvent.changed(this, eventType, transitions));
+            }
+        }
+
+        List<Item> items = ids.stream().map(outcomes::get).collect(Collectors.toList());
+        List<String> updatedIds = items.stream()
+                .filter(item -> item.getOutcome() == Outcome.UPDATED)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        BulkOperationResult result = BulkOperationResult.builder()
+                .action(action)
+                .requested(ids.size())
+                .updated(updatedIds.size())
+                .failed(ids.size() - updatedIds.size())
+                .items(items)
+                .build();
+
+        audit(action, parameters, updatedIds, result);
+        if (!updatedIds.isEmpty()) {
+            log.info("[NOTIFY] Bulk {} applied to {} maintenance queries {}", action, updatedIds.size(), parameters);
+        }
+        return result;
+    }
+
+    /**
+     * State of each id in one query: what the guards and counters need, the
+     * summary fields and building for live feed events, and the description
+     * the duplicate detector re-indexes a reopened query by.
+     */
+    private Map<String, MaintenanceQuery> loadStates(List<String> ids) {
+        Query query = new Query(Criteria.where("id").in(ids));
+        query.fields().include("id", "queryTitle", "queryDescription", "status", "priority", "roomId", "assignedAt", "resolvedAt", "createdAt",
+                "version", "assignedTo.id", "assignedTo.firstName", "assignedTo.lastName",
+                "student.roomDetails.building");
+        return mongoTemplate.find(query, MaintenanceQuery.class).stream()
+                .collect(Collectors.toMap(MaintenanceQuery::getId, q -> q));
+    }
+
+    /**
+     * Ids whose guarded update did not match because another writer changed
+     * them between the read and the bulk write: those our batch id was not
+     * pushed onto. Writers after ours keep the id, unlike the version.
+     */
+    private Set<String> lostRaces(List<MaintenanceQuery> attempted, String batchId) {
+        Query applied = new Query(Criteria.where("id").in(attempted.stream()
+                .map(MaintenanceQuery::getId)
+                .collect(Collectors.toList())).and("bulkIds").is(batchId));
+        applied.fields().include("id");
+        Set<String> ours = mongoTemplate.find(applied, MaintenanceQuery.class).stream()
+                .map(MaintenanceQuery::getId)
+                .collect(Collectors.toSet());
+        return attempted.stream()
+                .map(MaintenanceQuery::getId)
+                .filter(id -> !ours.contains(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private void audit(String action, Map<String, Object> parameters, List<String> updatedIds,
+            BulkOperationResult result) {
+        mongoTemplate.insert(MaintenanceAuditEntry.builder()
+                .action("BULK_" + action)
+                .parameters(parameters)
+                .queryIds(updatedIds)
+                .requested(result.getRequested())
+                .updated(result.getUpdated())
+                .failed(result.getFailed())
+                .performedAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,142 @@
+package com.rhs.backend.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.rhs.backend.dto.response.MaintenanceEvent;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds MaintenanceLiveFeed from a MongoDB change stream on
+ * maintenance_queries, so writes made by any instance or tool show up.
+ * Requires a replica set (Atlas clusters are); enable with
+ * maintenance.live-feed.source=change-stream.
+ *
+ * Resumes from the last seen token after transient errors.
+ */
+@Component
+@ConditionalOnProperty(name = "maintenance.live-feed.source", havingValue = "change-stream")
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceChangeStreamListener {
+
+    private static final String COLLECTION = "maintenance_queries";
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceLiveFeed maintenanceLiveFeed;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::listen, "maintenance-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void listen() {
+        BsonDocument resumeToken = null;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = watch(resumeToken)) {
+                while (running) {
+                    // waits up to maxAwaitTime, so stop() is noticed within a second
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        resumeToken = change.getResumeToken();
+                        handle(change);
+                    }
+                }
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Maintenance change stream failed, resuming: {}", e.getMessage());
+                try {
+                    TimeUnit.SECONDS.sleep(1);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> watch(BsonDocument resumeToken) {
+        var stream = mongoTemplate.getCollection(COLLECTION)
+                .watch(List.of(Aggregates.match(Filters.in("operationType", List.of("insert", "update")))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void handle(ChangeStreamDocument<Document> change) {
+        Document fullDocument = change.getFullDocument();
+        if (fullDocument == null) {
+            // deleted before the lookup ran
+            return;
+        }
+        MaintenanceEvent.Type type = typeOf(change);
+        if (type != null) {
+            maintenanceLiveFeed.publish(type, mongoTemplate.getConverter().read(MaintenanceQuery.class, fullDocument));
+        }
+    }
+
+    /**
+     * Classify a change the same way the service layer does; other edits are not published.
+     */
+    private static MaintenanceEvent.Type typeOf(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT:
+                return MaintenanceEvent.Type.CREATED;
+            case UPDATE:
+                Set<String> fields = change.getUpdateDescription().getUpdatedFields().keySet();
+                if (fields.contains("status")) {
+                    String status = change.getFullDocument().getString("status");
+                    if (QueryStatus.RESOLVED.name().equals(status)) {
+                        return MaintenanceEvent.Type.RESOLVED;
+                    }
+                    return fields.contains("assignedTo") ? MaintenanceEvent.Type.ASSIGNED
+                            : MaintenanceEvent.Type.STATUS_CHANGED;
+                }
+                if (fields.contains("assignedTo")) {
+                    return MaintenanceEvent.Type.ASSIGNED;
+                }
+                if (fields.contains("priority")) {
+                    return MaintenanceEvent.Type.PRIORITY_CHANGED;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+}
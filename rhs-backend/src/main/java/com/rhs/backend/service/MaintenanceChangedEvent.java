@@ -0,0 +1,73 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceEvent;
+import com.rhs.backend.model.MaintenanceQuery;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Published once per request or bulk batch after maintenance queries were
+ * created or changed through the service layer. The counters, the
+ * assignment engine, the latency tracker, the hotspots, the duplicate
+ * detector, the rollups and the read cache each listen for it, so a batch
+ * reaches every one of them as a single call.
+ *
+ * Listeners that keep derived state run at {@link #STATE_ORDER}; the live
+ * feed runs at {@link #NOTIFY_ORDER}, after them, so a client reacting to an
+ * event never reads a stale cache.
+ */
+public class MaintenanceChangedEvent extends ApplicationEvent {
+
+    public static final int STATE_ORDER = 0;
+    public static final int NOTIFY_ORDER = 100;
+
+    private final MaintenanceEvent.Type type;
+    private final List<MaintenanceQuery> created;
+    private final List<MaintenanceTransition> transitions;
+
+    private MaintenanceChangedEvent(Object source, MaintenanceEvent.Type type, List<MaintenanceQuery> created,
+            List<MaintenanceTransition> transitions) {
+        super(source);
+        this.type = type;
+        this.created = List.copyOf(created);
+        this.transitions = List.copyOf(transitions);
+    }
+
+    /**
+     * Queries that were just saved for the first time.
+     */
+    public static MaintenanceChangedEvent created(Object source, List<MaintenanceQuery> queries) {
+        return new MaintenanceChangedEvent(source, MaintenanceEvent.Type.CREATED, queries, List.of());
+    }
+
+    /**
+     * Existing queries that changed; type is what the live feed reports.
+     */
+    public static MaintenanceChangedEvent changed(Object source, MaintenanceEvent.Type type,
+            List<MaintenanceTransition> transitions) {
+        return new MaintenanceChangedEvent(source, type, List.of(), transitions);
+    }
+
+    public MaintenanceEvent.Type getType() {
+        return type;
+    }
+
+    public List<MaintenanceQuery> getCreated() {
+        return created;
+    }
+
+    public List<MaintenanceTransition> getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Every query the event is about, in their new state.
+     */
+    public List<MaintenanceQuery> queries() {
+        return created.isEmpty()
+                ? transitions.stream().map(MaintenanceTransition::query).collect(Collectors.toList())
+                : created;
+    }
+}
@@ -0,0 +1,263 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceStats;
+import com.rhs.backend.model.MaintenanceQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintenance query counters kept in a single "maintenance_counters" document
+ * and mirrored in memory, so the polled stats endpoints never scan the
+ * collection.
+ *
+ * Every lifecycle write in MaintenanceService reports its transition here and
+ * the matching $inc is applied atomically to the counters document. The mirror
+ * is refreshed from that document periodically (picks up writes made by other
+ * instances) and a reconciliation job recomputes everything from source to
+ * repair any drift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceCounters {
+
+    static final String COLLECTION = "maintenance_counters";
+    static final String COUNTERS_ID = "maintenance";
+
+    static final String TOTAL = "total";
+    static final String STATUS = "status.";
+    static final String PRIORITY = "priority.";
+    static final String BUILDING = "building.";
+    static final String RESOLVED_COUNT = "resolution.count";
+    static final String RESOLVED_HOURS = "resolution.hours";
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceStatsEngine maintenanceStatsEngine;
+
+    private volatile ConcurrentHashMap<String, Double> mirror = new ConcurrentHashMap<>();
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+        onTransitions(event.getTransitions());
+    }
+
+    /**
+     * A new query was created.
+     */
+    public void onCreated(MaintenanceQuery query) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        delta.put(TOTAL, 1.0);
+        delta.put(STATUS + key(query.getStatus()), 1.0);
+        delta.put(PRIORITY + key(query.getPriority()), 1.0);
+        delta.put(BUILDING + key(buildingOf(query)), 1.0);
+        apply(delta);
+    }
+
+    /**
+     * A query changed state.
+     */
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    /**
+     * Several queries changed in one batch. All changes are summed and written
+     * as a single $inc.
+     */
+    public void onTransitions(List<MaintenanceTransition> transitions) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        transitions.forEach(transition -> addTransition(delta, transition));
+        delta.values().removeIf(value -> value == 0);
+        apply(delta);
+    }
+
+    /**
+     * Current counts from the in-memory mirror. O(1), no database access.
+     */
+    public MaintenanceStats snapshot() {
+        Map<String, Double> current = mirror;
+        long resolvedCount = current.getOrDefault(RESOLVED_COUNT, 0.0).longValue();
+        double resolvedHours = current.getOrDefault(RESOLVED_HOURS, 0.0);
+
+        return MaintenanceStats.builder()
+                .total(current.getOrDefault(TOTAL, 0.0).longValue())
+                .statusCounts(section(current, STATUS))
+                .priorityCounts(section(current, PRIORITY))
+                .buildingCounts(section(current, BUILDING))
+                .resolvedSamples(resolvedCount)
+                .avgResolutionHours(resolvedCount == 0 ? 0 : resolvedHours / resolvedCount)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Document counters = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        if (counters == null) {
+            reconcile();
+        } else {
+            mirror = flatten(counters);
+        }
+    }
+
+    /**
+     * Re-read the counters document so the mirror includes other instances' writes.
+     */
+    @Scheduled(fixedDelayString = "${maintenance.counters.refresh-ms:5000}")
+    public void refresh() {
+        Document counters = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        if (counters != null) {
+            mirror = flatten(counters);
+        }
+    }
+
+    /**
+     * Recompute the counters from maintenance_queries and overwrite the
+     * counters document, logging any drift that was repaired. Increments that
+     * land while the recount runs may be lost; the next run picks them up.
+     */
+    @Scheduled(cron = "${maintenance.counters.reconcile-cron:0 15 3 * * *}")
+    public void reconcile() {
+        MaintenanceStats source = maintenanceStatsEngine.compute();
+
+        ConcurrentHashMap<String, Double> expected = new ConcurrentHashMap<>();
+        expected.put(TOTAL, (double) source.getTotal());
+        source.getStatusCounts().forEach((k, v) -> expected.put(STATUS + key(k), v.doubleValue()));
+        source.getPriorityCounts().forEach((k, v) -> expected.put(PRIORITY + key(k), v.doubleValue()));
+        source.getBuildingCounts().forEach((k, v) -> expected.put(BUILDING + key(k), v.doubleValue()));
+        expected.put(RESOLVED_COUNT, (double) source.getResolvedSamples());
+        expected.put(RESOLVED_HOURS, source.getAvgResolutionHours() * source.getResolvedSamples());
+
+        Document current = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        Map<String, Double> stored = current != null ? flatten(current) : Map.of();
+        if (drifted(stored, expected)) {
+            log.warn("Maintenance counters drifted, repairing. stored={} recomputed={}", stored, expected);
+        }
+
+        Document counters = new Document("_id", COUNTERS_ID);
+        expected.forEach((path, value) -> put(counters, path, value));
+        mongoTemplate.save(counters, COLLECTION);
+        mirror = expected;
+    }
+
+    private static void addTransition(Map<String, Double> delta, MaintenanceTransition transition) {
+        MaintenanceQuery query = transition.query();
+        if (transition.previousStatus() != query.getStatus()) {
+            delta.merge(STATUS + key(transition.previousStatus()), -1.0, Double::sum);
+            delta.merge(STATUS + key(query.getStatus()), 1.0, Double::sum);
+        }
+        if (!Objects.equals(transition.previousPriority(), query.getPriority())) {
+            delta.merge(PRIORITY + key(transition.previousPriority()), -1.0, Double::sum);
+            delta.merge(PRIORITY + key(query.getPriority()), 1.0, Double::sum);
+        }
+        if (transition.previousResolvedAt() == null && query.getResolvedAt() != null && query.getCreatedAt() != null) {
+            delta.merge(RESOLVED_COUNT, 1.0, Double::sum);
+            delta.merge(RESOLVED_HOURS, hoursBetween(query.getCreatedAt(), query.getResolvedAt()), Double::sum);
+        }
+    }
+
+    private void apply(Map<String, Double> delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        Update update = new Update();
+        delta.forEach(update::inc);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(COUNTERS_ID)), update, COLLECTION);
+        delta.forEach((path, value) -> mirror.merge(path, value, Double::sum));
+    }
+
+    private static boolean drifted(Map<String, Double> stored, Map<String, Double> expected) {
+        Map<String, Double> all = new LinkedHashMap<>(stored);
+        expected.forEach(all::putIfAbsent);
+        for (String path : all.keySet()) {
+            double a = stored.getOrDefault(path, 0.0);
+            double b = expected.getOrDefault(path, 0.0);
+            // resolution hours are summed in floating point, so allow rounding noise
+            if (Math.abs(a - b) > 1e-6 * Math.max(1.0, Math.abs(b))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Long> section(Map<String, Double> counters, String prefix) {
+        Map<String, Long> section = new LinkedHashMap<>();
+        counters.forEach((path, value) -> {
+            if (path.startsWith(prefix)) {
+                section.put(path.substring(prefix.length()), value.longValue());
+            }
+        });
+        return section;
+    }
+
+    private static ConcurrentHashMap<String, Double> flatten(Document counters) {
+        ConcurrentHashMap<String, Double> flat = new ConcurrentHashMap<>();
+        flatten("", counters, flat);
+        return flat;
+    }
+
+    private static void flatten(String prefix, Document document, Map<String, Double> flat) {
+        document.forEach((name, value) -> {
+            if (value instanceof Document) {
+                flatten(prefix + name + ".", (Document) value, flat);
+            } else if (value instanceof Number) {
+                flat.put(prefix + name, ((Number) value).doubleValue());
+            }
+        });
+    }
+
+    private static void put(Document root, String path, Double value) {
+        String[] parts = path.split("\\.", 2);
+        if (parts.length == 1) {
+            root.put(parts[0], value);
+            return;
+        }
+        Object child = root.get(parts[0]);
+        if (!(child instanceof Document)) {
+            child = new Document();
+            root.put(parts[0], child);
+        }
+        put((Document) child, parts[1], value);
+    }
+
+    static String buildingOf(MaintenanceQuery query) {
+        if (query.getStudent() == null || query.getStudent().getRoomDetails() == null) {
+            return null;
+        }
+        return query.getStudent().getRoomDetails().getBuilding();
+    }
+
+    /**
+     * Counter field names must not contain '.' or start with '$'.
+     */
+    static String key(Object value) {
+        if (value == null) {
+            return "UNKNOWN";
+        }
+        String key = value.toString().replace('.', '_');
+        return key.startsWith("$") ? "_" + key.substring(1) : key;
+    }
+
+    private static double hoursBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).toMillis() / 3_600_000.0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Flags new maintenance queries that look like an open query from the same
+ * building, e.g. five students reporting the same corridor leak.
+ *
+ * Open queries are kept in a {@link MinHashLsh} index over title and
+ * description, partitioned by building (by room when the building is
+ * unknown). A new query is checked against it before insert, which costs a
+ * few microseconds and no database access, and gets possibleDuplicateOf set
+ * to the most similar match. Nothing is merged automatically; admins can
+ * close duplicates in bulk. Queries leave the index when they close and
+ * return to it when they are reopened; the index is rebuilt from the open
+ * queries on startup.
+ */
+@Component
+@Slf4j
+public class MaintenanceDuplicateDetector {
+
+    private static final Set<QueryStatus> OPEN_STATUSES = EnumSet.of(QueryStatus.PENDING, QueryStatus.IN_PROGRESS);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final double threshold;
+
+    private final MinHashLsh index = new MinHashLsh();
+
+    public MaintenanceDuplicateDetector(MongoTemplate mongoTemplate,
+            @Value("${maintenance.duplicates.enabled:true}") boolean enabled,
+            @Value("${maintenance.duplicates.threshold:0.5}") double threshold) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Set possibleDuplicateOf on a query that is about to be inserted.
+     */
+    public void flag(MaintenanceQuery query) {
+        if (!enabled) {
+            return;
+        }
+        MinHashLsh.Match match;
+        synchronized (this) {
+            match = index.best(partition(query), text(query), threshold);
+        }
+        if (match != null) {
+            query.setPossibleDuplicateOf(match.id());
+            log.info("Query for room {} looks like open query {} (similarity {})",
+                    query.getRoomId(), match.id(), match.similarity());
+        }
+    }
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+        onTransitions(event.getTransitions());
+    }
+
+    public void onCreated(MaintenanceQuery query) {
+        if (enabled && OPEN_STATUSES.contains(query.getStatus())) {
+            synchronized (this) {
+                index.put(query.getId(), partition(query), text(query));
+            }
+        }
+    }
+
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    /**
+     * Drop queries that were closed, so they no longer attract duplicates,
+     * and put back queries that were reopened.
+     */
+    public synchronized void onTransitions(List<MaintenanceTransition> transitions) {
+        for (MaintenanceTransition transition : transitions) {
+            MaintenanceQuery query = transition.query();
+            if (!OPEN_STATUSES.contains(query.getStatus())) {
+                index.remove(query.getId());
+            } else if (enabled && !OPEN_STATUSES.contains(transition.previousStatus())) {
+                index.put(query.getId(), partition(query), text(query));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Query query = new Query(Criteria.where("status").in(OPEN_STATUSES));
+        query.fields().include("id", "queryTitle", "queryDescription", "roomId", "status",
+                "student.roomDetails.building");
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            stream.forEach(this::onCreated);
+        }
+        synchronized (this) {
+            log.info("Duplicate index rebuilt with {} open queries", index.size());
+        }
+    }
+
+    private static String partition(MaintenanceQuery query) {
+        String building = MaintenanceCounters.buildingOf(query);
+        return building != null ? "building:" + building : "room:" + query.getRoomId();
+    }
+
+    private static String text(MaintenanceQuery query) {
+        return Objects.toString(query.getQueryTitle(), "") + " " + Objects.toString(query.getQueryDescription(), "");
+    }
+}
@@ -0,0 +1,154 @@
+package com.rhs.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams maintenance queries out as NDJSON or CSV for bulk consumers such as
+ * the nightly BI pull.
+ *
+ * Rows are read over a Mongo cursor and written straight to the given output
+ * stream one at a time, so memory use does not grow with the number of
+ * queries. Both formats share the same columns.
+ */
+@Service
+public class MaintenanceExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    static final int MIN_BATCH = 100;
+    static final int MAX_BATCH = 10_000;
+
+    static final List<String> COLUMNS = List.of(
+            "id", "createdAt", "updatedAt", "status", "priority", "roomId", "building", "title", "description",
+            "assignedToId", "assignedToName", "assignedAt", "resolvedAt", "escalatedAt", "resolutionNotes",
+            "possibleDuplicateOf");
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final MaintenanceRepository maintenanceRepository;
+    private final ObjectMapper objectMapper;
+    private final int defaultBatchSize;
+
+    public MaintenanceExportService(MaintenanceRepository maintenanceRepository, ObjectMapper objectMapper,
+            @Value("${maintenance.export.batch-size:1000}") int defaultBatchSize) {
+        this.maintenanceRepository = maintenanceRepository;
+        this.objectMapper = objectMapper;
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    /**
+     * Write every query matching the filters to out in the given format. out
+     * is flushed but not closed.
+     *
+     * @param format    {@link #NDJSON} or {@link #CSV}
+     * @param status    the query status (nullable)
+     * @param start     created on or after (nullable)
+     * @param end       created on or before (nullable)
+     * @param batchSize documents per cursor batch (nullable for the configured default)
+     */
+    public void export(String format, QueryStatus status, LocalDateTime start, LocalDateTime end,
+            Integer batchSize, OutputStream out) throws IOException {
+        int batch = Math.max(MIN_BATCH, Math.min(MAX_BATCH, batchSize != null ? batchSize : defaultBatchSize));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        boolean csv = CSV.equals(checkFormat(format));
+        if (csv) {
+            writeCsvLine(writer, COLUMNS);
+        }
+        try {
+            maintenanceRepository.forEachByCreatedAt(status, start, end, batch, query -> {
+                try {
+                    Map<String, Object> row = row(query);
+                    if (csv) {
+                        writeCsvLine(writer, row.values());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // usually the client went away; stop reading the cursor
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Reject unknown formats before the response is committed.
+     */
+    public static String checkFormat(String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new IllegalArgumentException("format must be " + NDJSON + " or " + CSV);
+        }
+        return format;
+    }
+
+    static Map<String, Object> row(MaintenanceQuery query) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", query.getId());
+        row.put("createdAt", query.getCreatedAt());
+        row.put("updatedAt", query.getUpdatedAt());
+        row.put("status", query.getStatus());
+        row.put("priority", query.getPriority());
+        row.put("roomId", query.getRoomId());
+        row.put("building", MaintenanceCounters.buildingOf(query));
+        row.put("title", query.getQueryTitle());
+        row.put("description", query.getQueryDescription());
+        row.put("assignedToId", query.getAssignedTo() != null ? query.getAssignedTo().getId() : null);
+        row.put("assignedToName", query.getAssignedTo() != null
+                ? query.getAssignedTo().getFirstName() + " " + query.getAssignedTo().getLastName() : null);
+        row.put("assignedAt", query.getAssignedAt());
+        row.put("resolvedAt", query.getResolvedAt());
+        row.put("escalatedAt", query.getEscalatedAt());
+        row.put("resolutionNotes", query.getResolutionNotes());
+        row.put("possibleDuplicateOf", query.getPossibleDuplicateOf());
+        return row;
+    }
+
+    static void writeCsvLine(Writer writer, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(csvField(value));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 quoting: fields with a comma, quote or line break are quoted
+     * and embedded quotes doubled. Nulls are empty.
+     */
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,315 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceHotspotReport;
+import com.rhs.backend.dto.response.MaintenanceHotspotReport.Entry;
+import com.rhs.backend.model.MaintenanceQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rooms and buildings with the most maintenance queries, per calendar month,
+ * kept as {@link HeavyHitters} fed by every created query. Answering "top 20
+ * rooms this month" sorts at most {@value #CANDIDATES} in-memory candidates.
+ *
+ * Every instance counts the queries it creates and periodically adds what it
+ * counted since the last snapshot to the month's shared document in
+ * "maintenance_hotspots" with $inc: the Count-Min counters by flat index, the
+ * total, and the counted keys to the candidate list. Sketches summed this way
+ * still never undercount, so the document covers every instance. After each
+ * snapshot an instance replaces its view of the current month with the
+ * shared document plus whatever it counted meanwhile; reads therefore lag
+ * other instances by at most one snapshot interval. Past months are served
+ * from their document.
+ *
+ * On startup the current month is restored from its document. Without one
+ * the month is replayed through the createdAt index and inserted, unless
+ * another instance inserted it first. Counts not yet snapshotted when an
+ * instance stops are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceHotspots {
+
+    static final String COLLECTION = "maintenance_hotspots";
+    static final int CANDIDATES = 100;
+
+    public static final String ROOM = "room";
+    public static final String BUILDING = "building";
+    private static final List<String> DIMENSIONS = List.of(ROOM, BUILDING);
+
+    private final MongoTemplate mongoTemplate;
+
+    // the shared document as last read, plus what this instance counted since
+    private final Map<String, HeavyHitters> live = new HashMap<>();
+    // what this instance counted since its last snapshot, by key then value
+    private final Map<String, Map<String, Long>> pending = new HashMap<>();
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+    }
+
+    public void onCreated(MaintenanceQuery query) {
+        YearMonth month = YearMonth.from(query.getCreatedAt() != null ? query.getCreatedAt() : LocalDateTime.now());
+        synchronized (this) {
+            add(ROOM, month, query.getRoomId());
+            add(BUILDING, month, MaintenanceCounters.buildingOf(query));
+        }
+    }
+
+    /**
+     * The top limit rooms or buildings for a month, highest count first.
+     */
+    public MaintenanceHotspotReport top(String dimension, YearMonth month, int limit) {
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new IllegalArgumentException("by must be one of " + DIMENSIONS);
+        }
+        if (limit < 1 || limit > CANDIDATES) {
+            throw new IllegalArgumentException("limit must be between 1 and " + CANDIDATES);
+        }
+        String key = key(dimension, month);
+        List<Map.Entry<String, Long>> top;
+        long total;
+        synchronized (this) {
+            HeavyHitters hitters = live.get(key);
+            top = hitters != null ? hitters.top(limit) : null;
+            total = hitters != null ? hitters.total() : 0;
+        }
+        if (top == null) {
+            Document snapshot = mongoTemplate.findById(key, Document.class, COLLECTION);
+            HeavyHitters restored = snapshot != null ? restore(snapshot) : new HeavyHitters(CANDIDATES);
+            top = restored.top(limit);
+            total = restored.total();
+        }
+        return MaintenanceHotspotReport.builder()
+                .dimension(dimension)
+                .month(month.toString())
+                .total(total)
+                .hotspots(top.stream().map(entry -> new Entry(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Add what was counted since the last snapshot to the shared documents,
+     * then refresh the current month from them and drop past months from
+     * memory.
+     */
+    @Scheduled(fixedDelayString = "${maintenance.hotspots.snapshot-ms:300000}")
+    public void snapshot() {
+        YearMonth current = YearMonth.now();
+        Map<String, Map<String, Long>> flushing;
+        synchronized (this) {
+            flushing = new HashMap<>(pending);
+            pending.clear();
+            live.keySet().removeIf(key -> month(key).isBefore(current));
+        }
+
+        Map<String, Document> shared = new HashMap<>();
+        flushing.forEach((key, counts) -> {
+            try {
+                shared.put(key, merge(key, counts));
+            } catch (RuntimeException e) {
+                log.warn("Hotspot snapshot of {} failed, retrying with the next one: {}", key, e.getMessage());
+                synchronized (this) {
+                    counts.forEach((value, count) -> pending.computeIfAbsent(key, k -> new HashMap<>())
+                            .merge(value, count, Long::sum));
+                }
+            }
+        });
+        for (String dimension : DIMENSIONS) {
+            String key = key(dimension, current);
+            if (!shared.containsKey(key) && !flushing.containsKey(key)) {
+                Document document = mongoTemplate.findById(key, Document.class, COLLECTION);
+                if (document != null) {
+                    shared.put(key, document);
+                }
+            }
+        }
+
+        synchronized (this) {
+            shared.forEach((key, document) -> {
+                if (month(key).equals(current)) {
+                    live.put(key, withPending(key, restore(document)));
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        YearMonth month = YearMonth.now();
+        Map<String, Document> shared = new HashMap<>();
+        for (String dimension : DIMENSIONS) {
+            Document document = mongoTemplate.findById(key(dimension, month), Document.class, COLLECTION);
+            if (document != null) {
+                shared.put(key(dimension, month), document);
+            }
+        }
+        if (shared.size() < DIMENSIONS.size()) {
+            shared.putAll(seed(month, shared.keySet()));
+        }
+        synchronized (this) {
+            shared.forEach((key, document) -> live.put(key, withPending(key, restore(document))));
+        }
+    }
+
+    /**
+     * Replay the month for the keys without a document and insert one per
+     * key. A document another instance inserted meanwhile is kept and used.
+     */
+    private Map<String, Document> seed(YearMonth month, Set<String> present) {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        Query query = new Query(Criteria.where("createdAt").gte(month.atDay(1).atStartOfDay())
+                .lt(month.plusMonths(1).atDay(1).atStartOfDay()));
+        query.fields().include("roomId", "createdAt", "student.roomDetails.building");
+        long replayed = 0;
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            for (MaintenanceQuery created : (Iterable<MaintenanceQuery>) stream::iterator) {
+                count(counts, key(ROOM, month), created.getRoomId());
+                count(counts, key(BUILDING, month), MaintenanceCounters.buildingOf(created));
+                replayed++;
+            }
+        }
+
+        Map<String, Document> seeded = new HashMap<>();
+        for (String dimension : DIMENSIONS) {
+            String key = key(dimension, month);
+            if (present.contains(key)) {
+                continue;
+            }
+            Document document = document(key, counts.getOrDefault(key, Map.of()));
+            try {
+                mongoTemplate.insert(document, COLLECTION);
+                seeded.put(key, document);
+            } catch (DuplicateKeyException e) {
+                seeded.put(key, mongoTemplate.findById(key, Document.class, COLLECTION));
+            }
+        }
+        log.info("Hotspots for {} seeded from {} replayed queries", month, replayed);
+        return seeded;
+    }
+
+    /**
+     * $inc counts into the shared document and return it as updated. The
+     * candidate list is trimmed back to the best {@value #CANDIDATES} by the
+     * merged estimates when it has grown past twice that.
+     */
+    private Document merge(String key, Map<String, Long> counts) {
+        Document delta = document(key, counts);
+        Update update = new Update().inc("total", delta.getLong("total"));
+        delta.get("counts", Document.class).forEach((cell, count) -> update.inc("counts." + cell, (Number) count));
+        update.addToSet("candidates").each(delta.getList("candidates", String.class).toArray());
+        Document merged = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(key)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+
+        List<String> candidates = merged.getList("candidates", String.class);
+        if (candidates.size() > 2 * CANDIDATES) {
+            CountMinSketch sketch = sketch(merged);
+            List<String> dropped = candidates.stream()
+                    .sorted(Comparator.comparingLong(sketch::estimate).reversed())
+                    .skip(CANDIDATES)
+                    .collect(Collectors.toList());
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(key)),
+                    new Update().pullAll("candidates", dropped.toArray()), COLLECTION);
+            candidates = new ArrayList<>(candidates);
+            candidates.removeAll(dropped);
+            merged.put("candidates", candidates);
+        }
+        return merged;
+    }
+
+    private void add(String dimension, YearMonth month, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String key = key(dimension, month);
+        live.computeIfAbsent(key, k -> new HeavyHitters(CANDIDATES)).add(value);
+        pending.computeIfAbsent(key, k -> new HashMap<>()).merge(value, 1L, Long::sum);
+    }
+
+    private HeavyHitters withPending(String key, HeavyHitters hitters) {
+        pending.getOrDefault(key, Map.of()).forEach((value, count) -> {
+            for (long i = 0; i < count; i++) {
+                hitters.add(value);
+            }
+        });
+        return hitters;
+    }
+
+    private static void count(Map<String, Map<String, Long>> counts, String key, String value) {
+        if (value != null && !value.isBlank()) {
+            counts.computeIfAbsent(key, k -> new HashMap<>()).merge(value, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * The shared document form of exact counts: total, Count-Min counters by
+     * flat index and the counted keys as candidates.
+     */
+    private static Document document(String key, Map<String, Long> counts) {
+        Map<String, Long> cells = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            for (int cell : CountMinSketch.cells(entry.getKey())) {
+                cells.merge(String.valueOf(cell), entry.getValue(), Long::sum);
+            }
+            total += entry.getValue();
+        }
+        return new Document("_id", key)
+                .append("total", total)
+                .append("counts", new Document(new LinkedHashMap<>(cells)))
+                .append("candidates", new ArrayList<>(counts.keySet()));
+    }
+
+    private static CountMinSketch sketch(Document document) {
+        Map<Integer, Long> cells = new HashMap<>();
+        document.get("counts", Document.class)
+                .forEach((cell, count) -> cells.put(Integer.parseInt(cell), ((Number) count).longValue()));
+        return CountMinSketch.fromCells(((Number) document.get("total")).longValue(), cells);
+    }
+
+    private static HeavyHitters restore(Document document) {
+        CountMinSketch sketch = sketch(document);
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        document.getList("candidates", String.class).stream()
+                .sorted(Comparator.comparingLong(sketch::estimate).reversed())
+                .limit(CANDIDATES)
+                .forEach(candidate -> candidates.put(candidate, sketch.estimate(candidate)));
+        return HeavyHitters.restore(CANDIDATES, sketch, candidates);
+    }
+
+    private static String key(String dimension, YearMonth month) {
+        return dimension + "|" + month;
+    }
+
+    private static YearMonth month(String key) {
+        return YearMonth.parse(key.substring(key.indexOf('|') + 1));
+    }
+}
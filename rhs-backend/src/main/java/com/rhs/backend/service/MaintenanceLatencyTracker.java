@@ -0,0 +1,238 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceLatencyReport;
+import com.rhs.backend.dto.response.MaintenanceLatencyReport.Distribution;
+import com.rhs.backend.dto.response.MaintenanceLatencyReport.Percentiles;
+import com.rhs.backend.model.MaintenanceQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-assign and time-to-resolve distributions, kept as
+ * {@link LatencyHistogram}s per priority and building in a ring of hourly
+ * slices covering the last 30 days. Each transition adds its sample to the
+ * slice of the hour it happened in, so a report for any window up to 30 days
+ * merges at most 720 slices and never touches the collection.
+ *
+ * Samples are recorded by this instance; on startup the ring is seeded from
+ * the queries assigned or resolved within the retention period.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceLatencyTracker {
+
+    static final int RETAINED_HOURS = 30 * 24;
+
+    private static final String ASSIGN = "assign|";
+    private static final String RESOLVE = "resolve|";
+    private static final String OVERALL = "all";
+    private static final String PRIORITY = "priority:";
+    private static final String BUILDING = "building:";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Slice[] slices = new Slice[RETAINED_HOURS];
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+        onTransitions(event.getTransitions());
+    }
+
+    /**
+     * A new query was created, possibly auto-assigned on the way in.
+     */
+    public void onCreated(MaintenanceQuery query) {
+        if (query.getAssignedAt() != null) {
+            record(ASSIGN, query, query.getAssignedAt());
+        }
+    }
+
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    /**
+     * Record the first assignment and the resolution of each query. Later
+     * reassignments do not count towards time-to-assign.
+     */
+    public void onTransitions(List<MaintenanceTransition> transitions) {
+        for (MaintenanceTransition transition : transitions) {
+            MaintenanceQuery query = transition.query();
+            if (transition.previousAssignedAt() == null && query.getAssignedAt() != null) {
+                record(ASSIGN, query, query.getAssignedAt());
+            }
+            if (transition.previousResolvedAt() == null && query.getResolvedAt() != null) {
+                record(RESOLVE, query, query.getResolvedAt());
+            }
+        }
+    }
+
+    /**
+     * Percentiles over the last window, e.g. "24h" or "7d", up to 30 days.
+     */
+    public MaintenanceLatencyReport report(String window) {
+        int hours = windowHours(window);
+        LocalDateTime now = LocalDateTime.now();
+        long current = hour(now);
+
+        Map<String, LatencyHistogram> merged = new HashMap<>();
+        synchronized (this) {
+            for (long hour = current - hours + 1; hour <= current; hour++) {
+                Slice slice = slices[slot(hour)];
+                if (slice != null && slice.hour == hour) {
+                    slice.histograms.forEach((key, histogram) ->
+                            merged.computeIfAbsent(key, k -> new LatencyHistogram()).add(histogram));
+                }
+            }
+        }
+
+        return MaintenanceLatencyReport.builder()
+                .window(window)
+                .from(now.truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1))
+                .to(now)
+                .timeToAssign(distribution(merged, ASSIGN))
+                .timeToResolve(distribution(merged, RESOLVE))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime since = LocalDateTime.now().minusHours(RETAINED_HOURS);
+        long assigned = seed(ASSIGN, "assignedAt", since, MaintenanceQuery::getAssignedAt);
+        long resolved = seed(RESOLVE, "resolvedAt", since, MaintenanceQuery::getResolvedAt);
+        log.info("Latency histograms seeded with {} assignments and {} resolutions", assigned, resolved);
+    }
+
+    private long seed(String metric, String field, LocalDateTime since,
+            Function<MaintenanceQuery, LocalDateTime> timestamp) {
+        Query query = new Query(Criteria.where(field).gte(since));
+        query.fields().include("createdAt", field, "priority", "student.roomDetails.building");
+        long[] seen = {0};
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            stream.forEach(q -> {
+                record(metric, q, timestamp.apply(q));
+                seen[0]++;
+            });
+        }
+        return seen[0];
+    }
+
+    private void record(String metric, MaintenanceQuery query, LocalDateTime at) {
+        if (query.getCreatedAt() == null || at == null) {
+            return;
+        }
+        long seconds = Duration.between(query.getCreatedAt(), at).getSeconds();
+        long current = hour(LocalDateTime.now());
+        long hour = Math.min(hour(at), current);
+        if (hour <= current - RETAINED_HOURS) {
+            return;
+        }
+        String priority = query.getPriority() != null ? query.getPriority() : "UNKNOWN";
+        String building = MaintenanceCounters.buildingOf(query);
+
+        synchronized (this) {
+            int slot = slot(hour);
+            Slice slice = slices[slot];
+            if (slice == null || slice.hour < hour) {
+                slice = new Slice(hour);
+                slices[slot] = slice;
+            } else if (slice.hour > hour) {
+                return;
+            }
+            slice.histogram(metric + OVERALL).record(seconds);
+            slice.histogram(metric + PRIORITY + priority).record(seconds);
+            if (building != null) {
+                slice.histogram(metric + BUILDING + building).record(seconds);
+            }
+        }
+    }
+
+    private static Distribution distribution(Map<String, LatencyHistogram> merged, String metric) {
+        Map<String, Percentiles> byPriority = new TreeMap<>();
+        Map<String, Percentiles> byBuilding = new TreeMap<>();
+        merged.forEach((key, histogram) -> {
+            if (key.startsWith(metric + PRIORITY)) {
+                byPriority.put(key.substring((metric + PRIORITY).length()), percentiles(histogram));
+            } else if (key.startsWith(metric + BUILDING)) {
+                byBuilding.put(key.substring((metric + BUILDING).length()), percentiles(histogram));
+            }
+        });
+        return Distribution.builder()
+                .overall(percentiles(merged.getOrDefault(metric + OVERALL, new LatencyHistogram())))
+                .byPriority(byPriority)
+                .byBuilding(byBuilding)
+                .build();
+    }
+
+    private static Percentiles percentiles(LatencyHistogram histogram) {
+        return new Percentiles(histogram.count(),
+                hours(histogram.percentile(50)),
+                hours(histogram.percentile(90)),
+                hours(histogram.percentile(99)),
+                hours(histogram.max()));
+    }
+
+    static int windowHours(String window) {
+        if (window == null || window.length() < 2) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        int amount;
+        try {
+            amount = Integer.parseInt(window.substring(0, window.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        char unit = Character.toLowerCase(window.charAt(window.length() - 1));
+        int hours = unit == 'h' ? amount : unit == 'd' ? amount * 24 : -1;
+        if (hours < 1 || hours > RETAINED_HOURS) {
+            throw new IllegalArgumentException("Window must be between 1h and 30d, e.g. 24h or 7d");
+        }
+        return hours;
+    }
+
+    private static double hours(long seconds) {
+        return seconds / 3600.0;
+    }
+
+    private static long hour(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) RETAINED_HOURS);
+    }
+
+    private static final class Slice {
+        private final long hour;
+        private final Map<String, LatencyHistogram> histograms = new HashMap<>();
+
+        Slice(long hour) {
+            this.hour = hour;
+        }
+
+        LatencyHistogram histogram(String key) {
+            return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+    }
+}
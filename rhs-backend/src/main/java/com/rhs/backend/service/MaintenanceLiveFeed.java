@@ -0,0 +1,205 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceEvent;
+import com.rhs.backend.mapper.MaintenanceQueryMapper;
+import com.rhs.backend.model.MaintenanceQuery;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events feed of maintenance query changes.
+ *
+ * Events come from the service layer after each successful write, or from a
+ * Mongo change stream when maintenance.live-feed.source=change-stream (see
+ * MaintenanceChangeStreamListener). In that mode service-layer events are
+ * ignored so nothing is sent twice.
+ *
+ * Each connection has its own bounded buffer, drained by a small shared
+ * dispatcher pool. A consumer that falls behind has its buffer replaced by a
+ * single RESYNC event instead of growing without limit.
+ */
+@Component
+@Slf4j
+public class MaintenanceLiveFeed {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final MaintenanceQueryMapper maintenanceQueryMapper;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final boolean serviceSource;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+
+    public MaintenanceLiveFeed(MaintenanceQueryMapper maintenanceQueryMapper,
+            @Value("${maintenance.live-feed.buffer-size:256}") int bufferSize,
+            @Value("${maintenance.live-feed.timeout-ms:1800000}") long timeoutMs,
+            @Value("${maintenance.live-feed.dispatch-threads:4}") int dispatchThreads,
+            @Value("${maintenance.live-feed.source:service}") String source) {
+        this.maintenanceQueryMapper = maintenanceQueryMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.serviceSource = !"change-stream".equals(source);
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "maintenance-live-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a feed connection. Null filters match everything.
+     */
+    public SseEmitter subscribe(String building, String assignedToId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, building, assignedToId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.NOTIFY_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.queries().forEach(query -> publishFromService(event.getType(), query));
+    }
+
+    /**
+     * Publish a change made through the service layer.
+     * No-op when the change stream is the event source.
+     */
+    public void publishFromService(MaintenanceEvent.Type type, MaintenanceQuery query) {
+        if (serviceSource) {
+            publish(type, query);
+        }
+    }
+
+    public void publish(MaintenanceEvent.Type type, MaintenanceQuery query) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        MaintenanceEvent event = MaintenanceEvent.builder()
+                .type(type)
+                .queryId(query.getId())
+                .building(buildingOf(query))
+                .assignedToId(query.getAssignedTo() != null ? query.getAssignedTo().getId() : null)
+                .query(maintenanceQueryMapper.toSummary(query))
+                .occurredAt(LocalDateTime.now())
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and notices clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${maintenance.live-feed.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.heartbeat());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private static String buildingOf(MaintenanceQuery query) {
+        if (query.getStudent() == null || query.getStudent().getRoomDetails() == null) {
+            return null;
+        }
+        return query.getStudent().getRoomDetails().getBuilding();
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final String building;
+        private final String assignedToId;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, String building, String assignedToId) {
+            this.emitter = emitter;
+            this.building = building;
+            this.assignedToId = assignedToId;
+        }
+
+        boolean accepts(MaintenanceEvent event) {
+            return (building == null || building.equalsIgnoreCase(event.getBuilding()))
+                    && (assignedToId == null || assignedToId.equals(event.getAssignedToId()));
+        }
+
+        void offer(MaintenanceEvent event) {
+            if (!buffer.offer(event)) {
+                // too slow: drop the backlog and tell the client to reload instead
+                buffer.clear();
+                buffer.offer(MaintenanceEvent.builder()
+                        .type(MaintenanceEvent.Type.RESYNC)
+                        .occurredAt(LocalDateTime.now())
+                        .build());
+                log.debug("Live feed subscriber fell behind, sent RESYNC");
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            // anything already queued keeps the connection busy anyway
+            if (buffer.isEmpty() && buffer.offer(HEARTBEAT)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object item;
+                while ((item = buffer.poll()) != null) {
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        MaintenanceEvent event = (MaintenanceEvent) item;
+                        emitter.send(SseEmitter.event().name(event.getType().name()).data(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed
+                subscribers.remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an offer may have landed between the last poll and clearing the flag
+            if (!buffer.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
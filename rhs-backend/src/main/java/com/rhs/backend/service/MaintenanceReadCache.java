@@ -0,0 +1,135 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.response.MaintenanceQuerySummary;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Caches the maintenance read paths that repeat within seconds: single
+ * queries by id and the unpaged summary lists (all, per status, per room and
+ * filtered searches).
+ *
+ * Writes invalidate precisely. Every create and transition reported by the
+ * services drops the query's own entry and only the lists whose filter
+ * matches the query before or after the change. The time-to-live bounds how
+ * stale a list can be after a write made by another instance.
+ *
+ * Cursor pages are not cached, and neither are the stats, which are already
+ * served from the in-memory counters.
+ */
+@Component
+public class MaintenanceReadCache {
+
+    private final boolean enabled;
+    private final BoundedCache<String, MaintenanceQueryDTO> queries;
+    private final BoundedCache<ListKey, List<MaintenanceQuerySummary>> lists;
+
+    public MaintenanceReadCache(@Value("${maintenance.cache.enabled:true}") boolean enabled,
+            @Value("${maintenance.cache.max-queries:2000}") int maxQueries,
+            @Value("${maintenance.cache.max-lists:200}") int maxLists,
+            @Value("${maintenance.cache.ttl-ms:30000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.queries = new BoundedCache<>(maxQueries, ttlMillis);
+        this.lists = new BoundedCache<>(maxLists, ttlMillis);
+    }
+
+    public MaintenanceQueryDTO query(String id, Supplier<MaintenanceQueryDTO> loader) {
+        return enabled ? queries.get(id, key -> loader.get()) : loader.get();
+    }
+
+    /**
+     * A summary list for the given filters; any filter may be null.
+     */
+    public List<MaintenanceQuerySummary> list(ListKey key, Supplier<List<MaintenanceQuerySummary>> loader) {
+        // cached lists are shared between callers, so hand out read-only copies
+        return enabled ? lists.get(key, k -> List.copyOf(loader.get())) : loader.get();
+    }
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+        onTransitions(event.getTransitions());
+    }
+
+    public void onCreated(MaintenanceQuery query) {
+        if (enabled) {
+            lists.invalidateIf(key -> key.matches(query.getStatus(), query.getPriority(), query));
+        }
+    }
+
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    public void onTransitions(List<MaintenanceTransition> transitions) {
+        if (!enabled || transitions.isEmpty()) {
+            return;
+        }
+        for (MaintenanceTransition transition : transitions) {
+            queries.invalidate(transition.query().getId());
+        }
+        lists.invalidateIf(key -> transitions.stream().anyMatch(transition -> {
+            MaintenanceQuery query = transition.query();
+            return key.matches(transition.previousStatus(), transition.previousPriority(), query)
+                    || key.matches(query.getStatus(), query.getPriority(), query);
+        }));
+    }
+
+    public void clear() {
+        queries.clear();
+        lists.clear();
+    }
+
+    /**
+     * Hit, miss and eviction counters of both caches.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queries", queries.stats());
+        stats.put("lists", lists.stats());
+        return stats;
+    }
+
+    /**
+     * The filters of a cached list. Null filters match everything, as in
+     * MaintenanceRepositoryCustom.search.
+     */
+    public record ListKey(String priority, QueryStatus status, LocalDateTime start, LocalDateTime end,
+            String roomId) {
+
+        public static ListKey search(String priority, QueryStatus status, LocalDateTime start, LocalDateTime end) {
+            return new ListKey(priority != null ? priority.toUpperCase() : null, status, start, end, null);
+        }
+
+        public static ListKey room(String roomId) {
+            return new ListKey(null, null, null, null, roomId);
+        }
+
+        /**
+         * Whether a query in this state belongs to the list. A missing
+         * createdAt matches any date range, so such writes err on invalidating.
+         */
+        boolean matches(QueryStatus queryStatus, String queryPriority, MaintenanceQuery query) {
+            LocalDateTime createdAt = query.getCreatedAt();
+            return (status == null || status == queryStatus)
+                    && (priority == null || priority.equalsIgnoreCase(Objects.toString(queryPriority, "")))
+                    && (roomId == null || roomId.equals(query.getRoomId()))
+                    && (start == null || createdAt == null || !createdAt.isBefore(start))
+                    && (end == null || createdAt == null || !createdAt.isAfter(end));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceTrendPoint;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.repository.MaintenanceArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Daily and weekly activity rollups in "maintenance_rollups", one small
+ * document per bucket (_id "day:2024-05-14" or "week:2024-05-13"), holding
+ * created and resolved counts, resolution hours and per-priority and
+ * per-building breakdowns. Every creation and resolution $inc's its day and
+ * week bucket in one bulk write, so a 90 day trend reads 90 documents.
+ *
+ * History is backfilled once, by a streaming pass over createdAt/resolvedAt
+ * that counts everything before the moment live rollups started (recorded in
+ * the "backfill" document); later events are counted live, so the two never
+ * overlap. The backfill $set's its totals into each bucket's "history"
+ * fields rather than $inc'ing the live ones, so a run that is repeated after
+ * crashing part way writes the same values again instead of adding them
+ * twice. Reads add the two.
+ */
+@Component
+@Slf4j
+public class MaintenanceRollups {
+
+    static final String COLLECTION = "maintenance_rollups";
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    static final int MAX_BUCKETS = 400;
+
+    private static final String BACKFILL_ID = "backfill";
+    private static final String HISTORY = "history";
+    private static final int WRITE_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    // nothing is counted live before this bean exists
+    private final LocalDateTime liveSince = LocalDateTime.now();
+
+    public MaintenanceRollups(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener
+    @Order(MaintenanceChangedEvent.STATE_ORDER)
+    public void onChanged(MaintenanceChangedEvent event) {
+        event.getCreated().forEach(this::onCreated);
+        onTransitions(event.getTransitions());
+    }
+
+    public void onCreated(MaintenanceQuery query) {
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        addCreated(deltas, query);
+        apply(deltas);
+    }
+
+    public void onTransition(MaintenanceTransition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    /**
+     * Count resolutions; a whole batch becomes one bulk write.
+     */
+    public void onTransitions(List<MaintenanceTransition> transitions) {
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        for (MaintenanceTransition transition : transitions) {
+            if (transition.previousResolvedAt() == null && transition.query().getResolvedAt() != null) {
+                addResolved(deltas, transition.query());
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * One point per day or week from from to to inclusive, empty buckets as zeros.
+     */
+    public List<MaintenanceTrendPoint> series(String granularity, LocalDate from, LocalDate to) {
+        if (!DAY.equals(granularity) && !WEEK.equals(granularity)) {
+            throw new IllegalArgumentException("granularity must be day or week");
+        }
+        LocalDate first = bucketStart(granularity, from);
+        LocalDate last = bucketStart(granularity, to);
+        long buckets = (DAY.equals(granularity) ? ChronoUnit.DAYS : ChronoUnit.WEEKS).between(first, last) + 1;
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range must cover between 1 and " + MAX_BUCKETS + " buckets");
+        }
+
+        Query query = new Query(Criteria.where("_id").gte(id(granularity, first)).lte(id(granularity, last)))
+                .with(Sort.by("_id"));
+        Map<String, Document> found = new LinkedHashMap<>();
+        mongoTemplate.find(query, Document.class, COLLECTION).forEach(doc -> found.put(doc.getString("_id"), doc));
+
+        List<MaintenanceTrendPoint> points = new ArrayList<>();
+        for (LocalDate start = first; !start.isAfter(last);
+                start = DAY.equals(granularity) ? start.plusDays(1) : start.plusWeeks(1)) {
+            points.add(point(start, found.getOrDefault(id(granularity, start), new Document())));
+        }
+        return points;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        // the first instance to start records when live counting began
+        Document marker = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(BACKFILL_ID)),
+                new Update().setOnInsert("liveSince", liveSince.toString()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        if (marker == null || marker.get("completedAt") != null) {
+            return;
+        }
+        // claim the run; a claim older than an hour is assumed dead
+        Document claimed = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(BACKFILL_ID)
+                        .and("completedAt").is(null)
+                        .orOperator(Criteria.where("runningSince").is(null),
+                                Criteria.where("runningSince").lt(LocalDateTime.now().minusHours(1).toString()))),
+                new Update().set("runningSince", LocalDateTime.now().toString()), Document.class, COLLECTION);
+        if (claimed == null) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.parse(marker.getString("liveSince"));
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        Query query = new Query(Criteria.where("createdAt").lt(cutoff));
+        query.fields().include("createdAt", "resolvedAt", "priority", "student.roomDetails.building");
+        long scanned = 0;
+        for (String collection : List.of(MaintenanceArchiver.HOT_COLLECTION, MaintenanceArchive.COLLECTION)) {
+            try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class, collection)) {
+                for (MaintenanceQuery historical : (Iterable<MaintenanceQuery>) stream::iterator) {
+                    addCreated(deltas, historical);
+                    if (historical.getResolvedAt() != null && historical.getResolvedAt().isBefore(cutoff)) {
+                        addResolved(deltas, historical);
+                    }
+                    scanned++;
+                }
+            }
+        }
+        apply(deltas, true);
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(BACKFILL_ID)),
+                new Update().set("completedAt", LocalDateTime.now().toString()).unset("runningSince"), COLLECTION);
+        log.info("Maintenance rollups backfilled from {} queries into {} buckets", scanned, deltas.size());
+    }
+
+    private static void addCreated(Map<String, Map<String, Double>> deltas, MaintenanceQuery query) {
+        if (query.getCreatedAt() == null) {
+            return;
+        }
+        for (String bucket : buckets(query.getCreatedAt())) {
+            Map<String, Double> delta = deltas.computeIfAbsent(bucket, key -> new LinkedHashMap<>());
+            delta.merge("created", 1.0, Double::sum);
+            delta.merge("createdByPriority." + MaintenanceCounters.key(query.getPriority()), 1.0, Double::sum);
+            delta.merge("createdByBuilding." + MaintenanceCounters.key(MaintenanceCounters.buildingOf(query)), 1.0,
+                    Double::sum);
+        }
+    }
+
+    private static void addResolved(Map<String, Map<String, Double>> deltas, MaintenanceQuery query) {
+        for (String bucket : buckets(query.getResolvedAt())) {
+            Map<String, Double> delta = deltas.computeIfAbsent(bucket, key -> new LinkedHashMap<>());
+            delta.merge("resolved", 1.0, Double::sum);
+            delta.merge("resolvedByPriority." + MaintenanceCounters.key(query.getPriority()), 1.0, Double::sum);
+            delta.merge("resolvedByBuilding." + MaintenanceCounters.key(MaintenanceCounters.buildingOf(query)), 1.0,
+                    Double::sum);
+            if (query.getCreatedAt() != null) {
+                delta.merge("resolvedSamples", 1.0, Double::sum);
+                delta.merge("resolutionHours",
+                        Duration.between(query.getCreatedAt(), query.getResolvedAt()).toMillis() / 3_600_000.0,
+                        Double::sum);
+            }
+        }
+    }
+
+    private void apply(Map<String, Map<String, Double>> deltas) {
+        apply(deltas, false);
+    }
+
+    /**
+     * $inc deltas into the live fields of their buckets, or for the backfill
+     * $set them as the buckets' history.
+     */
+    private void apply(Map<String, Map<String, Double>> deltas, boolean history) {
+        List<Map.Entry<String, Map<String, Double>>> entries = new ArrayList<>(deltas.entrySet());
+        for (int from = 0; from < entries.size(); from += WRITE_BATCH) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Map.Entry<String, Map<String, Double>> entry : entries.subList(from,
+                    Math.min(from + WRITE_BATCH, entries.size()))) {
+                Update update = new Update();
+                if (history) {
+                    entry.getValue().forEach((field, total) -> update.set(HISTORY + "." + field, total));
+                } else {
+                    entry.getValue().forEach(update::inc);
+                }
+                bulk.upsert(new Query(Criteria.where("_id").is(entry.getKey())), update);
+            }
+            bulk.execute();
+        }
+    }
+
+    private static MaintenanceTrendPoint point(LocalDate start, Document bucket) {
+        long samples = (long) number(bucket, "resolvedSamples");
+        return MaintenanceTrendPoint.builder()
+                .start(start)
+                .created((long) number(bucket, "created"))
+                .resolved((long) number(bucket, "resolved"))
+                .avgResolutionHours(samples == 0 ? 0 : number(bucket, "resolutionHours") / samples)
+                .createdByPriority(section(bucket, "createdByPriority"))
+                .resolvedByPriority(section(bucket, "resolvedByPriority"))
+                .createdByBuilding(section(bucket, "createdByBuilding"))
+                .resolvedByBuilding(section(bucket, "resolvedByBuilding"))
+                .build();
+    }
+
+    /**
+     * A field's live count plus its backfilled history.
+     */
+    private static double number(Document bucket, String field) {
+        double sum = 0;
+        for (Document part : parts(bucket)) {
+            Object value = part.get(field);
+            sum += value instanceof Number ? ((Number) value).doubleValue() : 0;
+        }
+        return sum;
+    }
+
+    private static Map<String, Long> section(Document bucket, String field) {
+        Map<String, Long> section = new LinkedHashMap<>();
+        for (Document part : parts(bucket)) {
+            Object value = part.get(field);
+            if (value instanceof Document) {
+                ((Document) value).forEach((key, count) -> section.merge(key, ((Number) count).longValue(), Long::sum));
+            }
+        }
+        return section;
+    }
+
+    private static List<Document> parts(Document bucket) {
+        Object history = bucket.get(HISTORY);
+        return history instanceof Document ? List.of(bucket, (Document) history) : List.of(bucket);
+    }
+
+    private static List<String> buckets(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        return List.of(id(DAY, date), id(WEEK, bucketStart(WEEK, date)));
+    }
+
+    private static LocalDate bucketStart(String granularity, LocalDate date) {
+        return DAY.equals(granularity) ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static String id(String granularity, LocalDate start) {
+        return granularity + ":" + start;
+    }
+}
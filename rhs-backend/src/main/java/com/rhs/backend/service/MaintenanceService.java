@@ -1,88 +1,282 @@
 package com.rhs.backend.service;
 
 import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.response.CursorPage;
+import com.rhs.backend.dto.response.MaintenanceEvent;
+import com.rhs.backend.dto.response.MaintenanceQuerySummary;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.mapper.MaintenanceQueryMapper;
 import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.embedded.AdminRef;
 import com.rhs.backend.model.enums.QueryStatus;
 import com.rhs.backend.repository.AdminRepository;
 import com.rhs.backend.repository.MaintenanceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class MaintenanceService {
 
+    // transitions that only make sense while a query is still open
+    private static final List<QueryStatus> OPEN_STATUSES = List.of(QueryStatus.PENDING, QueryStatus.IN_PROGRESS);
+
     private final MaintenanceRepository maintenanceRepository;
     private final AdminRepository adminRepository;
+    private final MaintenanceQueryMapper maintenanceQueryMapper;
+    private final MaintenanceCounters maintenanceCounters;
+    private final MaintenanceAssignmentEngine maintenanceAssignmentEngine;
+    private final MaintenanceDuplicateDetector maintenanceDuplicateDetector;
+    private final MaintenanceReadCache maintenanceReadCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public MaintenanceService(MaintenanceRepository maintenanceRepository, AdminRepository adminRepository) {
+    public MaintenanceService(MaintenanceRepository maintenanceRepository, AdminRepository adminRepository,
+            MaintenanceQueryMapper maintenanceQueryMapper, MaintenanceCounters maintenanceCounters,
+            MaintenanceAssignmentEngine maintenanceAssignmentEngine, MaintenanceDuplicateDetector maintenanceDuplicateDetector, MaintenanceReadCache maintenanceReadCache,
+            ApplicationEventPublisher eventPublisher) {
         this.maintenanceRepository = maintenanceRepository;
         this.adminRepository = adminRepository;
+        this.maintenanceQueryMapper = maintenanceQueryMapper;
+        this.maintenanceCounters = maintenanceCounters;
+        this.maintenanceAssignmentEngine = maintenanceAssignmentEngine;
+        this.maintenanceDuplicateDetector = maintenanceDuplicateDetector;
+        this.maintenanceReadCache = maintenanceReadCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Create a new maintenance query.
      */
     public MaintenanceQueryDTO createQuery(MaintenanceQueryDTO query) {
-        query.setStatus(QueryStatus.PENDING);
-        query.setCreatedAt(LocalDateTime.now());
-        query.setUpdatedAt(LocalDateTime.now());
-        return maintenanceRepository.save(query);
+        MaintenanceQuery entity = maintenanceQueryMapper.toEntity(query);
+        entity.setStatus(QueryStatus.PENDING);
+        if (entity.getPriority() != null) {
+            entity.setPriority(entity.getPriority().toUpperCase());
+        }
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+        maintenanceDuplicateDetector.flag(entity);
+        MaintenanceQuery saved = maintenanceAssignmentEngine.assignOnCreate(entity, maintenanceRepository::save);
+        eventPublisher.publishEvent(MaintenanceChangedEvent.created(this, List.of(saved)));
+        return maintenanceQueryMapper.toDTO(saved);
+    }
+
+    /**
+     * Update query status.
+     */
+    public MaintenanceQueryDTO updateStatus(String id, QueryStatus status) {
+        return updateStatus(id, status, null);
+    }
+
+    /**
+     * Update query status, only if the query is still at expectedVersion (when given).
+     * Done as a single findAndModify that sets just the changed fields. Moving
+     * a query to PENDING restarts its SLA.
+     */
+    public MaintenanceQueryDTO updateStatus(String id, QueryStatus status, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("status", status).set("updatedAt", now);
+        if (status == QueryStatus.RESOLVED) {
+            update.set("resolvedAt", now);
+        }
+        if (status == QueryStatus.PENDING) {
+            update.set("escalatedAt", now);
+        }
+
+        MaintenanceQuery query = maintenanceRepository.transition(id, null, expectedVersion, update);
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
+
+        // bring the pre-update document in line with what was written
+        query.setStatus(status);
+        query.setUpdatedAt(now);
+        if (status == QueryStatus.RESOLVED) {
+            query.setResolvedAt(now);
+        }
+        if (status == QueryStatus.PENDING) {
+            query.setEscalatedAt(now);
+        }
+        bumpVersion(query);
+
+        eventPublisher.publishEvent(MaintenanceChangedEvent.changed(this, status == QueryStatus.RESOLVED
+                ? MaintenanceEvent.Type.RESOLVED : MaintenanceEvent.Type.STATUS_CHANGED, List.of(transition)));
+        return maintenanceQueryMapper.toDTO(query);
     }
 
     /**
      * Mark a maintenance query as resolved.
      */
     public MaintenanceQueryDTO resolveQuery(String queryId, String resolutionNotes) {
-        MaintenanceQueryDTO query = maintenanceRepository.findById(queryId)
-                .orElseThrow(() -> new RuntimeException("Maintenance query not found with ID: " + queryId));
+        return resolveQuery(queryId, resolutionNotes, null);
+    }
+
+    /**
+     * Resolve an open query, only at expectedVersion when given.
+     * Already resolved or cancelled queries raise a ConflictException.
+     */
+    public MaintenanceQueryDTO resolveQuery(String queryId, String resolutionNotes, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", QueryStatus.RESOLVED)
+                .set("resolutionNotes", resolutionNotes)
+                .set("resolvedAt", now)
+                .set("updatedAt", now);
+
+        MaintenanceQuery query = maintenanceRepository.transition(queryId, OPEN_STATUSES, expectedVersion, update);
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
 
         query.setStatus(QueryStatus.RESOLVED);
         query.setResolutionNotes(resolutionNotes);
-        query.setResolvedAt(LocalDateTime.now());
-        query.setUpdatedAt(LocalDateTime.now());
+        query.setResolvedAt(now);
+        query.setUpdatedAt(now);
+        bumpVersion(query);
 
-        return maintenanceRepository.save(query);
+        eventPublisher.publishEvent(
+                MaintenanceChangedEvent.changed(this, MaintenanceEvent.Type.RESOLVED, List.of(transition)));
+        return maintenanceQueryMapper.toDTO(query);
     }
 
     /**
      * Assign a maintenance query to an admin.
      */
     public MaintenanceQueryDTO assignQuery(String queryId, String adminId) {
-        MaintenanceQueryDTO query = maintenanceRepository.findById(queryId)
-                .orElseThrow(() -> new RuntimeException("Maintenance query not found with ID: " + queryId));
+        return assignQuery(queryId, adminId, null);
+    }
 
+    /**
+     * Assign a maintenance query to an admin and move it to IN_PROGRESS.
+     * Only open (PENDING or IN_PROGRESS) queries can be assigned, and only at
+     * expectedVersion when given; otherwise a ConflictException is thrown.
+     */
+    public MaintenanceQueryDTO assignQuery(String queryId, String adminId, Long expectedVersion) {
         Admin admin = adminRepository.findById(adminId)
                 .orElseThrow(() -> new RuntimeException("Admin not found with ID: " + adminId));
 
-        query.setAssignedTo(admin);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("assignedTo", AdminRef.of(admin))
+                .set("status", QueryStatus.IN_PROGRESS)
+                .set("updatedAt", now)
+                .min("assignedAt", now); // only sets it on the first assignment
+
+        MaintenanceQuery query = maintenanceRepository.transition(queryId, OPEN_STATUSES, expectedVersion, update);
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
+
+        query.setAssignedTo(AdminRef.of(admin));
+        if (query.getAssignedAt() == null) {
+            query.setAssignedAt(now);
+        }
         query.setStatus(QueryStatus.IN_PROGRESS);
-        query.setUpdatedAt(LocalDateTime.now());
+        query.setUpdatedAt(now);
+        bumpVersion(query);
+
+        eventPublisher.publishEvent(
+                MaintenanceChangedEvent.changed(this, MaintenanceEvent.Type.ASSIGNED, List.of(transition)));
+        return maintenanceQueryMapper.toDTO(query);
+    }
+
+    /**
+     * Search queries by optional filters: priority, status, date range.
+     * Filters are evaluated by MongoDB against the compound indexes on MaintenanceQuery,
+     * and only the summary fields are loaded.
+     */
+    public List<MaintenanceQuerySummary> searchQueries(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end) {
+        return maintenanceReadCache.list(MaintenanceReadCache.ListKey.search(priority, status, start, end),
+                () -> toSummaries(maintenanceRepository.searchSummaries(priority, status, start, end)));
+    }
+
+    /**
+     * Keyset-paginated variant of searchQueries.
+     */
+    public CursorPage<MaintenanceQuerySummary> searchQueriesPage(String priority, QueryStatus status,
+            LocalDateTime start, LocalDateTime end, String cursor, Integer limit) {
+        return toSummaryPage(maintenanceRepository.searchSummaryPage(priority, status, start, end, cursor,
+                CursorPage.clampLimit(limit)));
+    }
+
+    /**
+     * Retrieve the full maintenance query, for detail views.
+     *
+     * @throws ResourceNotFoundException when no query, live or archived, has this id
+     */
+    public MaintenanceQueryDTO getQuery(String queryId) {
+        return maintenanceReadCache.query(queryId, () -> maintenanceRepository.findByIdIncludingArchive(queryId)
+                .map(maintenanceQueryMapper::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Maintenance query not found with ID: " + queryId)));
+    }
+
+    /**
+     * Retrieve the queries raised for one room, newest first, as summaries.
+     */
+    public List<MaintenanceQuerySummary> getRoomQueries(String roomId) {
+        return maintenanceReadCache.list(MaintenanceReadCache.ListKey.room(roomId),
+                () -> toSummaries(maintenanceRepository.findSummariesByRoom(roomId)));
+    }
 
-        return maintenanceRepository.save(query);
+    /**
+     * Retrieve all maintenance queries as summaries.
+     * Unbounded; prefer getQueriesPage for listings.
+     */
+    public List<MaintenanceQuerySummary> getAllQueries() {
+        return searchQueries(null, null, null, null);
+    }
+
+    /**
+     * Retrieve one page of maintenance query summaries, newest first.
+     */
+    public CursorPage<MaintenanceQuerySummary> getQueriesPage(String cursor, Integer limit) {
+        return searchQueriesPage(null, null, null, null, cursor, limit);
     }
 
     /**
-     * Retrieve all maintenance queries.
+     * Retrieve only pending queries, as summaries.
      */
-    public List<MaintenanceQueryDTO> getAllQueries() {
-        return maintenanceRepository.findAll();
+    public List<MaintenanceQuerySummary> getPendingQueries() {
+        return searchQueries(null, QueryStatus.PENDING, null, null);
     }
 
     /**
-     * Retrieve only pending queries.
+     * Retrieve only resolved queries, as summaries.
      */
-    public List<MaintenanceQueryDTO> getPendingQueries() {
-        return maintenanceRepository.findByStatus(QueryStatus.PENDING);
+    public List<MaintenanceQuerySummary> getResolvedQueries() {
+        return searchQueries(null, QueryStatus.RESOLVED, null, null);
     }
 
     /**
-     * Retrieve only resolved queries.
+     * Get overall statistics for maintenance queries from the live counters.
      */
-    public List<MaintenanceQueryDTO> getResolvedQueries() {
-        return maintenanceRepository.findByStatus(QueryStatus.RESOLVED);
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = maintenanceCounters.snapshot().toDisplayMap();
+        stats.put("Last Updated", LocalDateTime.now());
+        return stats;
+    }
+
+    private List<MaintenanceQuerySummary> toSummaries(List<MaintenanceQuery> queries) {
+        return queries.stream()
+                .map(maintenanceQueryMapper::toSummary)
+                .collect(Collectors.toList());
+    }
+
+    private CursorPage<MaintenanceQuerySummary> toSummaryPage(CursorPage<MaintenanceQuery> page) {
+        return CursorPage.<MaintenanceQuerySummary>builder()
+                .items(page.getItems().stream()
+                        .map(maintenanceQueryMapper::toSummary)
+                        .collect(Collectors.toList()))
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.isHasMore())
+                .build();
+    }
+
+    // mirrors the $inc applied by MaintenanceRepository.transition
+    private static void bumpVersion(MaintenanceQuery query) {
+        query.setVersion(query.getVersion() == null ? 1L : query.getVersion() + 1);
     }
 }
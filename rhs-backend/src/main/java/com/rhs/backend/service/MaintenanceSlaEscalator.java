@@ -0,0 +1,186 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.PriorityLevel;
+import com.rhs.backend.model.enums.QueryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Escalates PENDING queries that have waited longer than the SLA for their
+ * priority: the priority goes up one level (URGENT stays URGENT), the query
+ * is reassigned to the least loaded admin and a notification is logged.
+ *
+ * The SLA runs from createdAt until a query is escalated, then afresh from
+ * escalatedAt at its new priority, so an escalated query waits a full SLA
+ * before it can be escalated again. Reprioritising a query or moving it back
+ * to PENDING stamps escalatedAt too, so it likewise starts a full SLA at its
+ * priority. Each priority is scanned on both clocks: never escalated queries
+ * by createdAt, the others by escalatedAt.
+ *
+ * Each clock of each priority has a watermark, the (time, id) of the last
+ * query it escalated, kept in "maintenance_sla_watermarks" as text. A run
+ * range-scans the status_priority_createdAt or status_priority_escalatedAt
+ * index from that watermark up to now minus the SLA, so it only reads
+ * queries that became overdue since the last run and its cost follows the
+ * number of breaches, not the collection size. Every write that moves a
+ * query into a priority or into PENDING other than creation stamps
+ * escalatedAt with the current time, ahead of every escalatedAt watermark,
+ * and a new query's createdAt is ahead of every createdAt watermark, so no
+ * query is skipped. Escalated queries are written in
+ * batches through MaintenanceBulkService.
+ */
+@Component
+@Slf4j
+public class MaintenanceSlaEscalator {
+
+    static final String COLLECTION = "maintenance_sla_watermarks";
+
+    private static final PriorityLevel[] ORDER = {
+            PriorityLevel.URGENT, PriorityLevel.HIGH, PriorityLevel.MEDIUM, PriorityLevel.LOW
+    };
+
+    /**
+     * Where a query's SLA is measured from.
+     */
+    private enum Clock {
+        CREATED("createdAt", MaintenanceQuery::getCreatedAt, ""),
+        ESCALATED("escalatedAt", MaintenanceQuery::getEscalatedAt, ":escalated");
+
+        final String field;
+        final Function<MaintenanceQuery, LocalDateTime> time;
+        final String watermarkSuffix;
+
+        Clock(String field, Function<MaintenanceQuery, LocalDateTime> time, String watermarkSuffix) {
+            this.field = field;
+            this.time = time;
+            this.watermarkSuffix = watermarkSuffix;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceBulkService maintenanceBulkService;
+    private final MaintenanceBacklogAssigner maintenanceBacklogAssigner;
+    private final MaintenanceAssignmentEngine maintenanceAssignmentEngine;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<PriorityLevel, Duration> slas = new EnumMap<>(PriorityLevel.class);
+
+    public MaintenanceSlaEscalator(MongoTemplate mongoTemplate, MaintenanceBulkService maintenanceBulkService,
+            MaintenanceBacklogAssigner maintenanceBacklogAssigner,
+            MaintenanceAssignmentEngine maintenanceAssignmentEngine,
+            @Value("${maintenance.sla.enabled:true}") boolean enabled,
+            @Value("${maintenance.sla.batch:500}") int batchSize,
+            @Value("${maintenance.sla.urgent-hours:6}") long urgentHours,
+            @Value("${maintenance.sla.high-hours:24}") long highHours,
+            @Value("${maintenance.sla.medium-hours:72}") long mediumHours,
+            @Value("${maintenance.sla.low-hours:168}") long lowHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.maintenanceBulkService = maintenanceBulkService;
+        this.maintenanceBacklogAssigner = maintenanceBacklogAssigner;
+        this.maintenanceAssignmentEngine = maintenanceAssignmentEngine;
+        this.enabled = enabled;
+        this.batchSize = Math.min(batchSize, BulkMaintenanceRequest.MAX_BATCH);
+        slas.put(PriorityLevel.URGENT, Duration.ofHours(urgentHours));
+        slas.put(PriorityLevel.HIGH, Duration.ofHours(highHours));
+        slas.put(PriorityLevel.MEDIUM, Duration.ofHours(mediumHours));
+        slas.put(PriorityLevel.LOW, Duration.ofHours(lowHours));
+    }
+
+    /**
+     * Escalate everything that breached its SLA since the last run, most
+     * urgent first. A query raised to a higher priority here has just
+     * restarted its SLA, so it is escalated at most once per run.
+     */
+    @Scheduled(fixedDelayString = "${maintenance.sla.scan-ms:300000}",
+            initialDelayString = "${maintenance.sla.scan-ms:300000}")
+    public void scan() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (PriorityLevel priority : ORDER) {
+            for (Clock clock : Clock.values()) {
+                try {
+                    scan(priority, clock, now.minus(slas.get(priority)));
+                } catch (RuntimeException e) {
+                    // the watermark only moves past committed batches, the next run retries
+                    log.warn("SLA scan for {} queries failed: {}", priority, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void scan(PriorityLevel priority, Clock clock, LocalDateTime cutoff) {
+        PriorityLevel target = priority == PriorityLevel.URGENT
+                ? priority : PriorityLevel.values()[priority.ordinal() + 1];
+        String watermarkId = priority.name() + clock.watermarkSuffix;
+        Document watermark = mongoTemplate.findById(watermarkId, Document.class, COLLECTION);
+
+        while (true) {
+            List<MaintenanceQuery> overdue = overdue(priority, clock, watermark, cutoff);
+            if (overdue.isEmpty()) {
+                return;
+            }
+            List<String> ids = overdue.stream().map(MaintenanceQuery::getId).toList();
+
+            int escalated = maintenanceBulkService.escalate(ids, target.name()).getUpdated();
+            int reassigned = maintenanceAssignmentEngine.isEnabled()
+                    ? maintenanceBacklogAssigner.assign(target.name(), ids, false) : 0;
+            log.info("[NOTIFY] SLA breach: {} {} queries pending over {}h escalated to {}, {} reassigned",
+                    escalated, priority, slas.get(priority).toHours(), target, reassigned);
+
+            MaintenanceQuery last = overdue.get(overdue.size() - 1);
+            watermark = new Document("_id", watermarkId)
+                    .append(clock.field, clock.time.apply(last).toString())
+                    .append("queryId", last.getId());
+            mongoTemplate.save(watermark, COLLECTION);
+
+            if (overdue.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Next batch of PENDING queries of this priority whose clock started
+     * after the watermark and no later than cutoff, oldest first.
+     */
+    private List<MaintenanceQuery> overdue(PriorityLevel priority, Clock clock, Document watermark,
+            LocalDateTime cutoff) {
+        Criteria criteria = Criteria.where("status").is(QueryStatus.PENDING)
+                .and("priority").is(priority.name());
+        if (clock == Clock.CREATED) {
+            criteria.and(Clock.ESCALATED.field).is(null);
+        }
+        if (watermark == null) {
+            criteria.and(clock.field).lte(cutoff);
+        } else {
+            LocalDateTime since = LocalDateTime.parse(watermark.getString(clock.field));
+            String id = watermark.getString("queryId");
+            criteria.and(clock.field).gte(since).lte(cutoff).orOperator(
+                    Criteria.where(clock.field).gt(since),
+                    Criteria.where("id").gt(id));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, clock.field, "id"))
+                .limit(batchSize);
+        query.fields().include("id", clock.field);
+        return mongoTemplate.find(query, MaintenanceQuery.class);
+    }
+}
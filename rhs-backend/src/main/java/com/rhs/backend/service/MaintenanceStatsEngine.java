@@ -0,0 +1,142 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceStats;
+import com.rhs.backend.repository.MaintenanceArchive;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.MatchOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes maintenance statistics in a single $facet aggregation, so MongoDB
+ * does one pass over the collection and only the small result document is
+ * sent back.
+ *
+ * Archived queries are still part of the history, so the archive collection
+ * is unioned in first.
+ *
+ * Resolution-time percentiles are taken from a server-side $bucket histogram
+ * (with per-bucket min/max) and interpolated here, which works on any MongoDB
+ * version without pulling individual durations.
+ */
+@Component
+@RequiredArgsConstructor
+public class MaintenanceStatsEngine {
+
+    static final String COLLECTION = "maintenance_queries";
+    static final String BUILDING_FIELD = "student.room_details.building";
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final Object[] HOUR_BOUNDARIES = { 0, 1, 2, 4, 8, 12, 24, 48, 72, 120, 168, 336, 720, 1440 };
+
+    private final MongoTemplate mongoTemplate;
+
+    public MaintenanceStats compute() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                UnionWithOperation.unionWith(MaintenanceArchive.COLLECTION),
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.group("priority").count().as("count")).as("byPriority")
+                        .and(Aggregation.group(BUILDING_FIELD).count().as("count")).as("byBuilding")
+                        .and(resolvedOnly(),
+                                resolutionHours(),
+                                Aggregation.group().avg("hours").as("avg").count().as("count"))
+                        .as("resolutionAvg")
+                        .and(resolvedOnly(),
+                                resolutionHours(),
+                                Aggregation.bucket("hours")
+                                        .withBoundaries(HOUR_BOUNDARIES)
+                                        .withDefaultBucket("overflow")
+                                        .andOutputCount().as("count")
+                                        .andOutput("hours").min().as("min")
+                                        .andOutput("hours").max().as("max"))
+                        .as("resolutionBuckets"));
+
+        Document result = mongoTemplate.aggregate(aggregation, COLLECTION, Document.class).getUniqueMappedResult();
+        return toStats(result != null ? result : new Document());
+    }
+
+    private static MatchOperation resolvedOnly() {
+        return Aggregation.match(Criteria.where("resolvedAt").ne(null).and("createdAt").ne(null));
+    }
+
+    private static ProjectionOperation resolutionHours() {
+        return Aggregation.project().and(
+                ArithmeticOperators.Divide.valueOf(
+                        ArithmeticOperators.Subtract.valueOf("resolvedAt").subtract("createdAt"))
+                        .divideBy(MILLIS_PER_HOUR))
+                .as("hours");
+    }
+
+    private MaintenanceStats toStats(Document result) {
+        List<Document> total = documents(result, "total");
+        List<Document> avg = documents(result, "resolutionAvg");
+        List<Document> buckets = documents(result, "resolutionBuckets");
+
+        return MaintenanceStats.builder()
+                .total(total.isEmpty() ? 0 : number(total.get(0), "count").longValue())
+                .statusCounts(counts(documents(result, "byStatus")))
+                .priorityCounts(counts(documents(result, "byPriority")))
+                .buildingCounts(counts(documents(result, "byBuilding")))
+                .resolvedSamples(avg.isEmpty() ? 0 : number(avg.get(0), "count").longValue())
+                .avgResolutionHours(avg.isEmpty() ? 0 : number(avg.get(0), "avg").doubleValue())
+                .resolutionHoursP50(percentile(buckets, 0.50))
+                .resolutionHoursP90(percentile(buckets, 0.90))
+                .resolutionHoursP99(percentile(buckets, 0.99))
+                .build();
+    }
+
+    private static Map<String, Long> counts(List<Document> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document group : groups) {
+            Object key = group.get("_id");
+            counts.put(key != null ? key.toString() : "UNKNOWN", number(group, "count").longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Interpolate a percentile inside the histogram bucket that contains it,
+     * using that bucket's observed min/max as its range.
+     */
+    static double percentile(List<Document> buckets, double p) {
+        long total = buckets.stream().mapToLong(b -> number(b, "count").longValue()).sum();
+        if (total == 0) {
+            return 0;
+        }
+        double rank = p * total;
+        long seen = 0;
+        for (Document bucket : buckets) {
+            long count = number(bucket, "count").longValue();
+            if (seen + count >= rank) {
+                double min = number(bucket, "min").doubleValue();
+                double max = number(bucket, "max").doubleValue();
+                double within = count == 0 ? 0 : (rank - seen) / count;
+                return min + (max - min) * within;
+            }
+            seen += count;
+        }
+        return number(buckets.get(buckets.size() - 1), "max").doubleValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> documents(Document result, String key) {
+        Object value = result.get(key);
+        return value instanceof List ? (List<Document>) value : List.of();
+    }
+
+    private static Number number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The state a maintenance query had before a change, plus the query itself,
+ * which holds the new state. Consumed by the counters, the assignment
+ * engine and the latency tracker so all see exactly the same change.
+ */
+public record MaintenanceTransition(QueryStatus previousStatus, String previousPriority, String previousAssigneeId,
+        LocalDateTime previousAssignedAt, LocalDateTime previousResolvedAt, MaintenanceQuery query) {
+
+    /**
+     * Capture the current state of query. Change query in place afterwards;
+     * the transition then describes that change.
+     */
+    public static MaintenanceTransition of(MaintenanceQuery query) {
+        return new MaintenanceTransition(query.getStatus(), query.getPriority(),
+                query.getAssignedTo() != null ? query.getAssignedTo().getId() : null,
+                query.getAssignedAt(), query.getResolvedAt(), query);
+    }
+}
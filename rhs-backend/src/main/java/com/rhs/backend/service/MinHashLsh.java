@@ -0,0 +1,188 @@
+package com.rhs.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MinHash signatures with locality-sensitive hashing for short free-text
+ * descriptions, partitioned so that only texts in the same partition are
+ * compared.
+ *
+ * Text is reduced to the character trigrams of its words (stop words
+ * dropped), which tolerates word order, inflection and typos ("leaking" vs
+ * "leak"). Signatures have 64 MinHash values split into 16 bands of 4, so
+ * two texts with Jaccard similarity 0.5 share a band with probability 0.64
+ * and at 0.8 with probability 0.999, while unrelated texts rarely meet.
+ * A lookup only compares the entries that share a band bucket.
+ *
+ * Not thread safe; MaintenanceDuplicateDetector guards access.
+ */
+final class MinHashLsh {
+
+    static final int HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = HASHES / BANDS;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "in", "on", "at", "of", "to", "is", "it", "my", "our", "there", "with", "for",
+            "has", "have", "not", "no", "please", "room");
+
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    /**
+     * A likely duplicate and its estimated Jaccard similarity.
+     */
+    record Match(String id, double similarity) {
+    }
+
+    private record Entry(String partition, int[] signature) {
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Map<Long, Set<String>>> buckets = new HashMap<>();
+
+    void put(String id, String partition, String text) {
+        remove(id);
+        int[] signature = signature(text);
+        if (signature == null) {
+            return;
+        }
+        entries.put(id, new Entry(partition, signature));
+        Map<Long, Set<String>> partitionBuckets = buckets.computeIfAbsent(partition, key -> new HashMap<>());
+        for (int band = 0; band < BANDS; band++) {
+            partitionBuckets.computeIfAbsent(bandKey(signature, band), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        Map<Long, Set<String>> partitionBuckets = buckets.get(entry.partition());
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(entry.signature(), band);
+            Set<String> ids = partitionBuckets.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                partitionBuckets.remove(key);
+            }
+        }
+        if (partitionBuckets.isEmpty()) {
+            buckets.remove(entry.partition());
+        }
+    }
+
+    /**
+     * The most similar entry in the partition with at least the given
+     * estimated similarity, or null.
+     */
+    Match best(String partition, String text, double threshold) {
+        int[] signature = signature(text);
+        Map<Long, Set<String>> partitionBuckets = buckets.get(partition);
+        if (signature == null || partitionBuckets == null) {
+            return null;
+        }
+        Set<String> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            candidates.addAll(partitionBuckets.getOrDefault(bandKey(signature, band), Set.of()));
+        }
+        Match best = null;
+        for (String candidate : candidates) {
+            double similarity = similarity(signature, entries.get(candidate).signature());
+            if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                best = new Match(candidate, similarity);
+            }
+        }
+        return best;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / HASHES;
+    }
+
+    /**
+     * MinHash signature of the text's shingles, or null if it has none.
+     */
+    static int[] signature(String text) {
+        List<Long> shingles = shingles(text);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            int min = Integer.MAX_VALUE;
+            for (long shingle : shingles) {
+                min = Math.min(min, (int) (mix(shingle ^ SEEDS[i]) >>> 33));
+            }
+            signature[i] = min;
+        }
+        return signature;
+    }
+
+    private static List<Long> shingles(String text) {
+        Set<Long> shingles = new HashSet<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.isEmpty() || STOP_WORDS.contains(word)) {
+                    continue;
+                }
+                String padded = "_" + word + "_";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    shingles.add(hash(padded.substring(i, i + 3)));
+                }
+            }
+        }
+        return new ArrayList<>(shingles);
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = key * 0x100000001b3L + signature[row];
+        }
+        return mix(key);
+    }
+
+    private static long hash(String shingle) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : shingle.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,191 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.ReportSchedule;
+import com.rhs.backend.model.Reports;
+import com.rhs.backend.model.enums.ReportJobStatus;
+import com.rhs.backend.repository.MaintenanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lets identical report requests share one rendered file.
+ *
+ * A report's fingerprint hashes its type, format and date range together
+ * with a cheap data-version signal: the count and newest updatedAt of the
+ * queries in the range, plus, for PDFs, the all-time summary printed at the
+ * top. A stored report with the same fingerprint therefore has exactly the
+ * content a new render would produce, and is served instead.
+ *
+ * This is also the only retention of stored report files, whether reuse is
+ * enabled or not: they are evicted when older than max-age-hours, and beyond
+ * max-entries the least recently served go first. Eviction deletes the file
+ * and clears the fingerprint and filePath; the Reports row stays as history.
+ * The latest report of each ReportSchedule is exempt and does not count
+ * towards max-entries: its latest link must keep working until the
+ * schedule's next run replaces it.
+ */
+@Component
+@Slf4j
+public class ReportArtifactCache {
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceRepository maintenanceRepository;
+    private final MaintenanceCounters maintenanceCounters;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxAgeHours;
+
+    public ReportArtifactCache(MongoTemplate mongoTemplate, MaintenanceRepository maintenanceRepository,
+            MaintenanceCounters maintenanceCounters,
+            @Value("${reports.cache.enabled:true}") boolean enabled,
+            @Value("${reports.cache.max-entries:50}") int maxEntries,
+            @Value("${reports.cache.max-age-hours:24}") long maxAgeHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.maintenanceRepository = maintenanceRepository;
+        this.maintenanceCounters = maintenanceCounters;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxAgeHours = maxAgeHours;
+    }
+
+    /**
+     * The fingerprint of a maintenance report rendered now, or null when
+     * reuse is disabled.
+     */
+    public String fingerprint(String format, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder("Maintenance|").append(format)
+                .append('|').append(start).append('|').append(end)
+                .append('|').append(maintenanceRepository.dataVersion(start, end));
+        if (ReportJobService.PDF.equals(format)) {
+            key.append('|').append(canonical(maintenanceCounters.snapshot().toDisplayMap()));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The newest report with this fingerprint in one of the given states.
+     * A COMPLETED one is only returned while its file still exists, and is
+     * marked as just used.
+     */
+    public Optional<Reports> find(String fingerprint, Collection<ReportJobStatus> statuses) {
+        if (fingerprint == null) {
+            return Optional.empty();
+        }
+        Query query = new Query(Criteria.where("fingerprint").is(fingerprint).and("status").in(statuses))
+                .with(Sort.by(Sort.Direction.DESC, "generatedAt"));
+        Reports report = mongoTemplate.findOne(query, Reports.class);
+        if (report == null) {
+            return Optional.empty();
+        }
+        if (report.getStatus() == ReportJobStatus.COMPLETED) {
+            if (report.getFilePath() == null || !Files.isRegularFile(Paths.get(report.getFilePath()))) {
+                evict(report);
+                return Optional.empty();
+            }
+            Date now = new Date();
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(report.getId())),
+                    new Update().set("lastAccessedAt", now), Reports.class);
+            report.setLastAccessedAt(now);
+        }
+        return Optional.of(report);
+    }
+
+    /**
+     * Evict stored reports past their age, then the least recently served
+     * beyond max-entries, keeping each schedule's latest report.
+     */
+    @Scheduled(fixedDelayString = "${reports.cache.sweep-ms:600000}")
+    public void sweep() {
+        List<ObjectId> scheduled = scheduledReports();
+        Date oldest = new Date(System.currentTimeMillis() - maxAgeHours * 3_600_000L);
+        List<Reports> expired = mongoTemplate.find(new Query(evictable(scheduled).and("generatedAt").lt(oldest)),
+                Reports.class);
+        expired.forEach(this::evict);
+
+        long excess = mongoTemplate.count(new Query(evictable(scheduled)), Reports.class) - maxEntries;
+        if (excess > 0) {
+            Query leastRecent = new Query(evictable(scheduled))
+                    .with(Sort.by(Sort.Direction.ASC, "lastAccessedAt", "generatedAt"))
+                    .limit((int) excess);
+            mongoTemplate.find(leastRecent, Reports.class).forEach(this::evict);
+        }
+        if (!expired.isEmpty() || excess > 0) {
+            log.info("Evicted {} stored reports", expired.size() + Math.max(0, excess));
+        }
+    }
+
+    /**
+     * Stored reports other than the latest run of a schedule.
+     */
+    private static Criteria evictable(List<ObjectId> scheduled) {
+        Criteria criteria = Criteria.where("filePath").ne(null).and("status").is(ReportJobStatus.COMPLETED);
+        return scheduled.isEmpty() ? criteria : criteria.and("_id").nin(scheduled);
+    }
+
+    private List<ObjectId> scheduledReports() {
+        Query owned = new Query(Criteria.where("lastReportId").ne(null));
+        owned.fields().include("lastReportId");
+        return mongoTemplate.find(owned, ReportSchedule.class).stream()
+                .map(ReportSchedule::getLastReportId)
+                .filter(ObjectId::isValid)
+                .map(ObjectId::new)
+                .collect(Collectors.toList());
+    }
+
+    private void evict(Reports report) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(report.getId())),
+                new Update().unset("fingerprint").unset("filePath"), Reports.class);
+        if (report.getFilePath() != null) {
+            try {
+                Files.deleteIfExists(Path.of(report.getFilePath()));
+            } catch (IOException e) {
+                log.warn("Could not delete evicted report {}", report.getFilePath(), e);
+            }
+        }
+    }
+
+    /**
+     * A string form of the stats that does not depend on map iteration order.
+     */
+    private static String canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return new TreeMap<>(map.entrySet().stream()
+                    .collect(Collectors.toMap(e -> String.valueOf(e.getKey()), e -> canonical(e.getValue()))))
+                    .toString();
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,114 @@
+package com.rhs.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Rendered report files under file.report-dir.
+ *
+ * A report is written to a ".tmp" file next to its final name and renamed
+ * into place once complete, so a reader never sees a half-written file and
+ * a failed render leaves nothing behind; temp files abandoned by a crashed
+ * render are deleted nightly. How long a finished report is kept is up to
+ * {@link ReportArtifactCache}, which deletes the file with its fingerprint.
+ */
+@Component
+@Slf4j
+public class ReportArtifactStore {
+
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final Duration ABANDONED_TEMP_AGE = Duration.ofDays(1);
+
+    private final Path directory;
+
+    public ReportArtifactStore(@Value("${file.report-dir:reports/}") String reportDir) {
+        this.directory = Paths.get(reportDir);
+    }
+
+    /**
+     * Writes one report file; see {@link #write}.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Render into fileName atomically and return its path. The stream
+     * handed to renderer is buffered and closed here.
+     */
+    public Path write(String fileName, Renderer renderer) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName);
+        Path temp = directory.resolve(fileName + TEMP_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                renderer.render(out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * The stored file at filePath, if it is still there.
+     */
+    public Optional<Path> find(String filePath) {
+        if (filePath == null) {
+            return Optional.empty();
+        }
+        Path file = Paths.get(filePath);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Delete temp files abandoned by a crashed render.
+     */
+    @Scheduled(cron = "${reports.store.cleanup-cron:0 45 3 * * *}")
+    public void purge() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(ABANDONED_TEMP_AGE));
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).compareTo(cutoff) < 0
+                        && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Temp file clean-up in {} failed", directory, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} abandoned report temp files", deleted);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
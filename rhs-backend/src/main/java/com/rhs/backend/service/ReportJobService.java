@@ -0,0 +1,287 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.request.ReportJobRequest;
+import com.rhs.backend.dto.response.ReportJob;
+import com.rhs.backend.exception.ConflictException;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.model.Reports;
+import com.rhs.backend.model.enums.ReportJobStatus;
+import com.rhs.backend.repository.ReportRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Renders reports in the background so no request thread waits on them.
+ *
+ * A submitted job is recorded in the Reports collection as QUEUED and its id
+ * returned at once. A fixed pool of report threads with a bounded queue
+ * renders it into the ReportArtifactStore and marks it COMPLETED with its
+ * filePath, or FAILED with the error. While running, the row count is written back about once a second for pollers.
+ * When the queue is full new jobs are refused rather than piling up.
+ * A request matching a queued, running or stored job by fingerprint (see
+ * ReportArtifactCache) gets that job back instead of a new one.
+ *
+ * Jobs held by this instance are heartbeated; QUEUED or RUNNING jobs whose
+ * heartbeat stopped (their instance died) are marked FAILED.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    public static final String PDF = "pdf";
+    public static final String EXCEL = "excel";
+    static final String REPORT_TYPE = "Maintenance";
+
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+    private static final List<ReportJobStatus> REUSABLE = List.of(ReportJobStatus.QUEUED,
+            ReportJobStatus.RUNNING, ReportJobStatus.COMPLETED);
+
+    private final ReportService reportService;
+    private final ReportRepository reportRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReportArtifactCache reportArtifactCache;
+    private final ReportArtifactStore reportArtifactStore;
+    private final long staleAfterMs;
+    private final ThreadPoolExecutor executor;
+    private final Set<ObjectId> held = ConcurrentHashMap.newKeySet();
+
+    public ReportJobService(ReportService reportService, ReportRepository reportRepository,
+            MongoTemplate mongoTemplate, ReportArtifactCache reportArtifactCache,
+            ReportArtifactStore reportArtifactStore,
+            @Value("${reports.jobs.threads:2}") int threads,
+            @Value("${reports.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${reports.jobs.stale-ms:600000}") long staleAfterMs) {
+        this.reportService = reportService;
+        this.reportRepository = reportRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.reportArtifactCache = reportArtifactCache;
+        this.reportArtifactStore = reportArtifactStore;
+        this.staleAfterMs = staleAfterMs;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Record a job and queue it for rendering.
+     *
+     * @throws IllegalArgumentException for an unknown format or inverted range
+     * @throws IllegalStateException    when the report queue is full
+     */
+    public ReportJob submit(ReportJobRequest request) {
+        String format = request.getFormat() == null ? "" : request.getFormat().trim().toLowerCase();
+        if (!PDF.equals(format) && !EXCEL.equals(format)) {
+            throw new IllegalArgumentException("format must be " + PDF + " or " + EXCEL);
+        }
+        LocalDateTime start = request.getStart();
+        LocalDateTime end = request.getEnd();
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("start must not be after end");
+        }
+
+        // the same report with unchanged data is already stored or on its way
+        String fingerprint = reportArtifactCache.fingerprint(format, start, end);
+        Optional<Reports> existing = reportArtifactCache.find(fingerprint, REUSABLE);
+        if (existing.isPresent()) {
+            return view(existing.get());
+        }
+
+        Map<String, Object> parameters = ReportService.rangeParameters(start, end);
+        parameters.put("format", format);
+        Date now = new Date();
+        Reports job = new Reports();
+        job.setReportType(REPORT_TYPE);
+        job.setParameters(parameters);
+        job.setStatus(ReportJobStatus.QUEUED);
+        job.setRowsWritten(0L);
+        job.setGeneratedAt(now);
+        job.setUpdatedAt(now);
+        job.setFingerprint(fingerprint);
+        job = reportRepository.save(job);
+
+        ObjectId id = job.getId();
+        held.add(id);
+        try {
+            executor.execute(() -> render(id, format, start, end));
+        } catch (RejectedExecutionException e) {
+            held.remove(id);
+            fail(id, "Report queue is full");
+            throw new IllegalStateException("Too many reports are being generated, try again shortly");
+        }
+        return view(job);
+    }
+
+    public ReportJob get(String id) {
+        return view(find(id));
+    }
+
+    /**
+     * The rendered file of a COMPLETED job.
+     *
+     * @throws ConflictException when the job has not completed
+     */
+    public Path artifact(String id) {
+        Reports job = find(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED || job.getFilePath() == null) {
+            throw new ConflictException("Report " + id + " is " + job.getStatus());
+        }
+        return reportArtifactStore.find(job.getFilePath()).orElseThrow(
+                () -> new ResourceNotFoundException("Report file for " + id + " is no longer available"));
+    }
+
+    private void render(ObjectId id, String format, LocalDateTime start, LocalDateTime end) {
+        try {
+            Date startedAt = new Date();
+            Reports claimed = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(id).and("status").is(ReportJobStatus.QUEUED)),
+                    new Update().set("status", ReportJobStatus.RUNNING).set("startedAt", startedAt)
+                            .set("updatedAt", startedAt),
+                    Reports.class);
+            if (claimed == null) {
+                return; // failed as stale while it waited
+            }
+
+            String extension = PDF.equals(format) ? "pdf" : "xlsx";
+            long[] rows = { 0 };
+            LongConsumer progress = progress(id, rows);
+            Object[] reportData = { null };
+            Path target = reportArtifactStore.write("maintenance_report_" + id.toHexString() + "." + extension,
+                    out -> {
+                        if (PDF.equals(format)) {
+                            reportData[0] = reportService.renderPdfReport(start, end, out, progress);
+                        } else {
+                            reportService.renderExcel(start, end, out, progress);
+                        }
+                    });
+
+            Date completedAt = new Date();
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), new Update()
+                    .set("status", ReportJobStatus.COMPLETED)
+                    .set("filePath", target.toString())
+                    .set("fileSize", Files.size(target))
+                    .set("rowsWritten", rows[0])
+                    .set("reportData", reportData[0])
+                    .set("completedAt", completedAt)
+                    .set("lastAccessedAt", completedAt)
+                    .set("updatedAt", completedAt), Reports.class);
+            log.info("Report job {} completed: {} rows, {}", id, rows[0], target);
+        } catch (Exception e) {
+            log.warn("Report job {} failed", id, e);
+            fail(id, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            held.remove(id);
+        }
+    }
+
+    /**
+     * Keeps the running row count and writes it back at most once per
+     * PROGRESS_INTERVAL_MS.
+     */
+    private LongConsumer progress(ObjectId id, long[] rows) {
+        long[] lastWrite = { System.currentTimeMillis() };
+        return count -> {
+            rows[0] = count;
+            long now = System.currentTimeMillis();
+            if (now - lastWrite[0] >= PROGRESS_INTERVAL_MS) {
+                lastWrite[0] = now;
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                        new Update().set("rowsWritten", count).set("updatedAt", new Date()), Reports.class);
+            }
+        };
+    }
+
+    /**
+     * Heartbeat the jobs this instance holds, then fail other unfinished
+     * jobs whose heartbeat is older than stale-ms.
+     */
+    @Scheduled(fixedDelayString = "${reports.jobs.heartbeat-ms:60000}")
+    public void sweep() {
+        Date now = new Date();
+        List<ObjectId> mine = List.copyOf(held);
+        if (!mine.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(mine)), new Update().set("updatedAt", now),
+                    Reports.class);
+        }
+        Criteria stale = Criteria.where("status").in(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING)
+                .and("updatedAt").lt(new Date(now.getTime() - staleAfterMs));
+        if (!mine.isEmpty()) {
+            stale.and("_id").nin(mine);
+        }
+        long failed = mongoTemplate.updateMulti(new Query(stale), new Update()
+                .set("status", ReportJobStatus.FAILED)
+                .set("error", "Interrupted: the instance rendering it stopped")
+                .set("completedAt", now)
+                .set("updatedAt", now), Reports.class).getModifiedCount();
+        if (failed > 0) {
+            log.warn("Marked {} stale report jobs as failed", failed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void fail(ObjectId id, String error) {
+        Date now = new Date();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), new Update()
+                .set("status", ReportJobStatus.FAILED)
+                .set("error", error)
+                .set("completedAt", now)
+                .set("updatedAt", now), Reports.class);
+    }
+
+    private Reports find(String id) {
+        Reports job = ObjectId.isValid(id) ? reportRepository.findById(new ObjectId(id)).orElse(null) : null;
+        if (job == null || job.getStatus() == null) {
+            throw new ResourceNotFoundException("Report job not found with ID: " + id);
+        }
+        return job;
+    }
+
+    private static ReportJob view(Reports job) {
+        String url = "/reports/jobs/" + job.getId().toHexString();
+        return ReportJob.builder()
+                .id(job.getId().toHexString())
+                .reportType(job.getReportType())
+                .parameters(job.getParameters())
+                .status(job.getStatus())
+                .rowsWritten(job.getRowsWritten() != null ? job.getRowsWritten() : 0)
+                .fileSize(job.getFileSize())
+                .error(job.getError())
+                .submittedAt(job.getGeneratedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .statusUrl(url)
+                .downloadUrl(job.getStatus() == ReportJobStatus.COMPLETED ? url + "/download" : null)
+                .build();
+    }
+}
@@ -1,27 +1,31 @@
 package com.rhs.backend.service;
 
+import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
-import com.rhs.backend.model.MaintenanceQuery;
 import com.rhs.backend.model.Reports;
-import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.model.enums.ReportJobStatus;
 import com.rhs.backend.repository.MaintenanceRepository;
 import com.rhs.backend.repository.ReportRepository;
 import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.LongConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -29,142 +33,277 @@ public class ReportService {
 
     private final MaintenanceRepository maintenanceRepository;
     private final ReportRepository reportRepository;
+    private final MaintenanceCounters maintenanceCounters;
+    private final ReportArtifactCache reportArtifactCache;
+    private final ResidentStatsEngine residentStatsEngine;
+    private final ReportArtifactStore reportArtifactStore;
 
-    @Value("${file.report-dir:reports/}")
-    private String reportDir;
+    // rows SXSSF keeps in memory before flushing them to its temp file
+    private static final int EXCEL_ROW_WINDOW = 100;
+    // rows of the PDF table laid out and released at a time
+    private static final int PDF_FLUSH_ROWS = 100;
+    private static final DateTimeFormatter PDF_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Value("${maintenance.export.batch-size:1000}")
+    private int exportBatchSize;
+
+    /**
+     * The fingerprint a PDF report of this range would be stored under, or
+     * null when report reuse is off.
+     */
+    public String pdfFingerprint(LocalDateTime start, LocalDateTime end) {
+        return reportArtifactCache.fingerprint(ReportJobService.PDF, start, end);
+    }
 
     /**
-     * Generates a PDF maintenance report and saves metadata in Reports collection.
+     * The stored PDF with this fingerprint, if one is still on disk.
      */
-    public byte[] generatePdfReport() {
+    public Optional<Path> storedPdfReport(String fingerprint) {
+        return reportArtifactCache.find(fingerprint, List.of(ReportJobStatus.COMPLETED))
+                .flatMap(report -> reportArtifactStore.find(report.getFilePath()));
+    }
+
+    /**
+     * Generates a PDF maintenance report for queries created between start
+     * and end (either may be null for an open range), writes it to out as
+     * pages complete and saves metadata in Reports collection.
+     *
+     * Rows come from a createdAt range cursor and go into an iText large
+     * table that is flushed every PDF_FLUSH_ROWS rows. Finished pages are
+     * written out straight away, so memory stays bounded however many rows
+     * the range holds. Period totals are counted on the way and printed
+     * after the table. out is not closed.
+     *
+     * The same bytes are written to the ReportArtifactStore and recorded
+     * under fingerprint, so until the range's queries or the summary change
+     * the report can be served from disk (see storedPdfReport).
+     */
+    public void generatePdfReport(LocalDateTime start, LocalDateTime end, String fingerprint, OutputStream out) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("start must not be after end");
+        }
+        String fileName = "maintenance_report_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + "_"
+                + UUID.randomUUID().toString().substring(0, 8) + ".pdf";
+        Object[] stats = { null };
+        long[] rows = { 0 };
+        Path target;
         try {
-            List<MaintenanceQuery> queries = maintenanceRepository.findAll();
-            Map<String, Object> stats = calculateStats(queries);
+            target = reportArtifactStore.write(fileName,
+                    file -> stats[0] = renderPdfReport(start, end, tee(out, file), count -> rows[0] = count));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store PDF report", e);
+        }
 
-            File dir = new File(reportDir);
-            if (!dir.exists())
-                dir.mkdirs();
+        // Save report metadata
+        Date now = new Date();
+        Reports report = new Reports();
+        report.setReportType("Maintenance");
+        report.setReportData(stats[0]);
+        report.setParameters(rangeParameters(start, end));
+        report.getParameters().put("format", ReportJobService.PDF);
+        report.setStatus(ReportJobStatus.COMPLETED);
+        report.setRowsWritten(rows[0]);
+        report.setFilePath(target.toString());
+        report.setFingerprint(fingerprint);
+        report.setGeneratedAt(now);
+        report.setCompletedAt(now);
+        report.setUpdatedAt(now);
+        report.setLastAccessedAt(now);
+        try {
+            report.setFileSize(Files.size(target));
+        } catch (IOException e) {
+            // size is informational only
+        }
+        reportRepository.save(report);
+    }
 
-            String fileName = "maintenance_report_" +
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmm")) + ".pdf";
-            String filePath = reportDir + fileName;
+    /**
+     * Render the PDF report to out without recording it; rowsWritten is told
+     * the running row count after every row. Returns the summary statistics
+     * printed in the report.
+     */
+    public Map<String, Object> renderPdfReport(LocalDateTime start, LocalDateTime end, OutputStream out,
+            LongConsumer rowsWritten) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("start must not be after end");
+        }
+        try {
+            Map<String, Object> stats = maintenanceCounters.snapshot().toDisplayMap();
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
             document.add(new Paragraph("RHS Maintenance Report").setBold().setFontSize(18));
-            document.add(new Paragraph("Generated: " + LocalDateTime.now()).setFontSize(10));
-            document.add(new Paragraph("\nSummary Statistics:\n"));
+            document.add(new Paragraph("Generated: " + LocalDateTime.now().format(PDF_DATE)).setFontSize(10));
+            document.add(new Paragraph("Period: " + (start != null ? start.format(PDF_DATE) : "beginning")
+                    + " to " + (end != null ? end.format(PDF_DATE) : "now")).setFontSize(10));
+            document.add(new Paragraph("\nSummary Statistics (all time):\n"));
 
             stats.forEach((k, v) -> document.add(new Paragraph(k + ": " + v)));
 
-            Table table = new Table(5);
+            Table table = new Table(5, true);
             table.addHeaderCell("Title");
             table.addHeaderCell("Priority");
             table.addHeaderCell("Status");
             table.addHeaderCell("Created At");
             table.addHeaderCell("Resolved At");
 
-            queries.stream().limit(20).forEach(q -> {
+            document.add(new Paragraph("\nMaintenance Queries:"));
+            document.add(table);
+
+            Map<String, Long> byStatus = new TreeMap<>();
+            long[] rows = { 0 };
+            maintenanceRepository.forEachByCreatedAt(null, start, end, exportBatchSize, q -> {
                 table.addCell(Optional.ofNullable(q.getQueryTitle()).orElse("-"));
                 table.addCell(Optional.ofNullable(q.getPriority()).orElse("-"));
                 table.addCell(q.getStatus() != null ? q.getStatus().name() : "-");
-                table.addCell(q.getCreatedAt() != null ? q.getCreatedAt().toString() : "-");
-                table.addCell(q.getResolvedAt() != null ? q.getResolvedAt().toString() : "-");
+                table.addCell(q.getCreatedAt() != null ? q.getCreatedAt().format(PDF_DATE) : "-");
+                table.addCell(q.getResolvedAt() != null ? q.getResolvedAt().format(PDF_DATE) : "-");
+                byStatus.merge(q.getStatus() != null ? q.getStatus().name() : "UNKNOWN", 1L, Long::sum);
+                if (++rows[0] % PDF_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
+                rowsWritten.accept(rows[0]);
             });
+            table.complete();
 
-            document.add(new Paragraph("\nRecent Maintenance Queries:"));
-            document.add(table);
+            document.add(new Paragraph("\nPeriod Totals:\n"));
+            document.add(new Paragraph("Total Queries: " + rows[0]));
+            byStatus.forEach((k, v) -> document.add(new Paragraph(k + ": " + v)));
             document.close();
+            return stats;
 
-            // Save report metadata
-            Reports report = new Reports();
-            report.setReportType("Maintenance");
-            report.setReportData(stats);
-            report.setGeneratedAt(new Date());
-            report.setFilePath(filePath);
-            reportRepository.save(report);
-
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF report: " + e.getMessage());
+        } catch (PdfException e) {
+            // iText wraps failures of the stream it writes to
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Failed to generate PDF report: " + io.getMessage(), io);
+            }
+            throw new IllegalStateException("Failed to generate PDF report: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Export data to Excel.
+     * Export all maintenance queries to Excel, written to out as it is built.
+     *
+     * Rows come from a Mongo cursor and go into an SXSSFWorkbook that keeps
+     * only the last EXCEL_ROW_WINDOW rows in memory and flushes older ones to
+     * a compressed temp file, so heap use does not grow with the row count.
+     * Dates are real date cells. out is not closed.
+     */
+    public void exportToExcel(OutputStream out) throws IOException {
+        renderExcel(null, null, out, rows -> {
+        });
+    }
+
+    /**
+     * Render the Excel export of queries created between start and end
+     * (either may be null); rowsWritten is told the running row count after
+     * every row.
      */
-    public byte[] exportToExcel() {
-        try (Workbook workbook = new XSSFWorkbook()) {
+    public void renderExcel(LocalDateTime start, LocalDateTime end, OutputStream out, LongConsumer rowsWritten)
+            throws IOException {
+        // closing the workbook also deletes its temp file
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW)) {
+            workbook.setCompressTempFiles(true);
             Sheet sheet = workbook.createSheet("Maintenance Queries");
-            List<MaintenanceQuery> queries = maintenanceRepository.findAll();
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
 
             String[] headers = { "Title", "Priority", "Status", "Created At", "Resolved At" };
             Row headerRow = sheet.createRow(0);
             for (int i = 0; i < headers.length; i++) {
                 headerRow.createCell(i).setCellValue(headers[i]);
             }
+            sheet.setColumnWidth(3, 18 * 256);
+            sheet.setColumnWidth(4, 18 * 256);
 
-            int rowIdx = 1;
-            for (MaintenanceQuery q : queries) {
-                Row row = sheet.createRow(rowIdx++);
+            int[] rowIdx = { 1 };
+            maintenanceRepository.forEachByCreatedAt(null, start, end, exportBatchSize, q -> {
+                Row row = sheet.createRow(rowIdx[0]++);
                 row.createCell(0).setCellValue(Optional.ofNullable(q.getQueryTitle()).orElse("-"));
                 row.createCell(1).setCellValue(Optional.ofNullable(q.getPriority()).orElse("-"));
                 row.createCell(2).setCellValue(q.getStatus() != null ? q.getStatus().name() : "-");
-                row.createCell(3).setCellValue(q.getCreatedAt() != null ? q.getCreatedAt().toString() : "-");
-                row.createCell(4).setCellValue(q.getResolvedAt() != null ? q.getResolvedAt().toString() : "-");
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            workbook.write(baos);
-            return baos.toByteArray();
+                dateCell(row, 3, q.getCreatedAt(), dateStyle);
+                dateCell(row, 4, q.getResolvedAt(), dateStyle);
+                rowsWritten.accept(rowIdx[0] - 1L);
+            });
 
-        } catch (IOException e) {
-            throw new RuntimeException("Error exporting to Excel: " + e.getMessage());
+            workbook.write(out);
+            out.flush();
         }
     }
 
     /**
-     * Stats endpoints
+     * The date range of a report, as kept in Reports.parameters.
      */
-    public Map<String, Object> getMaintenanceStats() {
-        List<MaintenanceQuery> queries = maintenanceRepository.findAll();
-        return calculateStats(queries);
+    public static Map<String, Object> rangeParameters(LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return parameters;
     }
 
-    public Map<String, Object> getSleepoverStats() {
-        return Map.of(
-                "Total Sleepovers", 10,
-                "Active", 7,
-                "Completed", 3);
+    /**
+     * Writes go to both streams; closing it closes only second.
+     */
+    private static OutputStream tee(OutputStream first, OutputStream second) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                first.write(b);
+                second.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                first.write(b, off, len);
+                second.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                first.flush();
+                second.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+                second.close();
+            }
+        };
     }
 
-    public Map<String, Object> getUserStats() {
-        return Map.of(
-                "Total Users", 45,
-                "Active", 40,
-                "Inactive", 5);
+    private static void dateCell(Row row, int column, LocalDateTime value, CellStyle style) {
+        Cell cell = row.createCell(column);
+        if (value != null) {
+            cell.setCellValue(value);
+            cell.setCellStyle(style);
+        }
     }
 
     /**
-     * Common stats calculator
+     * Stats endpoints
+     * Maintenance stats are served from the live counters (no collection scan).
      */
-    private Map<String, Object> calculateStats(List<MaintenanceQuery> queries) {
-        Map<String, Object> stats = new LinkedHashMap<>();
-        long total = queries.size();
-        long pending = queries.stream().filter(q -> q.getStatus() == QueryStatus.PENDING).count();
-        long inProgress = queries.stream().filter(q -> q.getStatus() == QueryStatus.IN_PROGRESS).count();
-        long resolved = queries.stream().filter(q -> q.getStatus() == QueryStatus.RESOLVED).count();
-
-        stats.put("Total Queries", total);
-        stats.put("Pending", pending);
-        stats.put("In Progress", inProgress);
-        stats.put("Resolved", resolved);
+    public Map<String, Object> getMaintenanceStats() {
+        Map<String, Object> stats = maintenanceCounters.snapshot().toDisplayMap();
         stats.put("Generated At", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-
         return stats;
     }
+
+    /**
+     * Sleepover and user stats each come from one faceted aggregation,
+     * cached briefly by ResidentStatsEngine.
+     */
+    public Map<String, Object> getSleepoverStats() {
+        return residentStatsEngine.sleepovers();
+    }
+
+    public Map<String, Object> getUserStats() {
+        return residentStatsEngine.users();
+    }
 }
@@ -0,0 +1,120 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.SleepOverPass;
+import com.rhs.backend.model.enums.AccountStatus;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sleepover and user statistics, each computed by a single $facet
+ * aggregation so one round trip returns only the counts.
+ *
+ * Every facet counts the whole collection, so there is no selective $match
+ * for an index to serve; both pipelines instead project down to the counted
+ * fields first, students inside the $unionWith, so the facets work on small
+ * documents.
+ * Results are kept for ttl-ms; the figures are dashboard counts and a few
+ * seconds of staleness is fine.
+ */
+@Component
+public class ResidentStatsEngine {
+
+    static final String USERS = "users";
+    static final String STUDENTS = "students";
+
+    private static final String[] COUNTED_USER_FIELDS = {"user_type", "account_status", "is_enabled"};
+
+    // a pass lets its visitor stay over while approved
+    private static final List<AccountStatus> STAYING = List.of(AccountStatus.APPROVED, AccountStatus.ACTIVE);
+
+    private final MongoTemplate mongoTemplate;
+    private final BoundedCache<String, Map<String, Object>> cache;
+
+    public ResidentStatsEngine(MongoTemplate mongoTemplate,
+            @Value("${reports.stats.ttl-ms:30000}") long ttlMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = new BoundedCache<>(2, ttlMillis);
+    }
+
+    /**
+     * Passes in total, per status and staying tonight.
+     */
+    public Map<String, Object> sleepovers() {
+        return cache.get("sleepovers", key -> computeSleepovers(LocalDate.now()));
+    }
+
+    /**
+     * Admins and students in total, per type, per account status and
+     * enabled or not.
+     */
+    public Map<String, Object> users() {
+        return cache.get("users", key -> computeUsers());
+    }
+
+    private Map<String, Object> computeSleepovers(LocalDate today) {
+        TypedAggregation<SleepOverPass> aggregation = Aggregation.newAggregation(SleepOverPass.class,
+                Aggregation.project("status", "startDate", "endDate"),
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.match(Criteria.where("status").in(STAYING)
+                                        .and("startDate").lte(today)
+                                        .and("endDate").gte(today)),
+                                Aggregation.count().as("count")).as("tonight"));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        Document facets = result != null ? result : new Document();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("Total Sleepovers", single(facets, "total"));
+        stats.put("Active Tonight", single(facets, "tonight"));
+        stats.put("By Status", grouped(facets, "byStatus"));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private Map<String, Object> computeUsers() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project(COUNTED_USER_FIELDS),
+                UnionWithOperation.unionWith(STUDENTS).pipeline(Aggregation.project(COUNTED_USER_FIELDS)),
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.group("user_type").count().as("count")).as("byType")
+                        .and(Aggregation.group("account_status").count().as("count")).as("byStatus")
+                        .and(Aggregation.match(Criteria.where("is_enabled").is(true)),
+                                Aggregation.count().as("count")).as("enabled"));
+        Document result = mongoTemplate.aggregate(aggregation, USERS, Document.class).getUniqueMappedResult();
+        Document facets = result != null ? result : new Document();
+
+        long total = single(facets, "total");
+        long enabled = single(facets, "enabled");
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("Total Users", total);
+        stats.put("Active", enabled);
+        stats.put("Inactive", total - enabled);
+        stats.put("By Type", grouped(facets, "byType"));
+        stats.put("By Status", grouped(facets, "byStatus"));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static long single(Document facets, String facet) {
+        List<Document> docs = facets.getList(facet, Document.class, List.of());
+        return docs.isEmpty() ? 0 : ((Number) docs.get(0).get("count")).longValue();
+    }
+
+    private static Map<String, Long> grouped(Document facets, String facet) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document doc : facets.getList(facet, Document.class, List.of())) {
+            counts.put(MaintenanceCounters.key(doc.get("_id")), ((Number) doc.get("count")).longValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rhs.backend;
+
+import com.rhs.backend.Config.FirebaseConfig;
+import com.rhs.backend.service.MaintenanceService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the whole application context against an in-process Mongo server,
+ * so bean name clashes and missing wiring fail the build instead of startup.
+ */
+@SpringBootTest
+class RhsBackendApplicationContextTest {
+
+    private static final MongoServer SERVER = new MongoServer(new MemoryBackend());
+
+    // needs a service account file that is not part of the repository
+    @MockBean
+    FirebaseConfig firebaseConfig;
+
+    @Autowired
+    ApplicationContext context;
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InetSocketAddress address = SERVER.bind();
+        String uri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/rhs";
+        // as after any earlier start; recounting from scratch needs $unionWith, which the test server lacks
+        try (MongoClient client = MongoClients.create(uri)) {
+            client.getDatabase("rhs").getCollection("maintenance_counters")
+                    .insertOne(new Document("_id", "maintenance").append("total", 0L));
+        }
+        registry.add("spring.data.mongodb.uri", () -> uri);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.shutdownNow();
+    }
+
+    @Test
+    void contextLoads() {
+        assertThat(context.getBeansOfType(MaintenanceService.class)).hasSize(1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.rhs.backend.controller;
+
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.response.CursorPage;
+import com.rhs.backend.dto.response.MaintenanceQuerySummary;
+import com.rhs.backend.exception.ResourceNotFoundException;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.service.MaintenanceBulkService;
+import com.rhs.backend.service.MaintenanceHotspots;
+import com.rhs.backend.service.MaintenanceLatencyTracker;
+import com.rhs.backend.service.MaintenanceLiveFeed;
+import com.rhs.backend.service.MaintenanceReadCache;
+import com.rhs.backend.service.MaintenanceRollups;
+import com.rhs.backend.service.MaintenanceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listing maintenance queries through MaintenanceController, whole or as
+ * keyset pages, and fetching one in full.
+ */
+class MaintenanceControllerTest {
+
+    private final MaintenanceService maintenanceService = mock(MaintenanceService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new MaintenanceController(maintenanceService,
+            mock(MaintenanceBulkService.class), mock(MaintenanceLiveFeed.class), mock(MaintenanceLatencyTracker.class),
+            mock(MaintenanceHotspots.class), mock(MaintenanceRollups.class), mock(MaintenanceReadCache.class)))
+            .build();
+
+    @Test
+    void pagesWhenACursorOrLimitIsGiven() throws Exception {
+        MaintenanceQuerySummary summary = MaintenanceQuerySummary.builder().id("q-2").build();
+        when(maintenanceService.searchQueriesPage(eq("HIGH"), eq(QueryStatus.PENDING), isNull(), isNull(),
+                eq("c-1"), eq(2)))
+                .thenReturn(CursorPage.<MaintenanceQuerySummary>builder()
+                        .items(List.of(summary)).nextCursor("c-2").hasMore(true).build());
+
+        mockMvc.perform(get("/maintenance").param("priority", "HIGH").param("status", "PENDING")
+                        .param("cursor", "c-1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("q-2"))
+                .andExpect(jsonPath("$.nextCursor").value("c-2"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+        verify(maintenanceService, never()).searchQueries(any(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsAMalformedCursor() throws Exception {
+        when(maintenanceService.searchQueriesPage(any(), any(), any(), any(), eq("junk"), any()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: junk"));
+
+        mockMvc.perform(get("/maintenance").param("cursor", "junk"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor: junk"));
+    }
+
+    @Test
+    void returnsTheWholeListWithoutPagingParameters() throws Exception {
+        when(maintenanceService.searchQueries(null, null, null, null)).thenReturn(List.of());
+
+        mockMvc.perform(get("/maintenance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+        verify(maintenanceService, never()).searchQueriesPage(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void servesTheDetailOfOneQueryOr404() throws Exception {
+        when(maintenanceService.getQuery("q-1")).thenReturn(MaintenanceQueryDTO.builder().id("q-1").build());
+        when(maintenanceService.getQuery("q-9"))
+                .thenThrow(new ResourceNotFoundException("Maintenance query not found with ID: q-9"));
+
+        mockMvc.perform(get("/maintenance/q-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("q-1"));
+        mockMvc.perform(get("/maintenance/q-9"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Maintenance query not found with ID: q-9"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.rhs.backend.controller;
+
+import com.rhs.backend.service.MaintenanceExportService;
+import com.rhs.backend.service.ReportJobService;
+import com.rhs.backend.service.ReportScheduler;
+import com.rhs.backend.service.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serving a stored report file: full download, conditional request, Range
+ * request and the hand-off to Tomcat's sendfile support.
+ */
+class ReportControllerTest {
+
+    private static final String DOWNLOAD = "/reports/jobs/r-1/download";
+    private static final String BODY = "0123456789abcdef";
+
+    private final ReportJobService reportJobService = mock(ReportJobService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(mock(ReportService.class),
+            mock(MaintenanceExportService.class), reportJobService, mock(ReportScheduler.class))).build();
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void storeReport() throws Exception {
+        file = Files.writeString(directory.resolve("maintenance_report_r-1.xlsx"), BODY, StandardCharsets.US_ASCII);
+        when(reportJobService.artifact("r-1")).thenReturn(file);
+    }
+
+    @Test
+    void servesTheFileWithValidators() throws Exception {
+        mockMvc.perform(get(DOWNLOAD))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"maintenance_report_r-1.xlsx\""))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void answersNotModifiedForAMatchingETag() throws Exception {
+        String etag = mockMvc.perform(get(DOWNLOAD)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult repeat = mockMvc.perform(get(DOWNLOAD).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertThat(repeat.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesARangeAsPartialContent() throws Exception {
+        mockMvc.perform(get(DOWNLOAD).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + BODY.length()))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void handsAPlainGetToSendfileWhenSupported() throws Exception {
+        MvcResult result = mockMvc.perform(get(DOWNLOAD).requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename",
+                        file.toAbsolutePath().toString()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) BODY.length()))
+                .andReturn();
+        // Tomcat writes the bytes itself
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void readsARangeThroughTheJvmEvenWithSendfile() throws Exception {
+        mockMvc.perform(get(DOWNLOAD).requestAttr("org.apache.tomcat.sendfile.support", true)
+                        .header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", (Object) null))
+                .andExpect(content().string("abcdef"));
+    }
+}
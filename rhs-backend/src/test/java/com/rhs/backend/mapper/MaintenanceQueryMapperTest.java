@@ -0,0 +1,132 @@
+package com.rhs.backend.mapper;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.Student;
+import com.rhs.backend.repository.AdminRepository;
+import com.rhs.backend.repository.StudentRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reference loading in MaintenanceQueryMapper, against an in-process Mongo
+ * server. A command listener on the client records every find the mapper's
+ * repositories send.
+ */
+class MaintenanceQueryMapperTest {
+
+    private static final int BATCH = 500;
+
+    private static final List<String> finds = new CopyOnWriteArrayList<>();
+    private static MongoServer server;
+    private static MongoClient client;
+    private static MaintenanceQueryMapper mapper;
+
+    @BeforeAll
+    static void startMongo() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        "mongodb://" + address.getHostString() + ":" + address.getPort()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if ("find".equals(event.getCommandName())) {
+                            finds.add(event.getCommand().getString("find").getValue());
+                        }
+                    }
+                })
+                .build());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "mapper-test");
+        mongoTemplate.insertAll(IntStream.range(0, 200)
+                .mapToObj(i -> Student.builder().id("student-" + i).build())
+                .collect(Collectors.toList()));
+        mongoTemplate.insertAll(IntStream.range(0, 20)
+                .mapToObj(i -> Admin.builder().id("admin-" + i).build())
+                .collect(Collectors.toList()));
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        mapper = new MaintenanceQueryMapper(repositories.getRepository(StudentRepository.class),
+                repositories.getRepository(AdminRepository.class));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @BeforeEach
+    void clearCommands() {
+        finds.clear();
+    }
+
+    @Test
+    void batchOf500UsesOneCommandPerReferenceType() {
+        // 500 queries from 200 distinct students, assigned across 20 admins
+        List<MaintenanceQueryDTO> dtos = IntStream.range(0, BATCH)
+                .mapToObj(i -> MaintenanceQueryDTO.builder()
+                        .studentId("student-" + (i % 200))
+                        .assignedToId("admin-" + (i % 20))
+                        .queryTitle("Query " + i)
+                        .build())
+                .collect(Collectors.toList());
+
+        List<MaintenanceQuery> entities = mapper.toEntities(dtos);
+
+        assertThat(entities).hasSize(BATCH);
+        assertThat(entities.get(321).getStudent().getId()).isEqualTo("student-121");
+        assertThat(entities.get(321).getAssignedTo().getId()).isEqualTo("admin-1");
+        assertThat(finds).containsExactly("students", "users");
+    }
+
+    @Test
+    void loaderMemoizesAcrossSingleItemCalls() {
+        MaintenanceReferenceLoader loader = mapper.newReferenceLoader();
+        for (int i = 0; i < BATCH; i++) {
+            mapper.toEntity(MaintenanceQueryDTO.builder().studentId("student-1").assignedToId("admin-1").build(),
+                    loader);
+        }
+
+        assertThat(commandCount()).isEqualTo(2);
+    }
+
+    @Test
+    void missingReferenceFailsWithoutRepeatingTheLookup() {
+        MaintenanceReferenceLoader loader = mapper.newReferenceLoader();
+        MaintenanceQueryDTO dto = MaintenanceQueryDTO.builder().studentId("missing-1").build();
+
+        assertThatThrownBy(() -> mapper.toEntity(dto, loader))
+                .hasMessage("Student not found with ID: missing-1");
+        assertThatThrownBy(() -> mapper.toEntity(dto, loader))
+                .hasMessage("Student not found with ID: missing-1");
+        assertThat(commandCount()).isEqualTo(1);
+    }
+
+    private static int commandCount() {
+        return finds.size();
+    }
+}
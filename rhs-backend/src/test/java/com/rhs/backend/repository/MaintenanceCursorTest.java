@@ -0,0 +1,59 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset cursors of MaintenanceRepositoryImpl, including rows that were
+ * stored without a createdAt.
+ */
+class MaintenanceCursorTest {
+
+    @Test
+    void datedCursorSeeksPastCreatedAtAndIdThenUndatedRows() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 9, 30);
+        String cursor = MaintenanceRepositoryImpl.encodeCursor(row("q2", createdAt));
+
+        assertThat(MaintenanceRepositoryImpl.decodeCursor(cursor)).containsExactly(createdAt.toString(), "q2");
+        List<?> branches = MaintenanceRepositoryImpl.seekCriteria(cursor).getCriteriaObject().getList("$or", Object.class);
+        assertThat(branches).hasSize(3);
+        assertThat(branches.get(2)).isEqualTo(new Document("createdAt", null));
+    }
+
+    @Test
+    void undatedCursorSeeksOnIdAlone() {
+        String cursor = MaintenanceRepositoryImpl.encodeCursor(row("q7", null));
+
+        assertThat(MaintenanceRepositoryImpl.decodeCursor(cursor)).containsExactly("", "q7");
+        Document seek = MaintenanceRepositoryImpl.seekCriteria(cursor).getCriteriaObject();
+        assertThat(seek.get("createdAt")).isNull();
+        assertThat(seek).containsKey("createdAt");
+        assertThat(seek.get("id")).isEqualTo(new Document("$lt", "q7"));
+    }
+
+    @Test
+    void rejectsCursorsWithoutId() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("2024-03-01T09:30|".getBytes());
+
+        assertThatThrownBy(() -> MaintenanceRepositoryImpl.decodeCursor(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> MaintenanceRepositoryImpl.decodeCursor("bnVsbHxxMQ")) // "null|q1"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MaintenanceQuery row(String id, LocalDateTime createdAt) {
+        MaintenanceQuery query = new MaintenanceQuery();
+        query.setId(id);
+        query.setCreatedAt(createdAt);
+        return query;
+    }
+}
@@ -0,0 +1,175 @@
+package com.rhs.backend.repository;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.PriorityLevel;
+import com.rhs.backend.model.enums.QueryStatus;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old findAll() + stream search with the Criteria search on
+ * an embedded MongoDB. Opt-in because it loads up to 1M documents:
+ *
+ * mvn test -Dtest=MaintenanceSearchBenchmarkTest -Dbenchmark=true
+ *
+ * Add -Dbenchmark.mongo-uri=mongodb://host:port/bench to run against an
+ * existing server instead of downloading one; its "bench" database is
+ * dropped and reseeded. -Dbenchmark.sizes=100000 picks the collection
+ * sizes (default 100,000 and 1,000,000).
+ */
+@DataMongoTest
+@Import(MaintenanceArchive.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MaintenanceSearchBenchmarkTest {
+
+    private static final int ITERATIONS = 5;
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    @BeforeAll
+    static void startMongod() {
+        if (System.getProperty("benchmark.mongo-uri") == null) {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+        }
+    }
+
+    @AfterAll
+    static void stopMongod() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> System.getProperty("benchmark.mongo-uri",
+                mongod != null ? "mongodb://" + mongod.current().getServerAddress() + "/bench" : null));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    static IntStream sizes() {
+        return Arrays.stream(System.getProperty("benchmark.sizes", "100000,1000000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("sizes")
+    void compareSearchPaths(int size) {
+        seed(size);
+
+        String priority = PriorityLevel.URGENT.name();
+        QueryStatus status = QueryStatus.PENDING;
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(7);
+
+        List<MaintenanceQuery> oldResult = oldSearch(priority, status, start, end);
+        List<MaintenanceQuery> newResult = maintenanceRepository.search(priority, status, start, end);
+        assertEquals(oldResult.size(), newResult.size());
+
+        long oldMs = time(() -> oldSearch(priority, status, start, end));
+        long newMs = time(() -> maintenanceRepository.search(priority, status, start, end));
+
+        System.out.printf("[BENCH] %,d queries, %,d matches: findAll+stream %d ms, criteria %d ms%n",
+                size, newResult.size(), oldMs, newMs);
+    }
+
+    /**
+     * The search path as it was before filters were pushed into MongoDB.
+     */
+    private List<MaintenanceQuery> oldSearch(String priority, QueryStatus status, LocalDateTime start,
+            LocalDateTime end) {
+        return maintenanceRepository.findAll().stream()
+                .filter(q -> priority == null
+                        || (q.getPriority() != null && q.getPriority().equalsIgnoreCase(priority)))
+                .filter(q -> status == null || q.getStatus() == status)
+                .filter(q -> start == null || (q.getCreatedAt() != null && !q.getCreatedAt().isBefore(start)))
+                .filter(q -> end == null || (q.getCreatedAt() != null && !q.getCreatedAt().isAfter(end)))
+                .collect(Collectors.toList());
+    }
+
+    private long time(Supplier<List<MaintenanceQuery>> search) {
+        search.get(); // warm up
+        long startNs = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - startNs) / ITERATIONS / 1_000_000;
+    }
+
+    private void seed(int size) {
+        mongoTemplate.dropCollection(MaintenanceQuery.class);
+        IndexOperations indexOps = mongoTemplate.indexOps(MaintenanceQuery.class);
+        new MongoPersistentEntityIndexResolver(mappingContext)
+                .resolveIndexFor(MaintenanceQuery.class)
+                .forEach(indexOps::ensureIndex);
+
+        Random random = new Random(42);
+        PriorityLevel[] priorities = PriorityLevel.values();
+        QueryStatus[] statuses = QueryStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<MaintenanceQuery> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // a version marks the entity as not new, so auditing keeps the spread createdAt
+            batch.add(MaintenanceQuery.builder()
+                    .version(0L)
+                    .roomId("R" + random.nextInt(500))
+                    .queryTitle("Query " + i)
+                    .queryDescription("Benchmark maintenance query " + i)
+                    .priority(priorities[random.nextInt(priorities.length)].name())
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .createdAt(now.minusMinutes(random.nextInt(365 * 24 * 60)))
+                    .build());
+            if (batch.size() == 10_000) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<MaintenanceQuery> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceQuery.class)
+                .insert(batch)
+                .execute();
+        batch.clear();
+    }
+}
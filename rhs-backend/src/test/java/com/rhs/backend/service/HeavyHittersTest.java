@@ -0,0 +1,68 @@
+package com.rhs.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Count-Min sketch plus top-k heap on a skewed stream of room ids.
+ */
+class HeavyHittersTest {
+
+    @Test
+    void findsTheRepeatOffendersInASkewedStream() {
+        HeavyHitters hitters = new HeavyHitters(MaintenanceHotspots.CANDIDATES);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        // 50,000 faults over 5,000 rooms; room-0 .. room-9 get a fifth of them
+        for (int i = 0; i < 50_000; i++) {
+            String room = i % 5 == 0 ? "room-" + random.nextInt(10) : "room-" + random.nextInt(5_000);
+            hitters.add(room);
+            exact.merge(room, 1L, Long::sum);
+        }
+
+        List<String> expected = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        List<Map.Entry<String, Long>> top = hitters.top(10);
+
+        assertThat(top).extracting(Map.Entry::getKey).containsExactlyInAnyOrderElementsOf(expected);
+        for (Map.Entry<String, Long> entry : top) {
+            assertThat(entry.getValue()).isBetween(exact.get(entry.getKey()),
+                    exact.get(entry.getKey()) + (long) (0.003 * hitters.total()));
+        }
+    }
+
+    @Test
+    void storedCellsRoundTripKeepsEstimatesAndCandidates() {
+        HeavyHitters hitters = new HeavyHitters(3);
+        Map<String, Long> counts = new HashMap<>();
+        for (String room : List.of("a", "b", "a", "c", "a", "b", "d")) {
+            hitters.add(room);
+            counts.merge(room, 1L, Long::sum);
+        }
+        // the cells MaintenanceHotspots $inc's for these counts
+        Map<Integer, Long> cells = new HashMap<>();
+        counts.forEach((room, count) -> {
+            for (int cell : CountMinSketch.cells(room)) {
+                cells.merge(cell, count, Long::sum);
+            }
+        });
+
+        HeavyHitters restored = HeavyHitters.restore(3, CountMinSketch.fromCells(7, cells), hitters.candidates());
+
+        assertThat(restored.top(3)).isEqualTo(hitters.top(3));
+        assertThat(restored.total()).isEqualTo(7);
+        restored.add("b");
+        assertThat(restored.top(1).get(0).getKey()).isEqualTo("a");
+        assertThat(restored.sketch().estimate("b")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,104 @@
+package com.rhs.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.rhs.backend.repository.MaintenanceArchive;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Copy, guarded delete and clean-up of MaintenanceArchiver against a mocked
+ * MongoTemplate.
+ */
+class MaintenanceArchiverTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MaintenanceArchive maintenanceArchive = mock(MaintenanceArchive.class);
+    private final BulkOperations copy = mock(BulkOperations.class);
+    private final BulkOperations remove = mock(BulkOperations.class);
+    private final MaintenanceArchiver archiver = new MaintenanceArchiver(mongoTemplate, maintenanceArchive, true, 500);
+
+    private final Document first = new Document("_id", "q-1").append("status", "RESOLVED").append("version", 3L);
+    private final Document second = new Document("_id", "q-2").append("status", "RESOLVED").append("version", 5L);
+
+    @BeforeEach
+    void stubBulkWrites() {
+        when(maintenanceArchive.cutoff()).thenReturn(LocalDateTime.now().minusDays(180));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceArchive.COLLECTION)).thenReturn(copy);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceArchiver.HOT_COLLECTION))
+                .thenReturn(remove);
+    }
+
+    @Test
+    void copiesThenDeletesOnlyTheCopiedVersion() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(MaintenanceArchiver.HOT_COLLECTION)))
+                .thenReturn(List.of(first, second));
+        when(remove.execute()).thenReturn(deleted(2));
+
+        archiver.archive();
+
+        ArgumentCaptor<Query> copied = ArgumentCaptor.forClass(Query.class);
+        verify(copy, times(2)).replaceOne(copied.capture(), any(Document.class), any(FindAndReplaceOptions.class));
+        assertThat(copied.getAllValues()).extracting(query -> query.getQueryObject().get("_id"))
+                .containsExactly("q-1", "q-2");
+        verify(copy).replaceOne(any(Query.class), eq(first), any(FindAndReplaceOptions.class));
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(remove, times(2)).remove(removed.capture());
+        assertThat(removed.getAllValues()).extracting(Query::getQueryObject)
+                .containsExactly(new Document("_id", "q-1").append("version", 3L),
+                        new Document("_id", "q-2").append("version", 5L));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(MaintenanceArchive.COLLECTION));
+    }
+
+    @Test
+    void dropsTheArchiveCopyOfAQueryChangedWhileBeingArchived() {
+        // q-2 was updated between the copy and the delete, so only q-1 was deleted
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(MaintenanceArchiver.HOT_COLLECTION)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(new Document("_id", "q-2").append("version", 6L)));
+        when(remove.execute()).thenReturn(deleted(1));
+
+        archiver.archive();
+
+        ArgumentCaptor<Query> dropped = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(dropped.capture(), eq(MaintenanceArchive.COLLECTION));
+        assertThat(dropped.getValue().getQueryObject().get("_id", Document.class).get("$in", Collection.class))
+                .containsExactly("q-2");
+    }
+
+    @Test
+    void keepsTheArchiveCopyOfAQueryDeletedByAnotherRun() {
+        // q-2 is gone from the hot collection without our delete: another run finished it
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(MaintenanceArchiver.HOT_COLLECTION)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(remove.execute()).thenReturn(deleted(1));
+
+        archiver.archive();
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(MaintenanceArchive.COLLECTION));
+    }
+
+    private static BulkWriteResult deleted(int count) {
+        return BulkWriteResult.acknowledged(0, 0, count, 0, List.of(), List.of());
+    }
+}
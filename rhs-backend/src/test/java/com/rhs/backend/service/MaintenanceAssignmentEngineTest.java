@@ -0,0 +1,75 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.embedded.AdminRef;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.AdminRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load balancing in MaintenanceAssignmentEngine, with the roster and open
+ * loads served by mocks.
+ */
+class MaintenanceAssignmentEngineTest {
+
+    private MaintenanceAssignmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        AdminRepository adminRepository = mock(AdminRepository.class);
+        when(adminRepository.findAdminsWhoCanManageQueries()).thenReturn(List.of(
+                admin("m1", "Maintenance"), admin("m2", "Maintenance"), admin("c1", "Clerk")));
+
+        // m1 holds one URGENT query, m2 two LOW ones
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(MaintenanceQuery.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        load("m1", "URGENT", 1), load("m2", "LOW", 2)), new Document()));
+
+        engine = new MaintenanceAssignmentEngine(adminRepository, mongoTemplate, true, List.of("Maintenance"));
+        engine.reload();
+    }
+
+    @Test
+    void picksLeastWeightedLoadInMaintenanceDepartment() {
+        // m2 (load 2) beats m1 (load 4); the idle clerk is only a fallback
+        assertThat(engine.reserve("HIGH")).map(Admin::getId).contains("m2");
+        // m2 is now at 5, so m1 is next
+        assertThat(engine.reserve("LOW")).map(Admin::getId).contains("m1");
+    }
+
+    @Test
+    void transitionsMoveLoadBetweenAdmins() {
+        MaintenanceQuery query = MaintenanceQuery.builder()
+                .id("q1").priority("URGENT").status(QueryStatus.IN_PROGRESS).assignedTo(AdminRef.of(admin("m1", "Maintenance")))
+                .build();
+        MaintenanceTransition resolved = MaintenanceTransition.of(query);
+        query.setStatus(QueryStatus.RESOLVED);
+        engine.onTransition(resolved);
+
+        // m1 is idle again and wins over m2
+        assertThat(engine.reserve("LOW")).map(Admin::getId).contains("m1");
+    }
+
+    private static Admin admin(String id, String department) {
+        return Admin.builder().id(id).department(department).build();
+    }
+
+    private static Document load(String adminId, String priority, int count) {
+        return new Document("_id", new Document("id", adminId).append("priority", priority)).append("count", count);
+    }
+}
@@ -0,0 +1,190 @@
+package com.rhs.backend.service;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.rhs.backend.dto.MaintenanceQueryDTO;
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.dto.response.BulkOperationResult;
+import com.rhs.backend.dto.response.BulkOperationResult.Item;
+import com.rhs.backend.dto.response.BulkOperationResult.Outcome;
+import com.rhs.backend.mapper.MaintenanceQueryMapper;
+import com.rhs.backend.model.Admin;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.Student;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.AdminRepository;
+import com.rhs.backend.repository.StudentRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MaintenanceBulkService against an in-process Mongo server, with a command
+ * listener recording what each batch sends.
+ */
+class MaintenanceBulkServiceTest {
+
+    // "<command> <collection>" of every command sent; the event's document is only valid in the callback
+    private static final List<String> commands = new CopyOnWriteArrayList<>();
+    private static MongoServer server;
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static MaintenanceQueryMapper mapper;
+
+    private MaintenanceAssignmentEngine assignmentEngine;
+    private ApplicationEventPublisher eventPublisher;
+    private MaintenanceBulkService bulkService;
+
+    @BeforeAll
+    static void startMongo() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        "mongodb://" + address.getHostString() + ":" + address.getPort()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        BsonValue target = event.getCommand().get(event.getCommandName());
+                        commands.add(event.getCommandName() + " "
+                                + (target != null && target.isString() ? target.asString().getValue() : ""));
+                    }
+                })
+                .build());
+        mongoTemplate = new MongoTemplate(client, "bulk-test");
+        mongoTemplate.insertAll(IntStream.range(0, 50)
+                .mapToObj(i -> Student.builder().id("student-" + i).firstName("S").lastName(String.valueOf(i)).build())
+                .collect(Collectors.toList()));
+        mongoTemplate.insertAll(IntStream.range(0, 5)
+                .mapToObj(i -> Admin.builder().id("admin-" + i).firstName("A").lastName(String.valueOf(i)).build())
+                .collect(Collectors.toList()));
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        mapper = new MaintenanceQueryMapper(repositories.getRepository(StudentRepository.class),
+                repositories.getRepository(AdminRepository.class));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        assignmentEngine = mock(MaintenanceAssignmentEngine.class);
+        when(assignmentEngine.assignOnCreate(any(), any())).thenAnswer(invocation ->
+                ((UnaryOperator<MaintenanceQuery>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        bulkService = new MaintenanceBulkService(mongoTemplate, mock(AdminRepository.class), mapper,
+                assignmentEngine, mock(MaintenanceDuplicateDetector.class), eventPublisher);
+        mongoTemplate.remove(new Query(), MaintenanceQuery.class);
+        commands.clear();
+    }
+
+    @Test
+    void createLoadsReferencesOncePerTypeForTheWholeBatch() {
+        List<MaintenanceQueryDTO> dtos = IntStream.range(0, 200)
+                .mapToObj(i -> MaintenanceQueryDTO.builder()
+                        .studentId("student-" + (i % 50))
+                        .assignedToId(i % 2 == 0 ? "admin-" + (i % 5) : null)
+                        .roomId("R" + i)
+                        .queryTitle("Query " + i)
+                        .priority("high")
+                        .build())
+                .collect(Collectors.toList());
+
+        List<MaintenanceQueryDTO> created = bulkService.create(dtos);
+
+        assertThat(created).hasSize(200);
+        assertThat(created.get(7).getStudentName()).isEqualTo("S 7");
+        assertThat(created.get(7).getPriority()).isEqualTo("HIGH");
+        assertThat(finds()).containsExactly("students", "users");
+        assertThat(mongoTemplate.count(new Query(),
+                MaintenanceQuery.class)).isEqualTo(200);
+        verify(eventPublisher).publishEvent(any(MaintenanceChangedEvent.class));
+    }
+
+    @Test
+    void onlyQueriesChangedBeforeOurWriteAreConflicts() {
+        mongoTemplate.insertAll(List.of(pending("q-before"), pending("q-after"), pending("q-clean")));
+        // another writer changes q-before between our read and our bulk write,
+        // and q-after right after our write, before we look for lost races
+        MongoTemplate racing = new MongoTemplate(client, "bulk-test") {
+            @Override
+            public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+                concurrentWrite("q-before");
+                return super.bulkOps(mode, entityClass);
+            }
+
+            @Override
+            public <T> List<T> find(Query query, Class<T> entityClass) {
+                if (query.getQueryObject().containsKey("bulkIds")) {
+                    concurrentWrite("q-after");
+                }
+                return super.find(query, entityClass);
+            }
+        };
+        MaintenanceBulkService racingService = new MaintenanceBulkService(racing, mock(AdminRepository.class), mapper,
+                assignmentEngine, mock(MaintenanceDuplicateDetector.class), eventPublisher);
+        BulkMaintenanceRequest request = new BulkMaintenanceRequest();
+        request.setQueryIds(List.of("q-before", "q-after", "q-clean"));
+        request.setStatus(QueryStatus.RESOLVED);
+
+        BulkOperationResult result = racingService.changeStatus(request);
+
+        assertThat(result.getItems()).extracting(Item::getId, Item::getOutcome).containsExactly(
+                tuple("q-before", Outcome.CONFLICT),
+                tuple("q-after", Outcome.UPDATED),
+                tuple("q-clean", Outcome.UPDATED));
+        assertThat(mongoTemplate.findById("q-before", MaintenanceQuery.class).getStatus())
+                .isEqualTo(QueryStatus.PENDING);
+        assertThat(mongoTemplate.findById("q-after", MaintenanceQuery.class).getVersion()).isEqualTo(2);
+    }
+
+    private static MaintenanceQuery pending(String id) {
+        return MaintenanceQuery.builder().id(id).status(QueryStatus.PENDING).priority("LOW").version(0L).build();
+    }
+
+    private static void concurrentWrite(String id) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(id)),
+                new Update().inc("version", 1).push("bulkIds").slice(-5).each("another-batch"), MaintenanceQuery.class);
+    }
+
+    private static List<String> finds() {
+        return commands.stream()
+                .filter(command -> command.startsWith("find "))
+                .map(command -> command.substring("find ".length()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,57 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The open-query index in MaintenanceDuplicateDetector across status changes.
+ */
+class MaintenanceDuplicateDetectorTest {
+
+    private static final String LEAK = "Water leaking from ceiling in corridor outside room 12";
+
+    private final MaintenanceDuplicateDetector detector =
+            new MaintenanceDuplicateDetector(mock(MongoTemplate.class), true, 0.5);
+
+    @Test
+    void closedQueriesLeaveTheIndexAndReopenedOnesReturn() {
+        MaintenanceQuery leak = query("q-1", LEAK);
+        detector.onCreated(leak);
+        assertThat(duplicateOf("Ceiling leak in the corridor, water outside room 12")).isEqualTo("q-1");
+
+        change(leak, QueryStatus.RESOLVED);
+        assertThat(duplicateOf("Ceiling leak in the corridor, water outside room 12")).isNull();
+
+        change(leak, QueryStatus.PENDING);
+        assertThat(duplicateOf("Ceiling leak in the corridor, water outside room 12")).isEqualTo("q-1");
+
+        change(leak, QueryStatus.IN_PROGRESS);
+        assertThat(duplicateOf("Ceiling leak in the corridor, water outside room 12")).isEqualTo("q-1");
+    }
+
+    private String duplicateOf(String description) {
+        MaintenanceQuery query = query(null, description);
+        detector.flag(query);
+        return query.getPossibleDuplicateOf();
+    }
+
+    private void change(MaintenanceQuery query, QueryStatus status) {
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
+        query.setStatus(status);
+        detector.onTransition(transition);
+    }
+
+    private static MaintenanceQuery query(String id, String description) {
+        return MaintenanceQuery.builder()
+                .id(id)
+                .roomId("r-12")
+                .queryDescription(description)
+                .status(QueryStatus.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.rhs.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.MaintenanceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * CSV quoting and NDJSON lines of the streaming export.
+ */
+class MaintenanceExportServiceTest {
+
+    private final MaintenanceRepository repository = mock(MaintenanceRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final MaintenanceExportService exporter = new MaintenanceExportService(repository, objectMapper, 1000);
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        rows(MaintenanceQuery.builder().id("q1").status(QueryStatus.PENDING).priority("HIGH")
+                .queryTitle("Leak, \"bad\"").queryDescription("line one\nline two")
+                .createdAt(LocalDateTime.of(2024, 5, 14, 9, 30)).build());
+
+        String csv = export(MaintenanceExportService.CSV);
+
+        String[] lines = csv.split("\r\n", 2);
+        assertThat(lines[0]).isEqualTo(String.join(",", MaintenanceExportService.COLUMNS));
+        assertThat(lines[1]).startsWith("q1,2024-05-14T09:30,,PENDING,HIGH,,,\"Leak, \"\"bad\"\"\",\"line one\nline two\",");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        rows(MaintenanceQuery.builder().id("q1").status(QueryStatus.RESOLVED).build(),
+                MaintenanceQuery.builder().id("q2").status(QueryStatus.PENDING)
+                        .createdAt(LocalDateTime.of(2024, 5, 14, 9, 30)).build());
+
+        List<String> lines = export(MaintenanceExportService.NDJSON).lines().toList();
+
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("status").asText()).isEqualTo("RESOLVED");
+        assertThat(objectMapper.readTree(lines.get(1)).get("createdAt").asText()).isEqualTo("2024-05-14T09:30:00");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rows(MaintenanceQuery... queries) {
+        doAnswer(invocation -> {
+            Consumer<MaintenanceQuery> action = invocation.getArgument(4);
+            List.of(queries).forEach(action);
+            return null;
+        }).when(repository).forEachByCreatedAt(any(), any(), any(), anyInt(), any(Consumer.class));
+    }
+
+    private String export(String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(format, null, null, null, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
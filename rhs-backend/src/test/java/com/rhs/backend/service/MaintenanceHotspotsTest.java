@@ -0,0 +1,108 @@
+package com.rhs.backend.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rhs.backend.dto.response.MaintenanceHotspotReport;
+import com.rhs.backend.dto.response.MaintenanceHotspotReport.Entry;
+import com.rhs.backend.model.MaintenanceQuery;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Two instances counting into one in-process Mongo server.
+ */
+class MaintenanceHotspotsTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "rhs");
+    }
+
+    @AfterEach
+    void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void snapshotsFromTwoInstancesAddUp() {
+        MaintenanceHotspots first = new MaintenanceHotspots(mongoTemplate);
+        MaintenanceHotspots second = new MaintenanceHotspots(mongoTemplate);
+        create(first, "r-1", 3);
+        create(second, "r-1", 2);
+        create(second, "r-2", 1);
+
+        first.snapshot();
+        second.snapshot();
+        first.snapshot();
+
+        assertThat(top(first)).extracting(Entry::getKey, Entry::getCount)
+                .containsExactly(tuple("r-1", 5L), tuple("r-2", 1L));
+        assertThat(top(second)).extracting(Entry::getKey, Entry::getCount)
+                .containsExactly(tuple("r-1", 5L), tuple("r-2", 1L));
+        assertThat(first.top(MaintenanceHotspots.ROOM, YearMonth.now(), 10).getTotal()).isEqualTo(6);
+    }
+
+    @Test
+    void countsSinceTheLastSnapshotStayVisibleLocally() {
+        MaintenanceHotspots first = new MaintenanceHotspots(mongoTemplate);
+        MaintenanceHotspots second = new MaintenanceHotspots(mongoTemplate);
+        create(first, "r-1", 1);
+        first.snapshot();
+        create(second, "r-2", 2);
+        second.snapshot();
+        create(first, "r-3", 4);
+
+        first.snapshot();
+        create(first, "r-1", 1);
+
+        assertThat(top(first)).extracting(Entry::getKey, Entry::getCount)
+                .containsExactlyInAnyOrder(tuple("r-3", 4L), tuple("r-1", 2L), tuple("r-2", 2L));
+    }
+
+    @Test
+    void aStartingInstanceRestoresTheSharedMonth() {
+        MaintenanceHotspots first = new MaintenanceHotspots(mongoTemplate);
+        MaintenanceHotspots second = new MaintenanceHotspots(mongoTemplate);
+        create(first, "r-1", 2);
+        create(second, "r-2", 3);
+        first.snapshot();
+        second.snapshot();
+
+        MaintenanceHotspots restarted = new MaintenanceHotspots(mongoTemplate);
+        restarted.rebuild();
+
+        assertThat(top(restarted)).extracting(Entry::getKey, Entry::getCount)
+                .containsExactly(tuple("r-2", 3L), tuple("r-1", 2L));
+    }
+
+    private static void create(MaintenanceHotspots hotspots, String roomId, int times) {
+        for (int i = 0; i < times; i++) {
+            hotspots.onCreated(MaintenanceQuery.builder().roomId(roomId).createdAt(LocalDateTime.now()).build());
+        }
+    }
+
+    private static List<Entry> top(MaintenanceHotspots hotspots) {
+        MaintenanceHotspotReport report = hotspots.top(MaintenanceHotspots.ROOM, YearMonth.now(), 10);
+        return report.getHotspots();
+    }
+}
@@ -0,0 +1,83 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceLatencyReport;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Histogram accuracy and rolling windows in MaintenanceLatencyTracker.
+ */
+class MaintenanceLatencyTrackerTest {
+
+    @Test
+    void bucketsCoverTheRangeWithoutGaps() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertThat(LatencyHistogram.lowest(i)).isEqualTo(LatencyHistogram.highest(i - 1) + 1);
+        }
+        assertThat(LatencyHistogram.highest(LatencyHistogram.BUCKETS - 1)).isEqualTo(LatencyHistogram.MAX_VALUE);
+        assertThat(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void percentilesAreWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // up to two weeks, in seconds
+            values[i] = (long) (random.nextDouble() * 14 * 24 * 3600);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] {50, 90, 99}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            assertThat((double) histogram.percentile(p)).isCloseTo(exact, within(exact * 0.03));
+        }
+    }
+
+    @Test
+    void resolutionIsReportedPerPriorityWithinWindow() {
+        MaintenanceLatencyTracker tracker = new MaintenanceLatencyTracker(mock(MongoTemplate.class));
+        LocalDateTime now = LocalDateTime.now();
+        resolve(tracker, "HIGH", now.minusHours(10), now);
+        resolve(tracker, "LOW", now.minusDays(4), now.minusDays(2));
+
+        MaintenanceLatencyReport day = tracker.report("24h");
+        assertThat(day.getTimeToResolve().getOverall().getCount()).isEqualTo(1);
+        assertThat(day.getTimeToResolve().getByPriority()).containsOnlyKeys("HIGH");
+        assertThat(day.getTimeToResolve().getOverall().getP50Hours()).isCloseTo(10.0, within(0.3));
+
+        MaintenanceLatencyReport week = tracker.report("7d");
+        assertThat(week.getTimeToResolve().getOverall().getCount()).isEqualTo(2);
+        assertThat(week.getTimeToResolve().getByPriority().get("LOW").getP99Hours()).isCloseTo(48.0, within(1.5));
+        assertThat(week.getTimeToAssign().getOverall().getCount()).isZero();
+    }
+
+    @Test
+    void rejectsWindowsBeyondRetention() {
+        MaintenanceLatencyTracker tracker = new MaintenanceLatencyTracker(mock(MongoTemplate.class));
+        assertThatThrownBy(() -> tracker.report("31d")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tracker.report("week")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void resolve(MaintenanceLatencyTracker tracker, String priority, LocalDateTime createdAt,
+            LocalDateTime resolvedAt) {
+        MaintenanceQuery query = MaintenanceQuery.builder()
+                .priority(priority).status(QueryStatus.IN_PROGRESS).createdAt(createdAt).build();
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
+        query.setStatus(QueryStatus.RESOLVED);
+        query.setResolvedAt(resolvedAt);
+        tracker.onTransition(transition);
+    }
+}
@@ -0,0 +1,71 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceQuerySummary;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LRU bound, load races and precise list invalidation of the read cache.
+ */
+class MaintenanceReadCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryAndIgnoresLoadsRacingAnInvalidation() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 60_000);
+        cache.get("a", key -> "A");
+        cache.get("b", key -> "B");
+        cache.get("a", key -> "stale");
+        cache.get("c", key -> "C"); // "b" was used least recently
+
+        assertThat(cache.get("a", key -> "reloaded")).isEqualTo("A");
+        assertThat(cache.get("b", key -> "B2")).isEqualTo("B2");
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+
+        // a write lands while "d" is being read from the database
+        cache.get("d", key -> {
+            cache.invalidate("d");
+            return "before write";
+        });
+        assertThat(cache.get("d", key -> "after write")).isEqualTo("after write");
+        assertThat(cache.stats().hits()).isEqualTo(2);
+    }
+
+    @Test
+    void transitionOnlyDropsListsTheQueryWasOrIsIn() {
+        MaintenanceReadCache cache = new MaintenanceReadCache(true, 100, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        MaintenanceReadCache.ListKey pending = MaintenanceReadCache.ListKey.search(null, QueryStatus.PENDING, null, null);
+        MaintenanceReadCache.ListKey resolved = MaintenanceReadCache.ListKey.search(null, QueryStatus.RESOLVED, null, null);
+        MaintenanceReadCache.ListKey urgent = MaintenanceReadCache.ListKey.search("urgent", null, null, null);
+        MaintenanceReadCache.ListKey room = MaintenanceReadCache.ListKey.room("room-2");
+        MaintenanceReadCache.ListKey lastYear = MaintenanceReadCache.ListKey.search(null, null,
+                LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 12, 31, 0, 0));
+        List<MaintenanceReadCache.ListKey> keys = List.of(pending, resolved, urgent, room, lastYear);
+        keys.forEach(key -> cache.list(key, () -> load(loads)));
+
+        MaintenanceQuery query = MaintenanceQuery.builder()
+                .id("q1").status(QueryStatus.IN_PROGRESS).priority("LOW").roomId("room-1")
+                .createdAt(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .build();
+        MaintenanceTransition transition = MaintenanceTransition.of(query);
+        query.setStatus(QueryStatus.RESOLVED);
+        cache.onTransition(transition);
+
+        loads.set(0);
+        keys.forEach(key -> cache.list(key, () -> load(loads)));
+        // only the RESOLVED list held or now holds q1
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private static List<MaintenanceQuerySummary> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of();
+    }
+}
@@ -0,0 +1,113 @@
+package com.rhs.backend.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rhs.backend.dto.response.MaintenanceTrendPoint;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.MaintenanceArchive;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Backfill and live counting in MaintenanceRollups against an in-process
+ * Mongo server.
+ */
+class MaintenanceRollupsTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "rhs");
+    }
+
+    @AfterEach
+    void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void backfillCountsOnlyWhatHappenedBeforeLiveCountingBegan() {
+        LocalDateTime twoDaysAgo = LocalDate.now().minusDays(2).atTime(9, 0);
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(9, 0);
+        // created and resolved before the rollups existed: history only
+        mongoTemplate.insert(query("old", "HIGH", twoDaysAgo, yesterday), MaintenanceArchive.COLLECTION);
+        // created before, resolved once counting was live
+        MaintenanceQuery open = query("open", "LOW", twoDaysAgo, null);
+        mongoTemplate.insert(open, MaintenanceArchiver.HOT_COLLECTION);
+
+        MaintenanceRollups rollups = new MaintenanceRollups(mongoTemplate);
+        MaintenanceQuery fresh = query("fresh", "LOW", LocalDateTime.now(), null);
+        mongoTemplate.insert(fresh, MaintenanceArchiver.HOT_COLLECTION);
+        rollups.onCreated(fresh);
+        MaintenanceTransition resolution = MaintenanceTransition.of(open);
+        open.setStatus(QueryStatus.RESOLVED);
+        open.setResolvedAt(LocalDateTime.now());
+        rollups.onTransition(resolution);
+
+        rollups.backfill();
+
+        List<MaintenanceTrendPoint> days = rollups.series(MaintenanceRollups.DAY, LocalDate.now().minusDays(2),
+                LocalDate.now());
+        assertThat(days).extracting(MaintenanceTrendPoint::getCreated).containsExactly(2L, 0L, 1L);
+        assertThat(days).extracting(MaintenanceTrendPoint::getResolved).containsExactly(0L, 1L, 1L);
+        assertThat(days.get(0).getCreatedByPriority()).containsEntry("HIGH", 1L).containsEntry("LOW", 1L);
+        assertThat(days.get(1).getResolvedByPriority()).containsOnlyKeys("HIGH");
+        assertThat(days.get(2).getResolvedByPriority()).containsOnlyKeys("LOW");
+    }
+
+    @Test
+    void aBackfillRepeatedAfterACrashDoesNotCountTwice() {
+        LocalDateTime twoDaysAgo = LocalDate.now().minusDays(2).atTime(9, 0);
+        mongoTemplate.insert(query("old", "HIGH", twoDaysAgo, LocalDate.now().minusDays(1).atTime(9, 0)),
+                MaintenanceArchive.COLLECTION);
+        mongoTemplate.insert(query("open", "LOW", twoDaysAgo, null), MaintenanceArchiver.HOT_COLLECTION);
+        MaintenanceRollups rollups = new MaintenanceRollups(mongoTemplate);
+        rollups.onCreated(query("fresh", "LOW", LocalDateTime.now(), null));
+
+        rollups.backfill();
+        // as if the first run had died after writing its buckets but before completing
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("backfill")),
+                new Update().unset("completedAt"), MaintenanceRollups.COLLECTION);
+        new MaintenanceRollups(mongoTemplate).backfill();
+
+        List<MaintenanceTrendPoint> days = rollups.series(MaintenanceRollups.DAY, LocalDate.now().minusDays(2),
+                LocalDate.now());
+        assertThat(days).extracting(MaintenanceTrendPoint::getCreated).containsExactly(2L, 0L, 1L);
+        assertThat(days).extracting(MaintenanceTrendPoint::getResolved).containsExactly(0L, 1L, 0L);
+        assertThat(days.get(1).getAvgResolutionHours()).isEqualTo(24.0);
+    }
+
+    private static MaintenanceQuery query(String id, String priority, LocalDateTime createdAt,
+            LocalDateTime resolvedAt) {
+        return MaintenanceQuery.builder()
+                .id(id)
+                .priority(priority)
+                .status(resolvedAt != null ? QueryStatus.RESOLVED : QueryStatus.PENDING)
+                .createdAt(createdAt)
+                .resolvedAt(resolvedAt)
+                .version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.rhs.backend.service;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rhs.backend.dto.request.BulkMaintenanceRequest;
+import com.rhs.backend.mapper.MaintenanceQueryMapper;
+import com.rhs.backend.model.MaintenanceQuery;
+import com.rhs.backend.model.enums.QueryStatus;
+import com.rhs.backend.repository.AdminRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * SLA escalation against an in-process Mongo server, with the default SLAs
+ * (URGENT 6h, HIGH 24h, MEDIUM 72h, LOW 168h).
+ */
+class MaintenanceSlaEscalatorTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MaintenanceBulkService bulkService;
+    private MaintenanceSlaEscalator escalator;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(new ConnectionString(
+                "mongodb://" + address.getHostString() + ":" + address.getPort()));
+        mongoTemplate = new MongoTemplate(client, "sla-test");
+        bulkService = new MaintenanceBulkService(mongoTemplate, mock(AdminRepository.class),
+                mock(MaintenanceQueryMapper.class), mock(MaintenanceAssignmentEngine.class),
+                mock(MaintenanceDuplicateDetector.class), mock(ApplicationEventPublisher.class));
+        escalator = new MaintenanceSlaEscalator(mongoTemplate, bulkService, mock(MaintenanceBacklogAssigner.class),
+                mock(MaintenanceAssignmentEngine.class), true, 500, 6, 24, 72, 168);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void escalatedQueryWaitsAFullSlaAtItsNewPriority() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.insert(pending("q-low", "LOW", now.minusHours(200)));
+        // escalated in the same run; moves the MEDIUM createdAt watermark past q-low's createdAt
+        mongoTemplate.insert(pending("q-medium", "MEDIUM", now.minusHours(80)));
+
+        escalator.scan();
+
+        assertThat(priorityOf("q-low")).isEqualTo("MEDIUM");
+        assertThat(priorityOf("q-medium")).isEqualTo("HIGH");
+
+        // q-low is long past MEDIUM's 72h when measured from createdAt, but was just escalated
+        escalator.scan();
+
+        assertThat(priorityOf("q-low")).isEqualTo("MEDIUM");
+        assertThat(priorityOf("q-medium")).isEqualTo("HIGH");
+
+        // 73h after its escalation it breaches MEDIUM, although it lies behind the createdAt watermark
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is("q-low")),
+                new Update().set("escalatedAt", now.minusHours(73)), MaintenanceQuery.class);
+
+        escalator.scan();
+
+        assertThat(priorityOf("q-low")).isEqualTo("HIGH");
+        assertThat(priorityOf("q-medium")).isEqualTo("HIGH");
+    }
+
+    @Test
+    void reprioritisedQueryStartsAFullSlaAtItsNewPriority() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.insert(pending("q-old", "LOW", now.minusHours(72)));
+        // escalated in place; moves the URGENT createdAt watermark past q-old's createdAt
+        mongoTemplate.insert(pending("q-urgent", "URGENT", now.minusHours(7)));
+        escalator.scan();
+
+        BulkMaintenanceRequest request = new BulkMaintenanceRequest();
+        request.setQueryIds(List.of("q-old"));
+        request.setPriority("URGENT");
+        bulkService.reprioritise(request);
+        escalator.scan();
+
+        // 72h old, but its URGENT SLA started when it was moved there
+        assertThat(escalatedAtOf("q-old")).isAfter(now.minusMinutes(1));
+
+        // 7h after the move it breaches URGENT, although it lies behind the createdAt watermark
+        LocalDateTime moved = now.minusHours(7);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is("q-old").and("escalatedAt").exists(true)),
+                new Update().set("escalatedAt", moved), MaintenanceQuery.class);
+
+        escalator.scan();
+
+        assertThat(priorityOf("q-old")).isEqualTo("URGENT");
+        assertThat(escalatedAtOf("q-old")).isAfter(moved.plusHours(1));
+    }
+
+    private static MaintenanceQuery pending(String id, String priority, LocalDateTime createdAt) {
+        return MaintenanceQuery.builder().id(id).status(QueryStatus.PENDING).priority(priority)
+                .createdAt(createdAt).version(0L).build();
+    }
+
+    private LocalDateTime escalatedAtOf(String id) {
+        return mongoTemplate.findById(id, MaintenanceQuery.class).getEscalatedAt();
+    }
+
+    private String priorityOf(String id) {
+        return mongoTemplate.findById(id, MaintenanceQuery.class).getPriority();
+    }
+}
@@ -0,0 +1,48 @@
+package com.rhs.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Near-duplicate lookup in MinHashLsh.
+ */
+class MinHashLshTest {
+
+    private static final double THRESHOLD = 0.5;
+
+    @Test
+    void findsRewordedReportOfTheSameFault() {
+        MinHashLsh index = new MinHashLsh();
+        index.put("leak", "building:A", "Water leaking from ceiling in corridor outside room 12");
+        index.put("light", "building:A", "Broken light bulb in bathroom");
+
+        MinHashLsh.Match match = index.best("building:A", "Ceiling leak in the corridor, water outside room 12",
+                THRESHOLD);
+
+        assertThat(match).isNotNull();
+        assertThat(match.id()).isEqualTo("leak");
+        assertThat(index.best("building:A", "Wifi not working on second floor", THRESHOLD)).isNull();
+    }
+
+    @Test
+    void onlyComparesWithinPartitionAndForgetsRemovedEntries() {
+        MinHashLsh index = new MinHashLsh();
+        index.put("leak", "building:A", "Water leaking from ceiling in corridor");
+
+        assertThat(index.best("building:B", "Water leaking from ceiling in corridor", THRESHOLD)).isNull();
+
+        index.remove("leak");
+        assertThat(index.best("building:A", "Water leaking from ceiling in corridor", THRESHOLD)).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void identicalTextsHaveIdenticalSignatures() {
+        int[] a = MinHashLsh.signature("Heater not working");
+        int[] b = MinHashLsh.signature("heater NOT working!");
+
+        assertThat(MinHashLsh.similarity(a, b)).isEqualTo(1.0);
+        assertThat(MinHashLsh.signature("  the a of ")).isNull();
+    }
+}
@@ -0,0 +1,149 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.model.ReportSchedule;
+import com.rhs.backend.model.Reports;
+import com.rhs.backend.model.enums.ReportJobStatus;
+import com.rhs.backend.repository.MaintenanceRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fingerprint reuse and eviction in ReportArtifactCache against a mocked
+ * MongoTemplate.
+ */
+class ReportArtifactCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MaintenanceRepository maintenanceRepository = mock(MaintenanceRepository.class);
+    private final ReportArtifactCache cache = new ReportArtifactCache(mongoTemplate, maintenanceRepository,
+            mock(MaintenanceCounters.class), true, 2, 24);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fingerprintFollowsTheDataVersion() {
+        when(maintenanceRepository.dataVersion(START, END)).thenReturn("12|2024-05-30T10:00");
+        String first = cache.fingerprint(ReportJobService.EXCEL, START, END);
+
+        assertThat(cache.fingerprint(ReportJobService.EXCEL, START, END)).isEqualTo(first);
+        assertThat(cache.fingerprint(ReportJobService.EXCEL, START, END.plusDays(1))).isNotEqualTo(first);
+
+        when(maintenanceRepository.dataVersion(START, END)).thenReturn("13|2024-05-31T08:00");
+        assertThat(cache.fingerprint(ReportJobService.EXCEL, START, END)).isNotEqualTo(first);
+    }
+
+    @Test
+    void servesAStoredReportAndMarksItUsed() throws Exception {
+        Reports stored = report(Files.createFile(directory.resolve("a.xlsx")), new Date());
+        when(mongoTemplate.findOne(any(Query.class), eq(Reports.class))).thenReturn(stored);
+
+        Optional<Reports> found = cache.find("fp", List.of(ReportJobStatus.COMPLETED));
+
+        assertThat(found).contains(stored);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Reports.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsKey("lastAccessedAt");
+    }
+
+    @Test
+    void evictsAStoredReportWhoseFileIsGone() {
+        Reports stored = report(directory.resolve("gone.xlsx"), new Date());
+        when(mongoTemplate.findOne(any(Query.class), eq(Reports.class))).thenReturn(stored);
+
+        assertThat(cache.find("fp", List.of(ReportJobStatus.COMPLETED))).isEmpty();
+
+        assertUnset(stored);
+    }
+
+    @Test
+    void sweepEvictsExpiredThenLeastRecentlyServedBeyondMaxEntries() throws Exception {
+        Reports expired = report(Files.createFile(directory.resolve("old.xlsx")),
+                new Date(System.currentTimeMillis() - 25 * 3_600_000L));
+        Reports leastRecent = report(Files.createFile(directory.resolve("cold.xlsx")), new Date());
+        when(mongoTemplate.find(any(Query.class), eq(Reports.class)))
+                .thenReturn(List.of(expired))
+                .thenReturn(List.of(leastRecent));
+        when(mongoTemplate.count(any(Query.class), eq(Reports.class))).thenReturn(3L);
+
+        cache.sweep();
+
+        assertUnset(expired);
+        assertUnset(leastRecent);
+        assertThat(Path.of(expired.getFilePath())).doesNotExist();
+        assertThat(Path.of(leastRecent.getFilePath())).doesNotExist();
+        ArgumentCaptor<Query> finds = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(finds.capture(), eq(Reports.class));
+        assertThat(finds.getAllValues().get(1).getLimit()).isEqualTo(1);
+        // every stored file, not only reusable ones: reuse may be disabled
+        assertThat(finds.getAllValues().get(0).getQueryObject()).containsKey("filePath")
+                .doesNotContainKey("fingerprint");
+    }
+
+    @Test
+    void sweepKeepsTheLatestReportOfEachSchedule() {
+        ObjectId latest = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(ReportSchedule.class))).thenReturn(List.of(
+                ReportSchedule.builder().id("s-1").lastReportId(latest.toHexString()).build()));
+        when(mongoTemplate.find(any(Query.class), eq(Reports.class))).thenReturn(List.of());
+        when(mongoTemplate.count(any(Query.class), eq(Reports.class))).thenReturn(3L);
+
+        cache.sweep();
+
+        ArgumentCaptor<Query> finds = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(finds.capture(), eq(Reports.class));
+        ArgumentCaptor<Query> count = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(count.capture(), eq(Reports.class));
+        for (Query query : List.of(finds.getAllValues().get(0), finds.getAllValues().get(1), count.getValue())) {
+            assertThat(query.getQueryObject().get("_id", Document.class).get("$nin", Collection.class))
+                    .containsExactly(latest);
+        }
+    }
+
+    private void assertUnset(Reports report) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(query.capture(), update.capture(), eq(Reports.class));
+        int call = query.getAllValues().stream().map(q -> q.getQueryObject().get("_id")).toList()
+                .indexOf(report.getId());
+        assertThat(call).isNotNegative();
+        assertThat(update.getAllValues().get(call).getUpdateObject().get("$unset", Document.class))
+                .containsOnlyKeys("fingerprint", "filePath");
+    }
+
+    private static Reports report(Path file, Date generatedAt) {
+        Reports report = new Reports();
+        report.setId(new ObjectId());
+        report.setStatus(ReportJobStatus.COMPLETED);
+        report.setFingerprint("fp");
+        report.setFilePath(file.toString());
+        report.setGeneratedAt(generatedAt);
+        return report;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rhs.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Atomic writes and temp file clean-up in ReportArtifactStore.
+ */
+class ReportArtifactStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void leavesNothingBehindWhenARenderFails() {
+        ReportArtifactStore store = new ReportArtifactStore(directory.toString());
+
+        assertThatThrownBy(() -> store.write("a.pdf", out -> {
+            out.write(1);
+            throw new IllegalStateException("render failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void purgeDeletesOnlyAbandonedTempFiles() throws Exception {
+        ReportArtifactStore store = new ReportArtifactStore(directory.toString());
+        FileTime monthsAgo = FileTime.from(Instant.now().minus(Duration.ofDays(90)));
+        Path oldReport = Files.setLastModifiedTime(Files.createFile(directory.resolve("old.pdf")), monthsAgo);
+        Path abandoned = Files.setLastModifiedTime(Files.createFile(directory.resolve("b.pdf.tmp")), monthsAgo);
+        Path rendering = Files.createFile(directory.resolve("c.pdf.tmp"));
+
+        store.purge();
+
+        // report retention belongs to ReportArtifactCache
+        assertThat(oldReport).exists();
+        assertThat(abandoned).doesNotExist();
+        assertThat(rendering).exists();
+    }
+}
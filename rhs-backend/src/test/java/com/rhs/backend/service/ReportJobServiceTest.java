@@ -0,0 +1,158 @@
+package com.rhs.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rhs.backend.dto.request.ReportJobRequest;
+import com.rhs.backend.dto.response.ReportJob;
+import com.rhs.backend.model.Reports;
+import com.rhs.backend.model.enums.ReportJobStatus;
+import com.rhs.backend.repository.ReportRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claiming queued jobs and failing stale ones in ReportJobService against a
+ * mocked MongoTemplate.
+ */
+class ReportJobServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ReportRepository reportRepository = mock(ReportRepository.class);
+    private final ReportArtifactCache reportArtifactCache = mock(ReportArtifactCache.class);
+    private final ReportArtifactStore reportArtifactStore = mock(ReportArtifactStore.class);
+    private final ReportJobService service = new ReportJobService(mock(ReportService.class), reportRepository,
+            mongoTemplate, reportArtifactCache, reportArtifactStore, 1, 5, 600_000);
+
+    private final ObjectId id = new ObjectId();
+
+    @BeforeEach
+    void stubJobRow() {
+        when(reportArtifactCache.find(any(), any())).thenReturn(Optional.empty());
+        when(reportRepository.save(any(Reports.class))).thenAnswer(invocation -> {
+            Reports job = invocation.getArgument(0);
+            job.setId(id);
+            return job;
+        });
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Reports.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+    }
+
+    @AfterEach
+    void stopPool() {
+        service.shutdown();
+    }
+
+    @Test
+    void rendersOnlyAJobItClaimedWhileQueued() throws Exception {
+        Path file = Files.createTempFile("report", ".xlsx");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Reports.class)))
+                .thenReturn(new Reports());
+        when(reportArtifactStore.write(anyString(), any())).thenReturn(file);
+
+        ReportJob job = service.submit(request());
+
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> claimUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5000)).findAndModify(claim.capture(), claimUpdate.capture(), eq(Reports.class));
+        assertThat(claim.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", id).append("status", ReportJobStatus.QUEUED));
+        assertThat(claimUpdate.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", ReportJobStatus.RUNNING);
+
+        ArgumentCaptor<Update> completed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5000)).updateFirst(any(Query.class), completed.capture(), eq(Reports.class));
+        assertThat(completed.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", ReportJobStatus.COMPLETED)
+                .containsEntry("filePath", file.toString());
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void leavesAJobAloneThatWasFailedAsStaleWhileQueued() throws Exception {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Reports.class))).thenReturn(null);
+
+        service.submit(request());
+
+        verify(mongoTemplate, timeout(5000)).findAndModify(any(Query.class), any(Update.class), eq(Reports.class));
+        verify(reportArtifactStore, after(300).never()).write(anyString(), any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Reports.class));
+    }
+
+    @Test
+    void sweepHeartbeatsHeldJobsAndFailsOnlyOthersGoneQuiet() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Reports.class)))
+                .thenReturn(new Reports());
+        when(reportArtifactStore.write(anyString(), any())).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IOException("stopped by test");
+        });
+        service.submit(request());
+        assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+
+        service.sweep();
+        release.countDown();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5000).times(2)).updateMulti(queries.capture(), updates.capture(),
+                eq(Reports.class));
+        List<Document> filters = queries.getAllValues().stream().map(Query::getQueryObject).toList();
+
+        // heartbeat for the job this instance is rendering
+        assertThat(filters.get(0).get("_id", Document.class).get("$in", List.class)).containsExactly(id);
+        assertThat(updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class))
+                .containsOnlyKeys("updatedAt");
+        // stale sweep: unfinished, quiet for stale-ms, and not held here
+        Document stale = filters.get(1);
+        assertThat(stale.get("status", Document.class).get("$in", List.class))
+                .containsExactly(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+        assertThat(stale.get("updatedAt", Document.class)).containsKey("$lt");
+        assertThat(stale.get("_id", Document.class).get("$nin", List.class)).containsExactly(id);
+        assertThat(updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", ReportJobStatus.FAILED);
+    }
+
+    @Test
+    void sweepWithNothingHeldFailsEveryQuietJob() {
+        service.sweep();
+
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(stale.capture(), any(Update.class), eq(Reports.class));
+        assertThat(stale.getValue().getQueryObject()).containsOnlyKeys("status", "updatedAt");
+    }
+
+    private static ReportJobRequest request() {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setFormat(ReportJobService.EXCEL);
+        return request;
+    }
+}
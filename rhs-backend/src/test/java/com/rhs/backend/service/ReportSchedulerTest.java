@@ -0,0 +1,127 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.request.ReportJobRequest;
+import com.rhs.backend.dto.response.ReportJob;
+import com.rhs.backend.model.ReportSchedule;
+import com.rhs.backend.repository.ReportScheduleRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Schedule parsing, the missed-run arithmetic behind catching up once, and
+ * claiming due schedules against a mocked MongoTemplate.
+ */
+class ReportSchedulerTest {
+
+    private static final long RETRY_MS = 300_000;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ReportJobService reportJobService = mock(ReportJobService.class);
+    private final ReportScheduler scheduler = new ReportScheduler(mock(ReportScheduleRepository.class),
+            reportJobService, mongoTemplate, RETRY_MS);
+
+    private final ReportSchedule due = ReportSchedule.builder()
+            .id("s-1").format(ReportJobService.PDF).cron(ReportScheduler.cronFor("daily")).rangeDays(7).enabled(true)
+            .nextRunAt(new Date(System.currentTimeMillis() - 60_000))
+            .build();
+
+    @Test
+    void presetsRunOffPeakAndCronPassesThrough() {
+        String daily = ReportScheduler.cronFor(" Daily ");
+        assertThat(ReportScheduler.nextRun(daily, LocalDateTime.of(2024, 5, 14, 9, 0)))
+                .isEqualTo(LocalDateTime.of(2024, 5, 15, 5, 0));
+        assertThat(ReportScheduler.nextRun(ReportScheduler.cronFor("weekly"), LocalDateTime.of(2024, 5, 14, 9, 0)))
+                .isEqualTo(LocalDateTime.of(2024, 5, 20, 5, 0));
+        assertThat(ReportScheduler.cronFor("0 30 4 * * *")).isEqualTo("0 30 4 * * *");
+        assertThatThrownBy(() -> ReportScheduler.cronFor("hourly-ish"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void countsFireTimesSkippedWhileDown() {
+        String daily = ReportScheduler.cronFor("daily");
+        LocalDateTime owed = LocalDateTime.of(2024, 5, 10, 5, 0);
+
+        // down from before the 10th's run until the 13th at 09:00: the 11th, 12th and 13th were skipped too
+        assertThat(ReportScheduler.missedBetween(daily, owed, LocalDateTime.of(2024, 5, 13, 9, 0))).isEqualTo(3);
+        // on time: nothing skipped
+        assertThat(ReportScheduler.missedBetween(daily, owed, owed.plusSeconds(30))).isZero();
+    }
+
+    @Test
+    void runsADueScheduleOnlyWhenItsClaimMatches() {
+        when(mongoTemplate.find(any(Query.class), eq(ReportSchedule.class))).thenReturn(List.of(due));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(ReportSchedule.class)))
+                .thenReturn(due);
+        when(reportJobService.submit(any(ReportJobRequest.class))).thenReturn(ReportJob.builder().id("r-1").build());
+
+        scheduler.runDue();
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> moved = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(claim.capture(), moved.capture(), eq(ReportSchedule.class));
+        // guarded on the fire time read, so only one instance moves it on
+        assertThat(claim.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", "s-1").append("nextRunAt", due.getNextRunAt()));
+        assertThat((Date) moved.getValue().getUpdateObject().get("$set", Document.class).get("nextRunAt"))
+                .isAfter(new Date());
+
+        ArgumentCaptor<ReportJobRequest> request = ArgumentCaptor.forClass(ReportJobRequest.class);
+        verify(reportJobService).submit(request.capture());
+        assertThat(request.getValue().getFormat()).isEqualTo(ReportJobService.PDF);
+        assertThat(request.getValue().getStart())
+                .isEqualTo(LocalDateTime.now().toLocalDate().minusDays(7).atStartOfDay());
+        ArgumentCaptor<Update> recorded = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), recorded.capture(), eq(ReportSchedule.class));
+        assertThat(recorded.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("lastReportId", "r-1");
+    }
+
+    @Test
+    void leavesAScheduleAnotherInstanceClaimed() {
+        when(mongoTemplate.find(any(Query.class), eq(ReportSchedule.class))).thenReturn(List.of(due));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(ReportSchedule.class)))
+                .thenReturn(null);
+
+        scheduler.runDue();
+
+        verify(reportJobService, never()).submit(any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ReportSchedule.class));
+    }
+
+    @Test
+    void retriesShortlyWhenTheReportQueueIsFull() {
+        when(mongoTemplate.find(any(Query.class), eq(ReportSchedule.class))).thenReturn(List.of(due));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(ReportSchedule.class)))
+                .thenReturn(due);
+        when(reportJobService.submit(any(ReportJobRequest.class)))
+                .thenThrow(new IllegalStateException("Too many reports are being generated, try again shortly"));
+        long before = System.currentTimeMillis();
+
+        scheduler.runDue();
+
+        ArgumentCaptor<Update> retry = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), retry.capture(), eq(ReportSchedule.class));
+        Document set = retry.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(((Date) set.get("nextRunAt")).getTime())
+                .isBetween(before + RETRY_MS, System.currentTimeMillis() + RETRY_MS);
+        assertThat(set).containsEntry("lastError", "Too many reports are being generated, try again shortly");
+    }
+}
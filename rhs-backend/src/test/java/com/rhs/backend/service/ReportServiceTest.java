@@ -0,0 +1,51 @@
+package com.rhs.backend.service;
+
+import com.rhs.backend.dto.response.MaintenanceStats;
+import com.rhs.backend.repository.MaintenanceRepository;
+import com.rhs.backend.repository.ReportRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Failure reporting in ReportService's PDF rendering.
+ */
+class ReportServiceTest {
+
+    private final MaintenanceCounters maintenanceCounters = mock(MaintenanceCounters.class);
+
+    private final ReportService service = new ReportService(mock(MaintenanceRepository.class),
+            mock(ReportRepository.class), maintenanceCounters, mock(ReportArtifactCache.class),
+            mock(ResidentStatsEngine.class), mock(ReportArtifactStore.class));
+
+    @Test
+    void streamFailureSurfacesAsUncheckedIOExceptionWithItsCause() {
+        MaintenanceStats stats = mock(MaintenanceStats.class);
+        when(stats.toDisplayMap()).thenReturn(Map.of("Total Queries", 0L));
+        when(maintenanceCounters.snapshot()).thenReturn(stats);
+        IOException diskFull = new IOException("No space left on device");
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw diskFull;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw diskFull;
+            }
+        };
+
+        assertThatThrownBy(() -> service.renderPdfReport(null, null, broken, rows -> { }))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("No space left on device")
+                .hasCause(diskFull);
+    }
+}
@@ -3,21 +3,37 @@ package com.rhs.Maintenance.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.validation.Valid;
+
+import com.rhs.Maintenance.dto.BulkMaintenanceRequest;
+import com.rhs.Maintenance.dto.BulkOperationResult;
+import com.rhs.Maintenance.dto.CursorPage;
 import com.rhs.Maintenance.dto.MaintenanceQueryDto;
 import com.rhs.Maintenance.model.MaintenanceQuery;
 import com.rhs.Maintenance.model.enums.PriorityLevel;
 import com.rhs.Maintenance.model.enums.Status;
+import com.rhs.Maintenance.service.MaintenanceBulkService;
+import com.rhs.Maintenance.service.MaintenanceHotspots;
+import com.rhs.Maintenance.service.MaintenanceLiveFeed;
+import com.rhs.Maintenance.service.MaintenanceRollups;
 import com.rhs.Maintenance.service.MaintenanceService;
 import com.rhs.Maintenance.service.ReportService;
 
 import java.io.FileNotFoundException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/maintenance")
@@ -26,32 +42,96 @@ public class MaintenanceController {
 
     private final MaintenanceService maintenanceService;
     private final ReportService reportService;
+    private final MaintenanceBulkService bulkService;
+    private final MaintenanceLiveFeed liveFeed;
 
     @PostMapping
     public ResponseEntity<MaintenanceQuery> create(@RequestBody MaintenanceQueryDto dto) {
         return ResponseEntity.ok(maintenanceService.createQuery(dto));
     }
 
+    /**
+     * Lists query summaries ({@link com.rhs.Maintenance.dto.MaintenanceQuerySummary}).
+     * Passing limit and/or cursor returns a keyset page ({@link CursorPage});
+     * without them the full list is returned as before.
+     */
     @GetMapping
-    public ResponseEntity<List<MaintenanceQuery>> list(
+    public ResponseEntity<?> list(
             @RequestParam(required = false) PriorityLevel priority,
             @RequestParam(required = false) Status status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
+        if (cursor != null || limit != null) {
+            try {
+                return ResponseEntity.ok(maintenanceService.searchQueriesPage(priority, status, start, end, cursor, limit));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
         return ResponseEntity.ok(maintenanceService.searchQueries(priority, status, start, end));
     }
 
+    /**
+     * Live feed of creates, status changes, assignments and resolutions as Server-Sent Events,
+     * optionally limited to one room and/or assignee. Use instead of polling GET /api/maintenance.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) ObjectId roomId,
+                             @RequestParam(required = false) ObjectId assignedTo) {
+        return liveFeed.subscribe(roomId, assignedTo);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MaintenanceQuery> get(@PathVariable ObjectId id) {
+        return ResponseEntity.ok(maintenanceService.getQuery(id));
+    }
+
+    /**
+     * Pass the version from the last read to reject the update (409) if the
+     * query changed in the meantime. Assigning a resolved/rejected query is also a 409.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<MaintenanceQuery> updateStatus(
+    public ResponseEntity<?> updateStatus(
             @PathVariable ObjectId id,
             @RequestParam Status status,
-            @RequestParam(required = false) ObjectId adminId
+            @RequestParam(required = false) ObjectId adminId,
+            @RequestParam(required = false) Long version
     ) {
-        if (adminId != null)
-            return ResponseEntity.ok(maintenanceService.assignTo(id, adminId));
-        else
-            return ResponseEntity.ok(maintenanceService.updateStatus(id, status));
+        try {
+            if (adminId != null)
+                return ResponseEntity.ok(maintenanceService.assignTo(id, adminId, version));
+            else
+                return ResponseEntity.ok(maintenanceService.updateStatus(id, status, version));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/bulk/assign")
+    public ResponseEntity<?> bulkAssign(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return bulk(bulkService::assign, request);
+    }
+
+    @PostMapping("/bulk/status")
+    public ResponseEntity<?> bulkStatus(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return bulk(bulkService::changeStatus, request);
+    }
+
+    @PostMapping("/bulk/priority")
+    public ResponseEntity<?> bulkPriority(@Valid @RequestBody BulkMaintenanceRequest request) {
+        return bulk(bulkService::reprioritise, request);
+    }
+
+    // items that cannot be changed are reported per id, they never fail the whole batch
+    private ResponseEntity<?> bulk(Function<BulkMaintenanceRequest, BulkOperationResult> operation, BulkMaintenanceRequest request) {
+        try {
+            return ResponseEntity.ok(operation.apply(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/stats")
@@ -59,6 +139,51 @@ public class MaintenanceController {
         return ResponseEntity.ok(maintenanceService.getStats());
     }
 
+    /**
+     * Time-to-assign / time-to-resolve p50, p90 and p99 per priority over a rolling window (24h, 7d, ... up to 30d).
+     */
+    @GetMapping("/stats/latency")
+    public ResponseEntity<?> latencyStats(@RequestParam(defaultValue = "7d") String window) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getLatencyStats(window));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Rooms or issue types with the most requests in a month (default: this month), e.g. ?by=room&limit=20.
+     */
+    @GetMapping("/hotspots")
+    public ResponseEntity<?> hotspots(@RequestParam(defaultValue = MaintenanceHotspots.ROOM) String by,
+                                      @RequestParam(required = false) String month,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getHotspots(by, month != null ? YearMonth.parse(month) : YearMonth.now(), limit));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "month must look like 2024-05"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Created vs resolved per day or week with a per-priority breakdown, for the last `days` days (default 90) or from..to.
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<?> trends(@RequestParam(defaultValue = MaintenanceRollups.DAY) String granularity,
+                                    @RequestParam(defaultValue = "90") int days,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(days - 1L);
+        try {
+            return ResponseEntity.ok(maintenanceService.getTrends(granularity, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/report")
     public ResponseEntity<String> generateReport() throws FileNotFoundException {
         return ResponseEntity.ok(reportService.generateReport());
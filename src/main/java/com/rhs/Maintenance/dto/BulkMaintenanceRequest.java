@@ -0,0 +1,30 @@
+package com.rhs.Maintenance.dto;
+
+import lombok.*;
+
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+
+/**
+ * Body of the /api/maintenance/bulk endpoints; adminId, status or priority depending on the endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMaintenanceRequest {
+public static final int MAX_BATCH = 1000;
+
+@NotEmpty
+@Size(max = MAX_BATCH)
+private List<String> queryIds;
+
+private String adminId;
+private Status status;
+private PriorityLevel priority;
+}
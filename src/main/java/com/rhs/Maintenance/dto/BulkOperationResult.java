@@ -0,0 +1,32 @@
+package com.rhs.Maintenance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+
+/**
+ * Per-query outcomes of a bulk maintenance operation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOperationResult {
+public enum Outcome { UPDATED, NOT_FOUND, CONFLICT, FAILED }
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class Item {
+private String id;
+private Outcome outcome;
+private String message;
+}
+
+private String action;
+private int requested;
+private int updated;
+private int failed;
+private List<Item> items;
+}
@@ -0,0 +1,27 @@
+package com.rhs.Maintenance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+
+/**
+ * One page of a keyset-paginated listing plus the opaque cursor for the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+public static final int DEFAULT_LIMIT = 50;
+public static final int MAX_LIMIT = 200;
+
+private List<T> items;
+private String nextCursor; // null on the last page
+private boolean hasMore;
+
+public static int clampLimit(Integer limit) {
+if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+return Math.min(limit, MAX_LIMIT);
+}
+}
@@ -0,0 +1,22 @@
+package com.rhs.Maintenance.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * A maintenance query change pushed over /api/maintenance/events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceEvent {
+// RESYNC: the connection fell behind and events were dropped, reload the list
+public enum Type { CREATED, STATUS_CHANGED, ASSIGNED, RESOLVED, PRIORITY_CHANGED, RESYNC }
+
+private Type type;
+private MaintenanceQuerySummary query;
+private LocalDateTime occurredAt;
+}
@@ -0,0 +1,29 @@
+package com.rhs.Maintenance.dto;
+
+import lombok.*;
+import org.bson.types.ObjectId;
+
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * List view of a maintenance query. Used as a Mongo DTO projection, so only
+ * these fields are read from the collection; GET /api/maintenance/{id} returns the full document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceQuerySummary {
+private ObjectId id;
+private ObjectId roomId;
+private String issueType;
+private PriorityLevel priority;
+private Status status;
+private LocalDateTime reportedAt;
+private ObjectId assignedTo;
+private ObjectId possibleDuplicateOf;
+}
@@ -0,0 +1,35 @@
+package com.rhs.Maintenance.model;
+
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Audit trail entry; bulk operations write one per batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "maintenance_audit")
+public class MaintenanceAuditEntry {
+@Id
+private ObjectId id;
+
+
+private String action;
+private Map<String, Object> parameters;
+private List<ObjectId> queryIds;
+private int requested;
+private int updated;
+private int failed;
+@Indexed
+private LocalDateTime performedAt;
+}
@@ -3,6 +3,9 @@ package com.rhs.Maintenance.model;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.rhs.Maintenance.model.enums.PriorityLevel;
@@ -18,6 +21,14 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Document(collection = "maintenance_queries")
+@CompoundIndexes({
+@CompoundIndex(name = "status_reportedAt", def = "{'status': 1, 'reportedAt': -1}"),
+@CompoundIndex(name = "priority_reportedAt", def = "{'priority': 1, 'reportedAt': -1}"),
+@CompoundIndex(name = "roomId_status", def = "{'roomId': 1, 'status': 1}"),
+@CompoundIndex(name = "reportedAt_id", def = "{'reportedAt': -1, '_id': -1}"),
+@CompoundIndex(name = "status_priority_reportedAt", def = "{'status': 1, 'priority': 1, 'reportedAt': 1}"), // SLA escalation scans
+@CompoundIndex(name = "status_priority_escalatedAt", def = "{'status': 1, 'priority': 1, 'escalatedAt': 1}")
+})
 public class MaintenanceQuery {
 @Id
 private ObjectId id;
@@ -32,7 +43,12 @@ private Status status;
 private List<String> photos = new ArrayList<>();
 private LocalDateTime reportedAt;
 private LocalDateTime resolvedAt;
+private LocalDateTime escalatedAt; // SLA restart: escalated, reprioritised or moved back to PENDING
+private ObjectId possibleDuplicateOf; // open request this one probably repeats, flagged on create
 private ObjectId assignedTo;
+private LocalDateTime assignedAt; // first assignment, for time-to-assign stats
 private String notes;
+@Version
+private Long version; // bumped on every transition, null on older documents
 
 }
\ No newline at end of file
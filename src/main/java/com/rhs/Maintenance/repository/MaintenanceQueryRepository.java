@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 
-public interface MaintenanceQueryRepository extends MongoRepository<MaintenanceQuery, ObjectId> {
+public interface MaintenanceQueryRepository extends MongoRepository<MaintenanceQuery, ObjectId>, MaintenanceQueryRepositoryCustom {
 List<MaintenanceQuery> findByStatus(Status status);
 List<MaintenanceQuery> findByPriority(PriorityLevel priority);
 List<MaintenanceQuery> findByAssignedTo(ObjectId assignedTo);
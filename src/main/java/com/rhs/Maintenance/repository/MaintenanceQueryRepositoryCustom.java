@@ -0,0 +1,30 @@
+package com.rhs.Maintenance.repository;
+
+import com.rhs.Maintenance.dto.CursorPage;
+import com.rhs.Maintenance.dto.MaintenanceQuerySummary;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+
+public interface MaintenanceQueryRepositoryCustom {
+List<MaintenanceQuery> search(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end);
+CursorPage<MaintenanceQuery> searchPage(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end, String cursor, int limit);
+List<MaintenanceQuerySummary> searchSummaries(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end);
+CursorPage<MaintenanceQuerySummary> searchSummaryPage(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end, String cursor, int limit);
+
+/**
+ * Single findAndModify that applies update (plus a version bump) only if the status is one of
+ * expectedStatuses and the version equals expectedVersion; null skips a check.
+ * Returns the document as it was before the update. Throws NoSuchElementException when the
+ * query does not exist and OptimisticLockingFailureException when a check fails.
+ */
+MaintenanceQuery transition(ObjectId id, Collection<Status> expectedStatuses, Long expectedVersion, Update update);
+}
@@ -0,0 +1,148 @@
+package com.rhs.Maintenance.repository;
+
+import com.rhs.Maintenance.dto.CursorPage;
+import com.rhs.Maintenance.dto.MaintenanceQuerySummary;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Criteria based search so filters run in MongoDB against the compound indexes
+ * declared on MaintenanceQuery instead of in a Java stream over findAll().
+ */
+@RequiredArgsConstructor
+public class MaintenanceQueryRepositoryImpl implements MaintenanceQueryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<MaintenanceQuery> search(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end) {
+        Query query = new Query(searchCriteria(priority, status, start, end))
+                .with(Sort.by(Sort.Direction.DESC, "reportedAt"));
+        return mongoTemplate.find(query, MaintenanceQuery.class);
+    }
+
+    /**
+     * DTO projection: Spring Data restricts the Mongo field list to the properties
+     * of MaintenanceQuerySummary, so photos/description are never read or mapped.
+     */
+    @Override
+    public List<MaintenanceQuerySummary> searchSummaries(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end) {
+        Query query = new Query(searchCriteria(priority, status, start, end))
+                .with(Sort.by(Sort.Direction.DESC, "reportedAt"));
+        return mongoTemplate.query(MaintenanceQuery.class).as(MaintenanceQuerySummary.class).matching(query).all();
+    }
+
+    /**
+     * Keyset pagination on (reportedAt, _id) newest first. The cursor encodes the
+     * last row of the previous page, so each page is an index seek rather than a skip.
+     */
+    @Override
+    public CursorPage<MaintenanceQuery> searchPage(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end,
+                                                   String cursor, int limit) {
+        return page(priority, status, start, end, cursor, limit, MaintenanceQuery.class,
+                last -> encodeCursor(last.getReportedAt(), last.getId()));
+    }
+
+    @Override
+    public CursorPage<MaintenanceQuerySummary> searchSummaryPage(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end,
+                                                                 String cursor, int limit) {
+        return page(priority, status, start, end, cursor, limit, MaintenanceQuerySummary.class,
+                last -> encodeCursor(last.getReportedAt(), last.getId()));
+    }
+
+    @Override
+    public MaintenanceQuery transition(ObjectId id, Collection<Status> expectedStatuses, Long expectedVersion, Update update) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedStatuses != null && !expectedStatuses.isEmpty()) criteria.and("status").in(expectedStatuses);
+        if (expectedVersion != null) criteria.and("version").is(expectedVersion);
+        update.inc("version", 1);
+
+        MaintenanceQuery before = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), MaintenanceQuery.class);
+        if (before != null) return before;
+
+        // no match: read once to report why
+        MaintenanceQuery current = mongoTemplate.findById(id, MaintenanceQuery.class);
+        if (current == null) throw new NoSuchElementException("Maintenance query not found: " + id);
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion()))
+            throw new OptimisticLockingFailureException("Maintenance query " + id + " was modified concurrently (expected version "
+                    + expectedVersion + ", found " + current.getVersion() + ")");
+        throw new OptimisticLockingFailureException("Maintenance query " + id + " is " + current.getStatus()
+                + ", expected one of " + expectedStatuses);
+    }
+
+    private <T> CursorPage<T> page(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end,
+                                   String cursor, int limit, Class<T> type, Function<T, String> cursorOf) {
+        Criteria criteria = searchCriteria(priority, status, start, end);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, seekCriteria(cursor));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "reportedAt", "id"))
+                .limit(limit + 1); // one extra row tells us if there is a next page
+        List<T> rows = mongoTemplate.query(MaintenanceQuery.class).as(type).matching(query).all();
+
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private Criteria searchCriteria(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end) {
+        Criteria criteria = new Criteria();
+        if (status != null) criteria.and("status").is(status);
+        if (priority != null) criteria.and("priority").is(priority);
+        // date range only applies when both ends are given (same as the old stream filter)
+        if (start != null && end != null) criteria.and("reportedAt").gte(start).lte(end);
+        return criteria;
+    }
+
+    // rows without a reportedAt sort after every dated row: a dated cursor is followed by them, an undated one seeks on _id alone
+    static Criteria seekCriteria(String cursor) {
+        String reportedAt;
+        ObjectId id;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            reportedAt = parts[0];
+            if (!reportedAt.isEmpty()) LocalDateTime.parse(reportedAt);
+            id = new ObjectId(parts[1]);
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (reportedAt.isEmpty()) return Criteria.where("reportedAt").is(null).and("id").lt(id);
+        LocalDateTime since = LocalDateTime.parse(reportedAt);
+        return new Criteria().orOperator(
+                Criteria.where("reportedAt").lt(since),
+                Criteria.where("reportedAt").is(since).and("id").lt(id),
+                Criteria.where("reportedAt").is(null));
+    }
+
+    // "reportedAt|id", with an empty reportedAt for a row that has none
+    static String encodeCursor(LocalDateTime reportedAt, ObjectId id) {
+        String raw = (reportedAt != null ? reportedAt.toString() : "") + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
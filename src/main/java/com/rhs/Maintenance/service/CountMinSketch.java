@@ -0,0 +1,103 @@
+package com.rhs.Maintenance.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Count-Min sketch over string keys. Estimates never undercount; with the
+ * default 4 x 2048 table they overcount by at most 0.14% of the total with
+ * 98% confidence. Uses conservative update: an add only raises the counters
+ * that are at the current minimum, which keeps overcounting well below the
+ * bound in practice.
+ *
+ * Not thread safe; MaintenanceHotspots guards access.
+ */
+final class CountMinSketch {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 2048;
+
+    private final int[][] counts;
+    private long total;
+
+    CountMinSketch() {
+        this.counts = new int[DEPTH][WIDTH];
+    }
+
+    /**
+     * Add occurrences of key and return its new estimate.
+     */
+    long add(String key, int occurrences) {
+        int[] buckets = buckets(key);
+        long estimate = estimate(buckets) + occurrences;
+        for (int row = 0; row < DEPTH; row++) {
+            if (counts[row][buckets[row]] < estimate) {
+                counts[row][buckets[row]] = (int) Math.min(estimate, Integer.MAX_VALUE);
+            }
+        }
+        total += occurrences;
+        return estimate;
+    }
+
+    long estimate(String key) {
+        return estimate(buckets(key));
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * The counters key maps to, one per row, as flat indexes row * WIDTH + bucket.
+     * A plain (not conservative) add of n raises each of them by n, which is
+     * what lets independently counted sketches be summed.
+     */
+    static int[] cells(String key) {
+        int[] cells = buckets(key);
+        for (int row = 0; row < DEPTH; row++) {
+            cells[row] += row * WIDTH;
+        }
+        return cells;
+    }
+
+    /**
+     * A sketch from counters stored by flat index; missing counters are zero.
+     */
+    static CountMinSketch fromCells(long total, Map<Integer, Long> cells) {
+        CountMinSketch sketch = new CountMinSketch();
+        sketch.total = total;
+        cells.forEach((cell, count) ->
+                sketch.counts[cell / WIDTH][cell % WIDTH] = (int) Math.min(count, Integer.MAX_VALUE));
+        return sketch;
+    }
+
+    private long estimate(int[] buckets) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counts[row][buckets[row]]);
+        }
+        return min;
+    }
+
+    /**
+     * One bucket per row from two 32-bit halves of a 64-bit FNV-1a hash
+     * (Kirsch-Mitzenmacher double hashing).
+     */
+    private static int[] buckets(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int[] buckets = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            buckets[row] = Math.floorMod(h1 + row * h2, WIDTH);
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rhs.Maintenance.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The keys seen most often in a stream: a {@link CountMinSketch} estimates
+ * every key's count and a min-heap keeps the current top candidates, so
+ * reading the top n never scans anything larger than the heap.
+ *
+ * Not thread safe; MaintenanceHotspots guards access.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private final PriorityQueue<Map.Entry<String, Long>> heap =
+            new PriorityQueue<>(Map.Entry.comparingByValue());
+
+    HeavyHitters(int capacity) {
+        this(capacity, new CountMinSketch());
+    }
+
+    HeavyHitters(int capacity, CountMinSketch sketch) {
+        this.capacity = capacity;
+        this.sketch = sketch;
+    }
+
+    void add(String key) {
+        long estimate = sketch.add(key, 1);
+        if (candidates.containsKey(key)) {
+            heap.removeIf(entry -> entry.getKey().equals(key));
+        } else if (candidates.size() >= capacity) {
+            if (heap.peek().getValue() >= estimate) {
+                return;
+            }
+            candidates.remove(heap.poll().getKey());
+        }
+        candidates.put(key, estimate);
+        heap.add(Map.entry(key, estimate));
+    }
+
+    /**
+     * Up to n keys with their estimated counts, highest first.
+     */
+    List<Map.Entry<String, Long>> top(int n) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(heap);
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return top.size() > n ? new ArrayList<>(top.subList(0, n)) : top;
+    }
+
+    long total() {
+        return sketch.total();
+    }
+
+    CountMinSketch sketch() {
+        return sketch;
+    }
+
+    Map<String, Long> candidates() {
+        return new LinkedHashMap<>(candidates);
+    }
+
+    /**
+     * Restore a snapshot: the sketch plus the candidates it was taken with.
+     */
+    static HeavyHitters restore(int capacity, CountMinSketch sketch, Map<String, Long> candidates) {
+        HeavyHitters hitters = new HeavyHitters(capacity, sketch);
+        candidates.forEach((key, count) -> {
+            hitters.candidates.put(key, count);
+            hitters.heap.add(Map.entry(key, count));
+        });
+        return hitters;
+    }
+}
@@ -0,0 +1,221 @@
+package com.rhs.Maintenance.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.rhs.Maintenance.dto.BulkMaintenanceRequest;
+import com.rhs.Maintenance.dto.BulkOperationResult;
+import com.rhs.Maintenance.dto.BulkOperationResult.Item;
+import com.rhs.Maintenance.dto.BulkOperationResult.Outcome;
+import com.rhs.Maintenance.dto.MaintenanceEvent;
+import com.rhs.Maintenance.model.MaintenanceAuditEntry;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk assign / status / priority changes. One read of the current states, one unordered
+ * BulkOperations write (each updateOne guarded by the version it was read at) and, only when
+ * something did not match, one more read to see which. Counters, audit and the notification
+ * are written once per batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class MaintenanceBulkService {
+    private static final Set<Status> OPEN_STATUSES = EnumSet.of(Status.PENDING, Status.IN_PROGRESS);
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceCounters counters;
+    private final MaintenanceLiveFeed liveFeed;
+    private final MaintenanceLatencyTracker latency;
+    private final MaintenanceDuplicateDetector duplicates;
+    private final MaintenanceRollups rollups;
+
+    public BulkOperationResult assign(BulkMaintenanceRequest request) {
+        if (request.getAdminId() == null || !ObjectId.isValid(request.getAdminId()))
+            throw new IllegalArgumentException("A valid adminId is required");
+        ObjectId adminId = new ObjectId(request.getAdminId());
+        LocalDateTime now = LocalDateTime.now();
+        return execute("ASSIGN", Map.of("adminId", adminId), MaintenanceEvent.Type.ASSIGNED, request.getQueryIds(),
+                q -> OPEN_STATUSES.contains(q.getStatus()),
+                new Update().set("assignedTo", adminId).min("assignedAt", now),
+                q -> {
+                    q.setAssignedTo(adminId);
+                    if (q.getAssignedAt() == null) q.setAssignedAt(now);
+                });
+    }
+
+    public BulkOperationResult changeStatus(BulkMaintenanceRequest request) {
+        Status status = request.getStatus();
+        if (status == null) throw new IllegalArgumentException("status is required");
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("status", status);
+        if (status == Status.RESOLVED) update.set("resolvedAt", now);
+        if (status == Status.PENDING) update.set("escalatedAt", now); // back to PENDING restarts the SLA
+        // resolving needs an open query; any other target just has to be a change
+        Predicate<MaintenanceQuery> allowed = status == Status.RESOLVED
+                ? q -> OPEN_STATUSES.contains(q.getStatus())
+                : q -> q.getStatus() != status;
+        MaintenanceEvent.Type eventType = status == Status.RESOLVED ? MaintenanceEvent.Type.RESOLVED : MaintenanceEvent.Type.STATUS_CHANGED;
+        return execute("STATUS", Map.of("status", status), eventType, request.getQueryIds(), allowed, update,
+                q -> {
+                    q.setStatus(status);
+                    if (status == Status.RESOLVED) q.setResolvedAt(now);
+                    if (status == Status.PENDING) q.setEscalatedAt(now);
+                });
+    }
+
+    // the SLA restarts at the new priority, as after an escalation
+    public BulkOperationResult reprioritise(BulkMaintenanceRequest request) {
+        PriorityLevel priority = request.getPriority();
+        if (priority == null) throw new IllegalArgumentException("priority is required");
+        LocalDateTime now = LocalDateTime.now();
+        return execute("PRIORITY", Map.of("priority", priority), MaintenanceEvent.Type.PRIORITY_CHANGED, request.getQueryIds(),
+                q -> OPEN_STATUSES.contains(q.getStatus()) && q.getPriority() != priority,
+                new Update().set("priority", priority).set("escalatedAt", now),
+                q -> {
+                    q.setPriority(priority);
+                    q.setEscalatedAt(now);
+                });
+    }
+
+    /**
+     * SLA escalation of PENDING queries: raise to the given priority (URGENT stays URGENT) and stamp escalatedAt.
+     */
+    public BulkOperationResult escalate(List<String> queryIds, PriorityLevel priority) {
+        LocalDateTime now = LocalDateTime.now();
+        return execute("ESCALATE", Map.of("priority", priority), MaintenanceEvent.Type.PRIORITY_CHANGED, queryIds,
+                q -> q.getStatus() == Status.PENDING,
+                new Update().set("priority", priority).set("escalatedAt", now),
+                q -> {
+                    q.setPriority(priority);
+                    q.setEscalatedAt(now);
+                });
+    }
+
+    private BulkOperationResult execute(String action, Map<String, Object> parameters, MaintenanceEvent.Type eventType, List<String> queryIds,
+                                        Predicate<MaintenanceQuery> allowed, Update update, Consumer<MaintenanceQuery> change) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(queryIds));
+        if (ids.size() > BulkMaintenanceRequest.MAX_BATCH)
+            throw new IllegalArgumentException("At most " + BulkMaintenanceRequest.MAX_BATCH + " queries per batch");
+        update.inc("version", 1);
+
+        Map<String, Item> outcomes = new LinkedHashMap<>();
+        List<ObjectId> objectIds = new ArrayList<>();
+        for (String id : ids) {
+            if (ObjectId.isValid(id)) objectIds.add(new ObjectId(id));
+            else outcomes.put(id, new Item(id, Outcome.NOT_FOUND, "Invalid id: " + id));
+        }
+
+        Map<ObjectId, MaintenanceQuery> current = loadStates(objectIds);
+        List<MaintenanceQuery> candidates = new ArrayList<>();
+        for (ObjectId id : objectIds) {
+            MaintenanceQuery q = current.get(id);
+            if (q == null) outcomes.put(id.toHexString(), new Item(id.toHexString(), Outcome.NOT_FOUND, "Maintenance query not found: " + id));
+            else if (!allowed.test(q)) outcomes.put(id.toHexString(), new Item(id.toHexString(), Outcome.CONFLICT, "Not applicable while " + q.getStatus()));
+            else candidates.add(q);
+        }
+
+        if (!candidates.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaintenanceQuery.class);
+            for (MaintenanceQuery q : candidates)
+                bulk.updateOne(new Query(Criteria.where("id").is(q.getId()).and("version").is(q.getVersion())), update);
+
+            Set<Integer> failedIndexes = new HashSet<>();
+            BulkWriteResult result;
+            try {
+                result = bulk.execute();
+            } catch (BulkOperationException e) {
+                result = e.getResult();
+                for (BulkWriteError error : e.getErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    String id = candidates.get(error.getIndex()).getId().toHexString();
+                    outcomes.put(id, new Item(id, Outcome.FAILED, error.getMessage()));
+                }
+            }
+
+            List<MaintenanceQuery> attempted = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) if (!failedIndexes.contains(i)) attempted.add(candidates.get(i));
+            Set<ObjectId> lost = result.getMatchedCount() < attempted.size() ? lostRaces(attempted) : Set.of();
+
+            List<MaintenanceCounters.Transition> transitions = new ArrayList<>();
+            for (MaintenanceQuery q : attempted) {
+                String id = q.getId().toHexString();
+                if (lost.contains(q.getId())) {
+                    outcomes.put(id, new Item(id, Outcome.CONFLICT, "Modified concurrently"));
+                    continue;
+                }
+                MaintenanceCounters.Transition transition = MaintenanceCounters.Transition.of(q);
+                change.accept(q);
+                transitions.add(transition);
+                outcomes.put(id, new Item(id, Outcome.UPDATED, null));
+            }
+            counters.onTransitions(transitions);
+            latency.onTransitions(transitions);
+            duplicates.onTransitions(transitions);
+            rollups.onTransitions(transitions);
+            transitions.forEach(t -> liveFeed.publish(eventType, t.query()));
+        }
+
+        List<Item> items = ids.stream().map(outcomes::get).collect(Collectors.toList());
+        List<ObjectId> updatedIds = items.stream()
+                .filter(i -> i.getOutcome() == Outcome.UPDATED)
+                .map(i -> new ObjectId(i.getId()))
+                .collect(Collectors.toList());
+        BulkOperationResult result = BulkOperationResult.builder()
+                .action(action)
+                .requested(ids.size())
+                .updated(updatedIds.size())
+                .failed(ids.size() - updatedIds.size())
+                .items(items)
+                .build();
+
+        mongoTemplate.insert(MaintenanceAuditEntry.builder()
+                .action("BULK_" + action)
+                .parameters(parameters)
+                .queryIds(updatedIds)
+                .requested(result.getRequested())
+                .updated(result.getUpdated())
+                .failed(result.getFailed())
+                .performedAt(LocalDateTime.now())
+                .build());
+        if (!updatedIds.isEmpty())
+            System.out.println("[NOTIFY] Bulk " + action + " " + parameters + " applied to " + updatedIds.size() + " maintenance requests");
+        return result;
+    }
+
+    private Map<ObjectId, MaintenanceQuery> loadStates(List<ObjectId> ids) {
+        Query query = new Query(Criteria.where("id").in(ids));
+        // guard/counter fields, what the live feed summary shows, and the description a reopened request is re-indexed by
+        query.fields().include("id", "status", "priority", "assignedAt", "resolvedAt", "reportedAt", "version", "roomId", "issueType", "description", "assignedTo");
+        return mongoTemplate.find(query, MaintenanceQuery.class).stream()
+                .collect(Collectors.toMap(MaintenanceQuery::getId, q -> q));
+    }
+
+    // guarded updates that did not match: someone else bumped the version between our read and write
+    private Set<ObjectId> lostRaces(List<MaintenanceQuery> attempted) {
+        Map<ObjectId, MaintenanceQuery> after = loadStates(attempted.stream().map(MaintenanceQuery::getId).collect(Collectors.toList()));
+        Set<ObjectId> lost = new HashSet<>();
+        for (MaintenanceQuery q : attempted) {
+            MaintenanceQuery now = after.get(q.getId());
+            long expected = q.getVersion() == null ? 1L : q.getVersion() + 1;
+            if (now == null || !Objects.equals(now.getVersion(), expected)) lost.add(q.getId());
+        }
+        return lost;
+    }
+}
@@ -0,0 +1,200 @@
+package com.rhs.Maintenance.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Status/priority counters in one "maintenance_counters" document, updated with
+ * $inc on every lifecycle write and mirrored in memory so getStats() is O(1).
+ * The mirror is re-read periodically and a reconciliation job recounts from
+ * maintenance_queries to repair drift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceCounters {
+
+    private static final String COLLECTION = "maintenance_counters";
+    private static final String COUNTERS_ID = "maintenance";
+    private static final String STATUS = "status.";
+    private static final String PRIORITY = "priority.";
+    private static final String RESOLVED_COUNT = "resolution.count";
+    private static final String RESOLVED_HOURS = "resolution.hours";
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceStatsEngine statsEngine;
+
+    private volatile ConcurrentHashMap<String, Double> mirror = new ConcurrentHashMap<>();
+
+    public void onCreated(MaintenanceQuery query) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        delta.put(STATUS + name(query.getStatus()), 1.0);
+        delta.put(PRIORITY + name(query.getPriority()), 1.0);
+        apply(delta);
+    }
+
+    // previousResolvedAt makes sure a query's resolution time is only counted once
+    public void onTransition(Transition transition) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        addTransition(delta, transition);
+        apply(delta);
+    }
+
+    // a whole bulk batch becomes one $inc
+    public void onTransitions(List<Transition> transitions) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        transitions.forEach(t -> addTransition(delta, t));
+        delta.values().removeIf(v -> v == 0);
+        apply(delta);
+    }
+
+    /**
+     * State before a change plus the query holding the new state. Take it with of(query), then change the query.
+     */
+    public record Transition(Status previousStatus, PriorityLevel previousPriority, LocalDateTime previousAssignedAt,
+                             LocalDateTime previousResolvedAt, MaintenanceQuery query) {
+        public static Transition of(MaintenanceQuery query) {
+            return new Transition(query.getStatus(), query.getPriority(), query.getAssignedAt(), query.getResolvedAt(), query);
+        }
+    }
+
+    private static void addTransition(Map<String, Double> delta, Transition t) {
+        MaintenanceQuery query = t.query();
+        if (t.previousStatus() != query.getStatus()) {
+            delta.merge(STATUS + name(t.previousStatus()), -1.0, Double::sum);
+            delta.merge(STATUS + name(query.getStatus()), 1.0, Double::sum);
+        }
+        if (t.previousPriority() != query.getPriority()) {
+            delta.merge(PRIORITY + name(t.previousPriority()), -1.0, Double::sum);
+            delta.merge(PRIORITY + name(query.getPriority()), 1.0, Double::sum);
+        }
+        if (t.previousResolvedAt() == null && query.getResolvedAt() != null && query.getReportedAt() != null) {
+            delta.merge(RESOLVED_COUNT, 1.0, Double::sum);
+            delta.merge(RESOLVED_HOURS, Duration.between(query.getReportedAt(), query.getResolvedAt()).toMillis() / 3_600_000.0, Double::sum);
+        }
+    }
+
+    /**
+     * Same shape as the old getStats() map, served from memory.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Double> current = mirror;
+        double resolvedCount = current.getOrDefault(RESOLVED_COUNT, 0.0);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("statusCounts", section(current, STATUS));
+        stats.put("priorityCounts", section(current, PRIORITY));
+        stats.put("avgResolutionTimeHrs", resolvedCount == 0 ? 0.0 : current.getOrDefault(RESOLVED_HOURS, 0.0) / resolvedCount);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Document counters = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        if (counters == null) reconcile();
+        else mirror = flatten(counters);
+    }
+
+    @Scheduled(fixedDelayString = "${maintenance.counters.refresh-ms:5000}")
+    public void refresh() {
+        Document counters = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        if (counters != null) mirror = flatten(counters);
+    }
+
+    /**
+     * Recount from source and overwrite the counters document.
+     * Increments landing during the recount may be lost until the next run.
+     */
+    @Scheduled(cron = "${maintenance.counters.reconcile-cron:0 15 3 * * *}")
+    @SuppressWarnings("unchecked")
+    public void reconcile() {
+        Map<String, Object> source = statsEngine.compute();
+        long resolvedCount = ((Number) source.get("resolvedCount")).longValue();
+        double avgHours = ((Number) source.get("avgResolutionTimeHrs")).doubleValue();
+
+        ConcurrentHashMap<String, Double> expected = new ConcurrentHashMap<>();
+        ((Map<String, Long>) source.get("statusCounts")).forEach((k, v) -> expected.put(STATUS + k, v.doubleValue()));
+        ((Map<String, Long>) source.get("priorityCounts")).forEach((k, v) -> expected.put(PRIORITY + k, v.doubleValue()));
+        expected.put(RESOLVED_COUNT, (double) resolvedCount);
+        expected.put(RESOLVED_HOURS, avgHours * resolvedCount);
+
+        Document current = mongoTemplate.findById(COUNTERS_ID, Document.class, COLLECTION);
+        Map<String, Double> stored = current != null ? flatten(current) : Map.of();
+        if (drifted(stored, expected)) {
+            log.warn("Maintenance counters drifted, repairing. stored={} recomputed={}", stored, expected);
+        }
+
+        Document counters = new Document("_id", COUNTERS_ID);
+        expected.forEach((path, value) -> {
+            String[] parts = path.split("\\.", 2);
+            ((Document) counters.computeIfAbsent(parts[0], k -> new Document())).put(parts[1], value);
+        });
+        mongoTemplate.save(counters, COLLECTION);
+        mirror = expected;
+    }
+
+    private void apply(Map<String, Double> delta) {
+        if (delta.isEmpty()) return;
+        Update update = new Update();
+        delta.forEach(update::inc);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(COUNTERS_ID)), update, COLLECTION);
+        delta.forEach((path, value) -> mirror.merge(path, value, Double::sum));
+    }
+
+    private static boolean drifted(Map<String, Double> stored, Map<String, Double> expected) {
+        Map<String, Double> all = new HashMap<>(stored);
+        expected.forEach(all::putIfAbsent);
+        for (String path : all.keySet()) {
+            double a = stored.getOrDefault(path, 0.0);
+            double b = expected.getOrDefault(path, 0.0);
+            // hours are floating point sums, ignore rounding noise
+            if (Math.abs(a - b) > 1e-6 * Math.max(1.0, Math.abs(b))) return true;
+        }
+        return false;
+    }
+
+    private static Map<String, Long> section(Map<String, Double> counters, String prefix) {
+        Map<String, Long> section = new HashMap<>();
+        counters.forEach((path, value) -> {
+            if (path.startsWith(prefix)) section.put(path.substring(prefix.length()), value.longValue());
+        });
+        return section;
+    }
+
+    private static ConcurrentHashMap<String, Double> flatten(Document counters) {
+        ConcurrentHashMap<String, Double> flat = new ConcurrentHashMap<>();
+        counters.forEach((group, value) -> {
+            if (value instanceof Document) {
+                ((Document) value).forEach((name, n) -> {
+                    if (n instanceof Number) flat.put(group + "." + name, ((Number) n).doubleValue());
+                });
+            }
+        });
+        return flat;
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,97 @@
+package com.rhs.Maintenance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.Status;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Flags new requests that look like an open request for the same room (the same leak reported
+ * five times). Open requests sit in a MinHashLsh index over issueType + description, partitioned
+ * by room since legacy requests carry no building; createQuery checks it before saving and sets
+ * possibleDuplicateOf, without touching the collection. Nothing is merged automatically.
+ * Requests leave the index when they close and return when reopened; the index is rebuilt from
+ * open requests on startup.
+ */
+@Component
+@Slf4j
+public class MaintenanceDuplicateDetector {
+    private static final Set<Status> OPEN_STATUSES = EnumSet.of(Status.PENDING, Status.IN_PROGRESS);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final double threshold;
+    private final MinHashLsh index = new MinHashLsh();
+
+    public MaintenanceDuplicateDetector(MongoTemplate mongoTemplate,
+                                        @Value("${maintenance.duplicates.enabled:true}") boolean enabled,
+                                        @Value("${maintenance.duplicates.threshold:0.5}") double threshold) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    // called before the insert, so the flag is saved with the request
+    public void flag(MaintenanceQuery query) {
+        if (!enabled) return;
+        MinHashLsh.Match match;
+        synchronized (this) {
+            match = index.best(partition(query), text(query), threshold);
+        }
+        if (match != null) {
+            query.setPossibleDuplicateOf(new ObjectId(match.id()));
+            System.out.println("[NOTIFY] Maintenance request for room " + query.getRoomId() + " looks like open request " + match.id());
+        }
+    }
+
+    public synchronized void onCreated(MaintenanceQuery query) {
+        if (enabled && OPEN_STATUSES.contains(query.getStatus())) index.put(query.getId().toHexString(), partition(query), text(query));
+    }
+
+    public void onTransition(MaintenanceCounters.Transition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    public synchronized void onTransitions(List<MaintenanceCounters.Transition> transitions) {
+        for (MaintenanceCounters.Transition t : transitions) {
+            MaintenanceQuery query = t.query();
+            if (!OPEN_STATUSES.contains(query.getStatus())) index.remove(query.getId().toHexString());
+            else if (enabled && !OPEN_STATUSES.contains(t.previousStatus())) index.put(query.getId().toHexString(), partition(query), text(query));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) return;
+        Query query = new Query(Criteria.where("status").in(OPEN_STATUSES));
+        query.fields().include("id", "roomId", "issueType", "description", "status");
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            stream.forEach(this::onCreated);
+        }
+        synchronized (this) {
+            log.info("Duplicate index rebuilt with {} open requests", index.size());
+        }
+    }
+
+    private static String partition(MaintenanceQuery query) {
+        return "room:" + query.getRoomId();
+    }
+
+    private static String text(MaintenanceQuery query) {
+        return Objects.toString(query.getIssueType(), "") + " " + Objects.toString(query.getDescription(), "");
+    }
+}
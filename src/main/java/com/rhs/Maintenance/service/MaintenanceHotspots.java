@@ -0,0 +1,236 @@
+package com.rhs.Maintenance.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rooms and issue types with the most maintenance requests per calendar month, as HeavyHitters
+ * (Count-Min sketch + top-k heap) fed by createQuery, so "top 20 rooms this month" sorts at most
+ * 100 in-memory candidates. Each instance periodically $inc's what it counted since its last
+ * snapshot into the month's shared document in "maintenance_hotspots" (Count-Min counters by flat
+ * index, total, candidate keys), so the document sums every instance, then reloads the current
+ * month from it plus its own unsnapshotted counts. Past months are served from their document.
+ * On startup the current month is restored from its document, or replayed and inserted when there
+ * is none; counts not yet snapshotted when an instance stops are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceHotspots {
+
+    static final String COLLECTION = "maintenance_hotspots";
+    static final int CANDIDATES = 100;
+    public static final String ROOM = "room";
+    public static final String ISSUE_TYPE = "issueType";
+    private static final List<String> DIMENSIONS = List.of(ROOM, ISSUE_TYPE);
+
+    private final MongoTemplate mongoTemplate;
+    // the shared document as last read, plus what this instance counted since
+    private final Map<String, HeavyHitters> live = new HashMap<>();
+    // what this instance counted since its last snapshot, by key then value
+    private final Map<String, Map<String, Long>> pending = new HashMap<>();
+
+    public void onCreated(MaintenanceQuery query) {
+        YearMonth month = YearMonth.from(query.getReportedAt() != null ? query.getReportedAt() : LocalDateTime.now());
+        synchronized (this) {
+            add(ROOM, month, query.getRoomId() != null ? query.getRoomId().toHexString() : null);
+            add(ISSUE_TYPE, month, query.getIssueType());
+        }
+    }
+
+    public Map<String, Object> top(String dimension, YearMonth month, int limit) {
+        if (!DIMENSIONS.contains(dimension)) throw new IllegalArgumentException("by must be one of " + DIMENSIONS);
+        if (limit < 1 || limit > CANDIDATES) throw new IllegalArgumentException("limit must be between 1 and " + CANDIDATES);
+        String key = key(dimension, month);
+        List<Map.Entry<String, Long>> top = null;
+        long total = 0;
+        synchronized (this) {
+            HeavyHitters hitters = live.get(key);
+            if (hitters != null) {
+                top = hitters.top(limit);
+                total = hitters.total();
+            }
+        }
+        if (top == null) {
+            Document snapshot = mongoTemplate.findById(key, Document.class, COLLECTION);
+            HeavyHitters restored = snapshot != null ? restore(snapshot) : new HeavyHitters(CANDIDATES);
+            top = restored.top(limit);
+            total = restored.total();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dimension", dimension);
+        result.put("month", month.toString());
+        result.put("total", total);
+        result.put("hotspots", top.stream().map(e -> Map.of("key", e.getKey(), "count", e.getValue())).collect(Collectors.toList()));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${maintenance.hotspots.snapshot-ms:300000}")
+    public void snapshot() {
+        YearMonth current = YearMonth.now();
+        Map<String, Map<String, Long>> flushing;
+        synchronized (this) {
+            flushing = new HashMap<>(pending);
+            pending.clear();
+            live.keySet().removeIf(key -> month(key).isBefore(current));
+        }
+        Map<String, Document> shared = new HashMap<>();
+        flushing.forEach((key, counts) -> {
+            try {
+                shared.put(key, merge(key, counts));
+            } catch (RuntimeException e) {
+                log.warn("Hotspot snapshot of {} failed, retrying with the next one: {}", key, e.getMessage());
+                synchronized (this) {
+                    counts.forEach((value, count) -> pending.computeIfAbsent(key, k -> new HashMap<>()).merge(value, count, Long::sum));
+                }
+            }
+        });
+        for (String dimension : DIMENSIONS) {
+            String key = key(dimension, current);
+            if (!shared.containsKey(key) && !flushing.containsKey(key)) {
+                Document document = mongoTemplate.findById(key, Document.class, COLLECTION);
+                if (document != null) shared.put(key, document);
+            }
+        }
+        synchronized (this) {
+            shared.forEach((key, document) -> {
+                if (month(key).equals(current)) live.put(key, withPending(key, restore(document)));
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        YearMonth month = YearMonth.now();
+        Map<String, Document> shared = new HashMap<>();
+        for (String dimension : DIMENSIONS) {
+            Document document = mongoTemplate.findById(key(dimension, month), Document.class, COLLECTION);
+            if (document != null) shared.put(key(dimension, month), document);
+        }
+        if (shared.size() < DIMENSIONS.size()) shared.putAll(seed(month, shared.keySet()));
+        synchronized (this) {
+            shared.forEach((key, document) -> live.put(key, withPending(key, restore(document))));
+        }
+    }
+
+    /** Replay the month for keys without a document and insert one each, keeping one another instance inserted first. */
+    private Map<String, Document> seed(YearMonth month, Set<String> present) {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        Query query = new Query(Criteria.where("reportedAt").gte(month.atDay(1).atStartOfDay()).lt(month.plusMonths(1).atDay(1).atStartOfDay()));
+        query.fields().include("roomId", "issueType", "reportedAt");
+        long replayed = 0;
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            for (MaintenanceQuery q : (Iterable<MaintenanceQuery>) stream::iterator) {
+                count(counts, key(ROOM, month), q.getRoomId() != null ? q.getRoomId().toHexString() : null);
+                count(counts, key(ISSUE_TYPE, month), q.getIssueType());
+                replayed++;
+            }
+        }
+        Map<String, Document> seeded = new HashMap<>();
+        for (String dimension : DIMENSIONS) {
+            String key = key(dimension, month);
+            if (present.contains(key)) continue;
+            Document document = document(key, counts.getOrDefault(key, Map.of()));
+            try {
+                mongoTemplate.insert(document, COLLECTION);
+                seeded.put(key, document);
+            } catch (DuplicateKeyException e) {
+                seeded.put(key, mongoTemplate.findById(key, Document.class, COLLECTION));
+            }
+        }
+        log.info("Hotspots for {} seeded from {} replayed requests", month, replayed);
+        return seeded;
+    }
+
+    /** $inc counts into the shared document and return it; candidates are trimmed to the best 100 past 200. */
+    private Document merge(String key, Map<String, Long> counts) {
+        Document delta = document(key, counts);
+        Update update = new Update().inc("total", delta.getLong("total"));
+        delta.get("counts", Document.class).forEach((cell, count) -> update.inc("counts." + cell, (Number) count));
+        update.addToSet("candidates").each(delta.getList("candidates", String.class).toArray());
+        Document merged = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(key)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        List<String> candidates = merged.getList("candidates", String.class);
+        if (candidates.size() > 2 * CANDIDATES) {
+            CountMinSketch sketch = sketch(merged);
+            List<String> dropped = candidates.stream().sorted(Comparator.comparingLong(sketch::estimate).reversed())
+                    .skip(CANDIDATES).collect(Collectors.toList());
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(key)), new Update().pullAll("candidates", dropped.toArray()), COLLECTION);
+            candidates = new ArrayList<>(candidates);
+            candidates.removeAll(dropped);
+            merged.put("candidates", candidates);
+        }
+        return merged;
+    }
+
+    private void add(String dimension, YearMonth month, String value) {
+        if (value == null || value.isBlank()) return;
+        String key = key(dimension, month);
+        live.computeIfAbsent(key, k -> new HeavyHitters(CANDIDATES)).add(value);
+        pending.computeIfAbsent(key, k -> new HashMap<>()).merge(value, 1L, Long::sum);
+    }
+
+    private HeavyHitters withPending(String key, HeavyHitters hitters) {
+        pending.getOrDefault(key, Map.of()).forEach((value, count) -> {
+            for (long i = 0; i < count; i++) hitters.add(value);
+        });
+        return hitters;
+    }
+
+    private static void count(Map<String, Map<String, Long>> counts, String key, String value) {
+        if (value != null && !value.isBlank()) counts.computeIfAbsent(key, k -> new HashMap<>()).merge(value, 1L, Long::sum);
+    }
+
+    /** Exact counts as a shared document: total, Count-Min counters by flat index, counted keys as candidates. */
+    private static Document document(String key, Map<String, Long> counts) {
+        Map<String, Object> cells = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            for (int cell : CountMinSketch.cells(entry.getKey())) cells.merge(String.valueOf(cell), entry.getValue(), (a, b) -> (Long) a + (Long) b);
+            total += entry.getValue();
+        }
+        return new Document("_id", key).append("total", total).append("counts", new Document(cells))
+                .append("candidates", new ArrayList<>(counts.keySet()));
+    }
+
+    private static CountMinSketch sketch(Document document) {
+        Map<Integer, Long> cells = new HashMap<>();
+        document.get("counts", Document.class).forEach((cell, count) -> cells.put(Integer.parseInt(cell), ((Number) count).longValue()));
+        return CountMinSketch.fromCells(((Number) document.get("total")).longValue(), cells);
+    }
+
+    private static HeavyHitters restore(Document document) {
+        CountMinSketch sketch = sketch(document);
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        document.getList("candidates", String.class).stream().sorted(Comparator.comparingLong(sketch::estimate).reversed())
+                .limit(CANDIDATES).forEach(candidate -> candidates.put(candidate, sketch.estimate(candidate)));
+        return HeavyHitters.restore(CANDIDATES, sketch, candidates);
+    }
+
+    private static String key(String dimension, YearMonth month) {
+        return dimension + "|" + month;
+    }
+
+    private static YearMonth month(String key) {
+        return YearMonth.parse(key.substring(key.indexOf('|') + 1));
+    }
+}
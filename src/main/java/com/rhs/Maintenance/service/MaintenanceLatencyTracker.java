@@ -0,0 +1,171 @@
+package com.rhs.Maintenance.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-assign and time-to-resolve histograms per priority, in a ring of hourly slices
+ * covering the last 30 days. Transitions add their sample to the slice of the hour they
+ * happened in, so a report for any window merges at most 720 slices and never reads the
+ * collection. Seeded on startup from queries assigned or resolved within the last 30 days.
+ * Legacy queries carry no building, so there is no per-building split here.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceLatencyTracker {
+
+    static final int RETAINED_HOURS = 30 * 24;
+    private static final String ASSIGN = "assign|";
+    private static final String RESOLVE = "resolve|";
+    private static final String OVERALL = "all";
+    private static final String PRIORITY = "priority:";
+
+    private final MongoTemplate mongoTemplate;
+    private final Slice[] slices = new Slice[RETAINED_HOURS];
+
+    public void onTransition(MaintenanceCounters.Transition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    // only the first assignment counts towards time-to-assign
+    public void onTransitions(List<MaintenanceCounters.Transition> transitions) {
+        for (MaintenanceCounters.Transition t : transitions) {
+            MaintenanceQuery query = t.query();
+            if (t.previousAssignedAt() == null && query.getAssignedAt() != null) record(ASSIGN, query, query.getAssignedAt());
+            if (t.previousResolvedAt() == null && query.getResolvedAt() != null) record(RESOLVE, query, query.getResolvedAt());
+        }
+    }
+
+    /**
+     * p50/p90/p99 in fractional hours over the last window, e.g. "24h" or "7d" (at most 30d).
+     */
+    public Map<String, Object> report(String window) {
+        int hours = windowHours(window);
+        LocalDateTime now = LocalDateTime.now();
+        long current = hour(now);
+
+        Map<String, LatencyHistogram> merged = new HashMap<>();
+        synchronized (this) {
+            for (long hour = current - hours + 1; hour <= current; hour++) {
+                Slice slice = slices[slot(hour)];
+                if (slice != null && slice.hour == hour)
+                    slice.histograms.forEach((key, h) -> merged.computeIfAbsent(key, k -> new LatencyHistogram()).add(h));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("window", window);
+        report.put("from", now.truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1));
+        report.put("to", now);
+        report.put("timeToAssign", distribution(merged, ASSIGN));
+        report.put("timeToResolve", distribution(merged, RESOLVE));
+        return report;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime since = LocalDateTime.now().minusHours(RETAINED_HOURS);
+        long assigned = seed(ASSIGN, "assignedAt", since, MaintenanceQuery::getAssignedAt);
+        long resolved = seed(RESOLVE, "resolvedAt", since, MaintenanceQuery::getResolvedAt);
+        log.info("Latency histograms seeded with {} assignments and {} resolutions", assigned, resolved);
+    }
+
+    private long seed(String metric, String field, LocalDateTime since, Function<MaintenanceQuery, LocalDateTime> timestamp) {
+        Query query = new Query(Criteria.where(field).gte(since));
+        query.fields().include("reportedAt", field, "priority");
+        long[] seen = {0};
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            stream.forEach(q -> { record(metric, q, timestamp.apply(q)); seen[0]++; });
+        }
+        return seen[0];
+    }
+
+    private void record(String metric, MaintenanceQuery query, LocalDateTime at) {
+        if (query.getReportedAt() == null || at == null) return;
+        long seconds = Duration.between(query.getReportedAt(), at).getSeconds();
+        long current = hour(LocalDateTime.now());
+        long hour = Math.min(hour(at), current);
+        if (hour <= current - RETAINED_HOURS) return;
+        String priority = query.getPriority() != null ? query.getPriority().name() : "UNKNOWN";
+
+        synchronized (this) {
+            int slot = slot(hour);
+            Slice slice = slices[slot];
+            if (slice == null || slice.hour < hour) slices[slot] = slice = new Slice(hour);
+            else if (slice.hour > hour) return;
+            slice.histogram(metric + OVERALL).record(seconds);
+            slice.histogram(metric + PRIORITY + priority).record(seconds);
+        }
+    }
+
+    private static Map<String, Object> distribution(Map<String, LatencyHistogram> merged, String metric) {
+        Map<String, Object> byPriority = new TreeMap<>();
+        merged.forEach((key, h) -> {
+            if (key.startsWith(metric + PRIORITY)) byPriority.put(key.substring((metric + PRIORITY).length()), percentiles(h));
+        });
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        distribution.put("overall", percentiles(merged.getOrDefault(metric + OVERALL, new LatencyHistogram())));
+        distribution.put("byPriority", byPriority);
+        return distribution;
+    }
+
+    private static Map<String, Object> percentiles(LatencyHistogram h) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("count", h.count());
+        p.put("p50Hours", h.percentile(50) / 3600.0);
+        p.put("p90Hours", h.percentile(90) / 3600.0);
+        p.put("p99Hours", h.percentile(99) / 3600.0);
+        p.put("maxHours", h.max() / 3600.0);
+        return p;
+    }
+
+    static int windowHours(String window) {
+        int hours = -1;
+        if (window != null && window.length() >= 2) {
+            char unit = Character.toLowerCase(window.charAt(window.length() - 1));
+            try {
+                int amount = Integer.parseInt(window.substring(0, window.length() - 1));
+                hours = unit == 'h' ? amount : unit == 'd' ? amount * 24 : -1;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        if (hours < 1 || hours > RETAINED_HOURS) throw new IllegalArgumentException("Window must be between 1h and 30d, e.g. 24h or 7d");
+        return hours;
+    }
+
+    private static long hour(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) RETAINED_HOURS);
+    }
+
+    private static final class Slice {
+        private final long hour;
+        private final Map<String, LatencyHistogram> histograms = new HashMap<>();
+
+        Slice(long hour) { this.hour = hour; }
+
+        LatencyHistogram histogram(String key) {
+            return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+    }
+}
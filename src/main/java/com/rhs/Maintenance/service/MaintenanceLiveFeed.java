@@ -0,0 +1,140 @@
+package com.rhs.Maintenance.service;
+
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.rhs.Maintenance.dto.MaintenanceEvent;
+import com.rhs.Maintenance.dto.MaintenanceQuerySummary;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE feed of maintenance changes, published by the services after each write.
+ * Every connection gets a bounded buffer drained by a small shared pool; a connection
+ * that falls behind has its backlog replaced by one RESYNC event.
+ */
+@Component
+public class MaintenanceLiveFeed {
+    private static final Object HEARTBEAT = new Object();
+
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+
+    public MaintenanceLiveFeed(@Value("${maintenance.live-feed.buffer-size:256}") int bufferSize,
+                               @Value("${maintenance.live-feed.timeout-ms:1800000}") long timeoutMs,
+                               @Value("${maintenance.live-feed.dispatch-threads:4}") int dispatchThreads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, r -> {
+            Thread t = new Thread(r, "maintenance-live-feed");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // null filters match everything
+    public SseEmitter subscribe(ObjectId roomId, ObjectId assignedTo) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, roomId, assignedTo);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public void publish(MaintenanceEvent.Type type, MaintenanceQuery query) {
+        if (subscribers.isEmpty()) return;
+        MaintenanceEvent event = MaintenanceEvent.builder()
+                .type(type)
+                .query(MaintenanceQuerySummary.builder()
+                        .id(query.getId())
+                        .roomId(query.getRoomId())
+                        .issueType(query.getIssueType())
+                        .priority(query.getPriority())
+                        .status(query.getStatus())
+                        .reportedAt(query.getReportedAt())
+                        .assignedTo(query.getAssignedTo())
+                        .build())
+                .occurredAt(LocalDateTime.now())
+                .build();
+        for (Subscriber s : subscribers) if (s.accepts(query)) s.offer(event);
+    }
+
+    // keeps idle connections alive through proxies and detects closed clients
+    @Scheduled(fixedDelayString = "${maintenance.live-feed.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final ObjectId roomId;
+        private final ObjectId assignedTo;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, ObjectId roomId, ObjectId assignedTo) {
+            this.emitter = emitter;
+            this.roomId = roomId;
+            this.assignedTo = assignedTo;
+        }
+
+        boolean accepts(MaintenanceQuery query) {
+            return (roomId == null || roomId.equals(query.getRoomId()))
+                    && (assignedTo == null || assignedTo.equals(query.getAssignedTo()));
+        }
+
+        void offer(MaintenanceEvent event) {
+            if (!buffer.offer(event)) {
+                // slow consumer: drop the backlog, the client reloads on RESYNC
+                buffer.clear();
+                buffer.offer(MaintenanceEvent.builder().type(MaintenanceEvent.Type.RESYNC).occurredAt(LocalDateTime.now()).build());
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            if (buffer.isEmpty() && buffer.offer(HEARTBEAT)) schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) dispatcher.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                Object item;
+                while ((item = buffer.poll()) != null) {
+                    if (item == HEARTBEAT) emitter.send(SseEmitter.event().comment("heartbeat"));
+                    else emitter.send(SseEmitter.event().name(((MaintenanceEvent) item).getType().name()).data(item));
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an offer may have slipped in after the last poll
+            if (!buffer.isEmpty()) schedule();
+        }
+    }
+}
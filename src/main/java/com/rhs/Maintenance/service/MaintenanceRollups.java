@@ -0,0 +1,211 @@
+package com.rhs.Maintenance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Daily/weekly rollups in "maintenance_rollups": one document per bucket (_id "day:2024-05-14",
+ * "week:2024-05-13", weeks start Monday) with created/resolved counts, resolution hours and a
+ * per-priority breakdown. Every create and resolve $inc's its day and week bucket in one bulk write,
+ * so a 90 day trend reads 90 small documents. History is backfilled once by a streaming pass over
+ * reportedAt/resolvedAt that counts everything before live counting began (kept in the "backfill"
+ * document), so backfill and live increments never overlap. The backfill $set's its totals into each
+ * bucket's "history" fields instead of $inc'ing, so a run repeated after a crash cannot count twice;
+ * reads add history to the live counts.
+ */
+@Component
+@Slf4j
+public class MaintenanceRollups {
+
+    static final String COLLECTION = "maintenance_rollups";
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    static final int MAX_BUCKETS = 400;
+    private static final String BACKFILL_ID = "backfill";
+    private static final String HISTORY = "history";
+    private static final int WRITE_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final LocalDateTime liveSince = LocalDateTime.now(); // nothing is counted live before this bean exists
+
+    public MaintenanceRollups(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void onCreated(MaintenanceQuery query) {
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        addCreated(deltas, query);
+        apply(deltas);
+    }
+
+    public void onTransition(MaintenanceCounters.Transition transition) {
+        onTransitions(List.of(transition));
+    }
+
+    public void onTransitions(List<MaintenanceCounters.Transition> transitions) {
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        for (MaintenanceCounters.Transition t : transitions) {
+            if (t.previousResolvedAt() == null && t.query().getResolvedAt() != null) addResolved(deltas, t.query());
+        }
+        apply(deltas);
+    }
+
+    /**
+     * One point per day/week from..to inclusive, empty buckets as zeros.
+     */
+    public List<Map<String, Object>> series(String granularity, LocalDate from, LocalDate to) {
+        if (!DAY.equals(granularity) && !WEEK.equals(granularity)) throw new IllegalArgumentException("granularity must be day or week");
+        LocalDate first = bucketStart(granularity, from);
+        LocalDate last = bucketStart(granularity, to);
+        long buckets = (DAY.equals(granularity) ? ChronoUnit.DAYS : ChronoUnit.WEEKS).between(first, last) + 1;
+        if (buckets < 1 || buckets > MAX_BUCKETS) throw new IllegalArgumentException("Range must cover between 1 and " + MAX_BUCKETS + " buckets");
+
+        Query query = new Query(Criteria.where("_id").gte(id(granularity, first)).lte(id(granularity, last))).with(Sort.by("_id"));
+        Map<String, Document> found = new HashMap<>();
+        mongoTemplate.find(query, Document.class, COLLECTION).forEach(d -> found.put(d.getString("_id"), d));
+
+        List<Map<String, Object>> points = new ArrayList<>();
+        for (LocalDate start = first; !start.isAfter(last); start = DAY.equals(granularity) ? start.plusDays(1) : start.plusWeeks(1)) {
+            Document bucket = found.getOrDefault(id(granularity, start), new Document());
+            long samples = (long) number(bucket, "resolvedSamples");
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("start", start);
+            point.put("created", (long) number(bucket, "created"));
+            point.put("resolved", (long) number(bucket, "resolved"));
+            point.put("avgResolutionHours", samples == 0 ? 0.0 : number(bucket, "resolutionHours") / samples);
+            point.put("createdByPriority", section(bucket, "createdByPriority"));
+            point.put("resolvedByPriority", section(bucket, "resolvedByPriority"));
+            points.add(point);
+        }
+        return points;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        // the first instance to start records when live counting began
+        Document marker = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(BACKFILL_ID)),
+                new Update().setOnInsert("liveSince", liveSince.toString()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        if (marker == null || marker.get("completedAt") != null) return;
+        // claim the run; a claim older than an hour is assumed dead
+        Document claimed = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(BACKFILL_ID).and("completedAt").is(null)
+                        .orOperator(Criteria.where("runningSince").is(null),
+                                Criteria.where("runningSince").lt(LocalDateTime.now().minusHours(1).toString()))),
+                new Update().set("runningSince", LocalDateTime.now().toString()), Document.class, COLLECTION);
+        if (claimed == null) return;
+
+        LocalDateTime cutoff = LocalDateTime.parse(marker.getString("liveSince"));
+        Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+        Query query = new Query(Criteria.where("reportedAt").lt(cutoff));
+        query.fields().include("reportedAt", "resolvedAt", "priority");
+        long scanned = 0;
+        try (Stream<MaintenanceQuery> stream = mongoTemplate.stream(query, MaintenanceQuery.class)) {
+            for (MaintenanceQuery q : (Iterable<MaintenanceQuery>) stream::iterator) {
+                addCreated(deltas, q);
+                if (q.getResolvedAt() != null && q.getResolvedAt().isBefore(cutoff)) addResolved(deltas, q);
+                scanned++;
+            }
+        }
+        apply(deltas, true);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(BACKFILL_ID)),
+                new Update().set("completedAt", LocalDateTime.now().toString()).unset("runningSince"), COLLECTION);
+        log.info("Maintenance rollups backfilled from {} requests into {} buckets", scanned, deltas.size());
+    }
+
+    private static void addCreated(Map<String, Map<String, Double>> deltas, MaintenanceQuery query) {
+        if (query.getReportedAt() == null) return;
+        for (String bucket : buckets(query.getReportedAt())) {
+            Map<String, Double> delta = deltas.computeIfAbsent(bucket, k -> new LinkedHashMap<>());
+            delta.merge("created", 1.0, Double::sum);
+            delta.merge("createdByPriority." + name(query.getPriority()), 1.0, Double::sum);
+        }
+    }
+
+    private static void addResolved(Map<String, Map<String, Double>> deltas, MaintenanceQuery query) {
+        for (String bucket : buckets(query.getResolvedAt())) {
+            Map<String, Double> delta = deltas.computeIfAbsent(bucket, k -> new LinkedHashMap<>());
+            delta.merge("resolved", 1.0, Double::sum);
+            delta.merge("resolvedByPriority." + name(query.getPriority()), 1.0, Double::sum);
+            if (query.getReportedAt() != null) {
+                delta.merge("resolvedSamples", 1.0, Double::sum);
+                delta.merge("resolutionHours", Duration.between(query.getReportedAt(), query.getResolvedAt()).toMillis() / 3_600_000.0, Double::sum);
+            }
+        }
+    }
+
+    private void apply(Map<String, Map<String, Double>> deltas) {
+        apply(deltas, false);
+    }
+
+    // live deltas are $inc'ed; the backfill's totals are $set as the buckets' history
+    private void apply(Map<String, Map<String, Double>> deltas, boolean history) {
+        List<Map.Entry<String, Map<String, Double>>> entries = new ArrayList<>(deltas.entrySet());
+        for (int from = 0; from < entries.size(); from += WRITE_BATCH) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Map.Entry<String, Map<String, Double>> e : entries.subList(from, Math.min(from + WRITE_BATCH, entries.size()))) {
+                Update update = new Update();
+                if (history) e.getValue().forEach((field, total) -> update.set(HISTORY + "." + field, total));
+                else e.getValue().forEach(update::inc);
+                bulk.upsert(new Query(Criteria.where("_id").is(e.getKey())), update);
+            }
+            bulk.execute();
+        }
+    }
+
+    // live count plus backfilled history
+    private static double number(Document bucket, String field) {
+        double sum = 0;
+        for (Document part : parts(bucket)) if (part.get(field) instanceof Number n) sum += n.doubleValue();
+        return sum;
+    }
+
+    private static Map<String, Long> section(Document bucket, String field) {
+        Map<String, Long> section = new HashMap<>();
+        for (Document part : parts(bucket)) {
+            if (part.get(field) instanceof Document d) d.forEach((k, v) -> section.merge(k, ((Number) v).longValue(), Long::sum));
+        }
+        return section;
+    }
+
+    private static List<Document> parts(Document bucket) {
+        return bucket.get(HISTORY) instanceof Document history ? List.of(bucket, history) : List.of(bucket);
+    }
+
+    private static List<String> buckets(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        return List.of(id(DAY, date), id(WEEK, bucketStart(WEEK, date)));
+    }
+
+    private static LocalDate bucketStart(String granularity, LocalDate date) {
+        return DAY.equals(granularity) ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static String id(String granularity, LocalDate start) {
+        return granularity + ":" + start;
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : "UNKNOWN";
+    }
+}
@@ -2,23 +2,35 @@ package com.rhs.Maintenance.service;
 
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.rhs.Maintenance.dto.CursorPage;
+import com.rhs.Maintenance.dto.MaintenanceEvent;
 import com.rhs.Maintenance.dto.MaintenanceQueryDto;
+import com.rhs.Maintenance.dto.MaintenanceQuerySummary;
 import com.rhs.Maintenance.model.MaintenanceQuery;
 import com.rhs.Maintenance.model.enums.PriorityLevel;
 import com.rhs.Maintenance.model.enums.Status;
 import com.rhs.Maintenance.repository.MaintenanceQueryRepository;
 
-import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MaintenanceService {
+    private static final List<Status> OPEN_STATUSES = List.of(Status.PENDING, Status.IN_PROGRESS);
+
     private final MaintenanceQueryRepository repository;
+    private final MaintenanceCounters counters;
+    private final MaintenanceLiveFeed liveFeed;
+    private final MaintenanceLatencyTracker latency;
+    private final MaintenanceHotspots hotspots;
+    private final MaintenanceDuplicateDetector duplicates;
+    private final MaintenanceRollups rollups;
 
     public MaintenanceQuery createQuery(MaintenanceQueryDto dto) {
         MaintenanceQuery query = new MaintenanceQuery();
@@ -30,57 +42,106 @@ public class MaintenanceService {
         query.setStatus(Status.PENDING);
         query.setReportedAt(LocalDateTime.now());
         query.setPhotos(dto.getPhotos());
+        duplicates.flag(query);
         repository.save(query);
+        counters.onCreated(query);
+        hotspots.onCreated(query);
+        duplicates.onCreated(query);
+        rollups.onCreated(query);
+        liveFeed.publish(MaintenanceEvent.Type.CREATED, query);
         System.out.println("[NOTIFY] New maintenance request created by student: " + dto.getStudentId());
         return query;
     }
 
     public MaintenanceQuery updateStatus(ObjectId id, Status status) {
-        MaintenanceQuery query = repository.findById(id).orElseThrow();
+        return updateStatus(id, status, null);
+    }
+
+    /**
+     * One findAndModify that $sets only the changed fields. With expectedVersion the
+     * update is rejected (OptimisticLockingFailureException) if someone else got there first.
+     * Moving a query to PENDING restarts its SLA.
+     */
+    public MaintenanceQuery updateStatus(ObjectId id, Status status, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("status", status);
+        if (status == Status.RESOLVED) update.set("resolvedAt", now);
+        if (status == Status.PENDING) update.set("escalatedAt", now);
+
+        MaintenanceQuery query = repository.transition(id, null, expectedVersion, update);
+        MaintenanceCounters.Transition transition = MaintenanceCounters.Transition.of(query);
+        // the returned document is the pre-update one, apply the same change
         query.setStatus(status);
         if (status == Status.RESOLVED) {
-            query.setResolvedAt(LocalDateTime.now());
+            query.setResolvedAt(now);
         }
-        repository.save(query);
+        if (status == Status.PENDING) query.setEscalatedAt(now);
+        bumpVersion(query);
+        counters.onTransition(transition);
+        latency.onTransition(transition);
+        duplicates.onTransition(transition);
+        rollups.onTransition(transition);
+        liveFeed.publish(status == Status.RESOLVED ? MaintenanceEvent.Type.RESOLVED : MaintenanceEvent.Type.STATUS_CHANGED, query);
         System.out.println("[NOTIFY] Maintenance request " + id + " updated to status: " + status);
         return query;
     }
 
     public MaintenanceQuery assignTo(ObjectId id, ObjectId adminId) {
-        MaintenanceQuery query = repository.findById(id).orElseThrow();
+        return assignTo(id, adminId, null);
+    }
+
+    /**
+     * Only open (PENDING / IN_PROGRESS) queries can be assigned.
+     */
+    public MaintenanceQuery assignTo(ObjectId id, ObjectId adminId, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        // $min only sets assignedAt on the first assignment
+        Update update = new Update().set("assignedTo", adminId).min("assignedAt", now);
+        MaintenanceQuery query = repository.transition(id, OPEN_STATUSES, expectedVersion, update);
+        MaintenanceCounters.Transition transition = MaintenanceCounters.Transition.of(query);
         query.setAssignedTo(adminId);
-        repository.save(query);
+        if (query.getAssignedAt() == null) query.setAssignedAt(now);
+        bumpVersion(query);
+        counters.onTransition(transition);
+        latency.onTransition(transition);
+        duplicates.onTransition(transition);
+        rollups.onTransition(transition);
+        liveFeed.publish(MaintenanceEvent.Type.ASSIGNED, query);
         System.out.println("[NOTIFY] Query " + id + " assigned to admin: " + adminId);
         return query;
     }
 
-    public List<MaintenanceQuery> searchQueries(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end) {
-        List<MaintenanceQuery> all = repository.findAll();
-        return all.stream()
-                .filter(q -> (priority == null || q.getPriority() == priority))
-                .filter(q -> (status == null || q.getStatus() == status))
-                .filter(q -> (start == null || end == null || (q.getReportedAt() != null &&
-                        !q.getReportedAt().isBefore(start) && !q.getReportedAt().isAfter(end))))
-                .collect(Collectors.toList());
+    public MaintenanceQuery getQuery(ObjectId id) {
+        return repository.findById(id).orElseThrow();
+    }
+
+    public List<MaintenanceQuerySummary> searchQueries(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end) {
+        return repository.searchSummaries(priority, status, start, end);
+    }
+
+    public CursorPage<MaintenanceQuerySummary> searchQueriesPage(PriorityLevel priority, Status status, LocalDateTime start, LocalDateTime end,
+                                                                 String cursor, Integer limit) {
+        return repository.searchSummaryPage(priority, status, start, end, cursor, CursorPage.clampLimit(limit));
     }
 
     public Map<String, Object> getStats() {
-        List<MaintenanceQuery> all = repository.findAll();
-        Map<String, Long> byStatus = all.stream()
-                .collect(Collectors.groupingBy(q -> q.getStatus().name(), Collectors.counting()));
-        Map<String, Long> byPriority = all.stream()
-                .collect(Collectors.groupingBy(q -> q.getPriority().name(), Collectors.counting()));
-
-        double avgResolutionTime = all.stream()
-                .filter(q -> q.getResolvedAt() != null && q.getReportedAt() != null)
-                .mapToLong(q -> Duration.between(q.getReportedAt(), q.getResolvedAt()).toHours())
-                .average().orElse(0);
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("statusCounts", byStatus);
-        stats.put("priorityCounts", byPriority);
-        stats.put("avgResolutionTimeHrs", avgResolutionTime);
-        return stats;
+        return counters.snapshot();
+    }
+
+    public Map<String, Object> getLatencyStats(String window) {
+        return latency.report(window);
+    }
+
+    public List<Map<String, Object>> getTrends(String granularity, LocalDate from, LocalDate to) {
+        return rollups.series(granularity, from, to);
+    }
+
+    public Map<String, Object> getHotspots(String by, YearMonth month, int limit) {
+        return hotspots.top(by, month, limit);
     }
-}
 
+    // matches the $inc done by MaintenanceQueryRepository.transition
+    private static void bumpVersion(MaintenanceQuery query) {
+        query.setVersion(query.getVersion() == null ? 1L : query.getVersion() + 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.rhs.Maintenance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.dto.BulkMaintenanceRequest;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import com.rhs.Maintenance.model.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Escalates PENDING queries that waited longer than their priority's SLA: priority goes up one
+ * level (URGENT stays URGENT) and a notification goes out. The SLA runs from reportedAt until a
+ * query is escalated, reprioritised or moved back to PENDING, then afresh from escalatedAt, so each
+ * priority is scanned on both clocks. Each clock of each priority keeps a (time, id) watermark in
+ * "maintenance_sla_watermarks", so a run range-scans status_priority_reportedAt or
+ * status_priority_escalatedAt only from the last escalated query up to now minus the SLA, i.e. its
+ * cost follows the breaches. Those writes stamp escalatedAt with now, ahead of every escalatedAt
+ * watermark, and a new query's reportedAt is ahead of every reportedAt watermark, so none is skipped.
+ * Legacy has no admin roster, so escalated queries are not reassigned here.
+ */
+@Component
+@Slf4j
+public class MaintenanceSlaEscalator {
+
+    static final String COLLECTION = "maintenance_sla_watermarks";
+    private static final PriorityLevel[] ORDER = { PriorityLevel.URGENT, PriorityLevel.HIGH, PriorityLevel.MEDIUM, PriorityLevel.LOW };
+
+    // where a query's SLA is measured from
+    private enum Clock {
+        REPORTED("reportedAt", MaintenanceQuery::getReportedAt, ""),
+        ESCALATED("escalatedAt", MaintenanceQuery::getEscalatedAt, ":escalated");
+
+        final String field;
+        final Function<MaintenanceQuery, LocalDateTime> time;
+        final String watermarkSuffix;
+
+        Clock(String field, Function<MaintenanceQuery, LocalDateTime> time, String watermarkSuffix) {
+            this.field = field;
+            this.time = time;
+            this.watermarkSuffix = watermarkSuffix;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final MaintenanceBulkService bulkService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<PriorityLevel, Duration> slas = new EnumMap<>(PriorityLevel.class);
+
+    public MaintenanceSlaEscalator(MongoTemplate mongoTemplate, MaintenanceBulkService bulkService,
+                                   @Value("${maintenance.sla.enabled:true}") boolean enabled,
+                                   @Value("${maintenance.sla.batch:500}") int batchSize,
+                                   @Value("${maintenance.sla.urgent-hours:6}") long urgentHours,
+                                   @Value("${maintenance.sla.high-hours:24}") long highHours,
+                                   @Value("${maintenance.sla.medium-hours:72}") long mediumHours,
+                                   @Value("${maintenance.sla.low-hours:168}") long lowHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.bulkService = bulkService;
+        this.enabled = enabled;
+        this.batchSize = Math.min(batchSize, BulkMaintenanceRequest.MAX_BATCH);
+        slas.put(PriorityLevel.URGENT, Duration.ofHours(urgentHours));
+        slas.put(PriorityLevel.HIGH, Duration.ofHours(highHours));
+        slas.put(PriorityLevel.MEDIUM, Duration.ofHours(mediumHours));
+        slas.put(PriorityLevel.LOW, Duration.ofHours(lowHours));
+    }
+
+    // most urgent first; a query raised here has just restarted its SLA, so it is escalated at most once per run
+    @Scheduled(fixedDelayString = "${maintenance.sla.scan-ms:300000}", initialDelayString = "${maintenance.sla.scan-ms:300000}")
+    public void scan() {
+        if (!enabled) return;
+        LocalDateTime now = LocalDateTime.now();
+        for (PriorityLevel priority : ORDER) {
+            for (Clock clock : Clock.values()) {
+                try {
+                    scan(priority, clock, now.minus(slas.get(priority)));
+                } catch (RuntimeException e) {
+                    // the watermark only moves past committed batches, the next run retries
+                    log.warn("SLA scan for {} queries failed: {}", priority, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void scan(PriorityLevel priority, Clock clock, LocalDateTime cutoff) {
+        PriorityLevel target = priority == PriorityLevel.URGENT ? priority : PriorityLevel.values()[priority.ordinal() + 1];
+        String watermarkId = priority.name() + clock.watermarkSuffix;
+        Document watermark = mongoTemplate.findById(watermarkId, Document.class, COLLECTION);
+        while (true) {
+            List<MaintenanceQuery> overdue = overdue(priority, clock, watermark, cutoff);
+            if (overdue.isEmpty()) return;
+            List<String> ids = overdue.stream().map(q -> q.getId().toHexString()).collect(Collectors.toList());
+
+            int escalated = bulkService.escalate(ids, target).getUpdated();
+            System.out.println("[NOTIFY] SLA breach: " + escalated + " " + priority + " maintenance requests pending over "
+                    + slas.get(priority).toHours() + "h escalated to " + target);
+
+            MaintenanceQuery last = overdue.get(overdue.size() - 1);
+            watermark = new Document("_id", watermarkId)
+                    .append(clock.field, clock.time.apply(last).toString())
+                    .append("queryId", last.getId());
+            mongoTemplate.save(watermark, COLLECTION);
+            if (overdue.size() < batchSize) return;
+        }
+    }
+
+    private List<MaintenanceQuery> overdue(PriorityLevel priority, Clock clock, Document watermark, LocalDateTime cutoff) {
+        Criteria criteria = Criteria.where("status").is(Status.PENDING).and("priority").is(priority);
+        if (clock == Clock.REPORTED) criteria.and(Clock.ESCALATED.field).is(null);
+        if (watermark == null) {
+            criteria.and(clock.field).lte(cutoff);
+        } else {
+            LocalDateTime since = LocalDateTime.parse(watermark.getString(clock.field));
+            ObjectId id = watermark.getObjectId("queryId");
+            criteria.and(clock.field).gte(since).lte(cutoff)
+                    .orOperator(Criteria.where(clock.field).gt(since), Criteria.where("id").gt(id));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, clock.field, "id")).limit(batchSize);
+        query.fields().include("id", clock.field);
+        return mongoTemplate.find(query, MaintenanceQuery.class);
+    }
+}
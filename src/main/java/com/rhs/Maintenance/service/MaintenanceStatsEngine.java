@@ -0,0 +1,116 @@
+package com.rhs.Maintenance.service;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.MatchOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import com.rhs.Maintenance.model.MaintenanceQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the maintenance stats as one $facet aggregation (status counts, priority
+ * counts, average and percentile resolution time) so only the small result
+ * document leaves MongoDB. Percentiles are interpolated from a $bucket histogram.
+ * Legacy queries carry no building, so there is no per-building facet here.
+ */
+@Component
+@RequiredArgsConstructor
+public class MaintenanceStatsEngine {
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final Object[] HOUR_BOUNDARIES = { 0, 1, 2, 4, 8, 12, 24, 48, 72, 120, 168, 336, 720, 1440 };
+
+    private final MongoTemplate mongoTemplate;
+
+    public Map<String, Object> compute() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.group("priority").count().as("count")).as("byPriority")
+                        .and(resolvedOnly(), resolutionHours(), Aggregation.group().avg("hours").as("avg").count().as("count"))
+                        .as("resolutionAvg")
+                        .and(resolvedOnly(), resolutionHours(),
+                                Aggregation.bucket("hours")
+                                        .withBoundaries(HOUR_BOUNDARIES)
+                                        .withDefaultBucket("overflow")
+                                        .andOutputCount().as("count")
+                                        .andOutput("hours").min().as("min")
+                                        .andOutput("hours").max().as("max"))
+                        .as("resolutionBuckets"));
+
+        Document result = mongoTemplate.aggregate(aggregation, MaintenanceQuery.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) result = new Document();
+
+        List<Document> avg = documents(result, "resolutionAvg");
+        List<Document> buckets = documents(result, "resolutionBuckets");
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("statusCounts", counts(documents(result, "byStatus")));
+        stats.put("priorityCounts", counts(documents(result, "byPriority")));
+        stats.put("resolvedCount", avg.isEmpty() ? 0L : number(avg.get(0), "count").longValue());
+        stats.put("avgResolutionTimeHrs", avg.isEmpty() ? 0.0 : number(avg.get(0), "avg").doubleValue());
+        stats.put("p50ResolutionTimeHrs", percentile(buckets, 0.50));
+        stats.put("p90ResolutionTimeHrs", percentile(buckets, 0.90));
+        stats.put("p99ResolutionTimeHrs", percentile(buckets, 0.99));
+        return stats;
+    }
+
+    private static MatchOperation resolvedOnly() {
+        return Aggregation.match(Criteria.where("resolvedAt").ne(null).and("reportedAt").ne(null));
+    }
+
+    private static ProjectionOperation resolutionHours() {
+        return Aggregation.project().and(
+                ArithmeticOperators.Divide.valueOf(
+                        ArithmeticOperators.Subtract.valueOf("resolvedAt").subtract("reportedAt"))
+                        .divideBy(MILLIS_PER_HOUR))
+                .as("hours");
+    }
+
+    private static Map<String, Long> counts(List<Document> groups) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document group : groups) {
+            Object key = group.get("_id");
+            counts.put(key != null ? key.toString() : "UNKNOWN", number(group, "count").longValue());
+        }
+        return counts;
+    }
+
+    // interpolate inside the bucket holding the rank, using its observed min/max
+    static double percentile(List<Document> buckets, double p) {
+        long total = buckets.stream().mapToLong(b -> number(b, "count").longValue()).sum();
+        if (total == 0) return 0;
+        double rank = p * total;
+        long seen = 0;
+        for (Document bucket : buckets) {
+            long count = number(bucket, "count").longValue();
+            if (seen + count >= rank) {
+                double min = number(bucket, "min").doubleValue();
+                double max = number(bucket, "max").doubleValue();
+                return min + (max - min) * (count == 0 ? 0 : (rank - seen) / count);
+            }
+            seen += count;
+        }
+        return number(buckets.get(buckets.size() - 1), "max").doubleValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> documents(Document result, String key) {
+        Object value = result.get(key);
+        return value instanceof List ? (List<Document>) value : List.of();
+    }
+
+    private static Number number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+}
@@ -22,7 +22,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ReportService {
 
-    private final MaintenanceService maintenanceService;
+    private final MaintenanceStatsEngine statsEngine;
     private final MaintenanceQueryRepository repository;
 
     @Value("${file.report-dir:reports/}")
@@ -30,7 +30,7 @@ public class ReportService {
 
     public String generateReport() throws FileNotFoundException {
         List<MaintenanceQuery> queries = repository.findAll();
-        Map<String, Object> stats = maintenanceService.getStats();
+        Map<String, Object> stats = statsEngine.compute();
 
         File dir = new File(reportDir);
         if (!dir.exists()) dir.mkdirs();
@@ -0,0 +1,53 @@
+package com.rhs.Maintenance.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset cursors of MaintenanceQueryRepositoryImpl, including rows stored without a reportedAt; mirrors
+ * the rhs-backend tests of its createdAt cursors.
+ */
+class MaintenanceCursorTest {
+
+    @Test
+    void datedCursorSeeksPastReportedAtAndIdThenUndatedRows() {
+        LocalDateTime reportedAt = LocalDateTime.of(2024, 3, 1, 9, 30);
+        ObjectId id = new ObjectId();
+        String cursor = MaintenanceQueryRepositoryImpl.encodeCursor(reportedAt, id);
+
+        List<?> branches = MaintenanceQueryRepositoryImpl.seekCriteria(cursor).getCriteriaObject().getList("$or", Object.class);
+        assertThat(branches).hasSize(3);
+        assertThat(branches.get(0)).isEqualTo(new Document("reportedAt", new Document("$lt", reportedAt)));
+        assertThat(branches.get(2)).isEqualTo(new Document("reportedAt", null));
+    }
+
+    @Test
+    void undatedCursorSeeksOnIdAlone() {
+        ObjectId id = new ObjectId();
+        String cursor = MaintenanceQueryRepositoryImpl.encodeCursor(null, id);
+
+        Document seek = MaintenanceQueryRepositoryImpl.seekCriteria(cursor).getCriteriaObject();
+        assertThat(seek).containsEntry("reportedAt", null);
+        assertThat(seek.get("id")).isEqualTo(new Document("$lt", id));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String withoutId = Base64.getUrlEncoder().withoutPadding().encodeToString("2024-03-01T09:30|".getBytes());
+
+        assertThatThrownBy(() -> MaintenanceQueryRepositoryImpl.seekCriteria(withoutId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        String badDate = Base64.getUrlEncoder().withoutPadding().encodeToString(("null|" + new ObjectId()).getBytes());
+        assertThatThrownBy(() -> MaintenanceQueryRepositoryImpl.seekCriteria(badDate))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.rhs.Maintenance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Bucket layout and percentile accuracy of LatencyHistogram. The class is a copy of the one in
+ * rhs-backend; these tests mirror that module's so the two copies are held to the same contract.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverTheRangeWithoutGaps() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertThat(LatencyHistogram.lowest(i)).isEqualTo(LatencyHistogram.highest(i - 1) + 1);
+        }
+        assertThat(LatencyHistogram.highest(LatencyHistogram.BUCKETS - 1)).isEqualTo(LatencyHistogram.MAX_VALUE);
+        assertThat(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void percentilesAreWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // up to two weeks, in seconds
+            values[i] = (long) (random.nextDouble() * 14 * 24 * 3600);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] {50, 90, 99}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            assertThat((double) histogram.percentile(p)).isCloseTo(exact, within(exact * 0.03));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.rhs.Maintenance.service;
+
+import com.rhs.Maintenance.dto.BulkOperationResult;
+import com.rhs.Maintenance.model.MaintenanceQuery;
+import com.rhs.Maintenance.model.enums.PriorityLevel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The two SLA clocks of MaintenanceSlaEscalator against a mocked MongoTemplate; the rhs-backend copy
+ * is tested against an in-process Mongo server.
+ */
+class MaintenanceSlaEscalatorTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MaintenanceBulkService bulkService = mock(MaintenanceBulkService.class);
+    private final MaintenanceSlaEscalator escalator = new MaintenanceSlaEscalator(mongoTemplate, bulkService, true, 500, 6, 24, 72, 168);
+
+    @Test
+    void scansNeverEscalatedQueriesByReportedAtAndEscalatedOnesByEscalatedAt() {
+        when(mongoTemplate.find(any(Query.class), eq(MaintenanceQuery.class))).thenReturn(List.of());
+
+        escalator.scan();
+
+        ArgumentCaptor<Query> scans = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(8)).find(scans.capture(), eq(MaintenanceQuery.class));
+        List<Document> filters = scans.getAllValues().stream().map(Query::getQueryObject).toList();
+        // per priority: reportedAt clock, then escalatedAt clock
+        Document reported = filters.get(0);
+        assertThat(reported).containsEntry("escalatedAt", null);
+        assertThat(reported.get("reportedAt", Document.class)).containsOnlyKeys("$lte");
+        Document escalated = filters.get(1);
+        assertThat(escalated.get("escalatedAt", Document.class)).containsOnlyKeys("$lte");
+        assertThat(escalated).doesNotContainKey("reportedAt");
+    }
+
+    @Test
+    void escalatedQueryMovesOnlyItsOwnClocksWatermark() {
+        ObjectId id = new ObjectId();
+        LocalDateTime escalatedAt = LocalDateTime.now().minusHours(73);
+        MaintenanceQuery overdue = MaintenanceQuery.builder().id(id).priority(PriorityLevel.MEDIUM)
+                .reportedAt(escalatedAt.minusHours(200)).escalatedAt(escalatedAt).build();
+        when(mongoTemplate.find(any(Query.class), eq(MaintenanceQuery.class))).thenAnswer(invocation -> {
+            Document filter = invocation.<Query>getArgument(0).getQueryObject();
+            return filter.get("priority") == PriorityLevel.MEDIUM && filter.get("escalatedAt") instanceof Document
+                    ? List.of(overdue) : List.of();
+        });
+        BulkOperationResult result = new BulkOperationResult();
+        result.setUpdated(1);
+        when(bulkService.escalate(List.of(id.toHexString()), PriorityLevel.HIGH)).thenReturn(result);
+
+        escalator.scan();
+
+        verify(bulkService).escalate(List.of(id.toHexString()), PriorityLevel.HIGH);
+        ArgumentCaptor<Document> watermark = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).save(watermark.capture(), eq(MaintenanceSlaEscalator.COLLECTION));
+        assertThat(watermark.getValue()).containsEntry("_id", "MEDIUM:escalated")
+                .containsEntry("escalatedAt", escalatedAt.toString())
+                .containsEntry("queryId", id);
+    }
+}
@@ -0,0 +1,48 @@
+package com.rhs.Maintenance.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Near-duplicate lookup in MinHashLsh, a copy of the rhs-backend class; mirrors that module's tests.
+ */
+class MinHashLshTest {
+
+    private static final double THRESHOLD = 0.5;
+
+    @Test
+    void findsRewordedReportOfTheSameFault() {
+        MinHashLsh index = new MinHashLsh();
+        index.put("leak", "room:12", "Water leaking from ceiling in corridor outside room 12");
+        index.put("light", "room:12", "Broken light bulb in bathroom");
+
+        MinHashLsh.Match match = index.best("room:12", "Ceiling leak in the corridor, water outside room 12",
+                THRESHOLD);
+
+        assertThat(match).isNotNull();
+        assertThat(match.id()).isEqualTo("leak");
+        assertThat(index.best("room:12", "Wifi not working on second floor", THRESHOLD)).isNull();
+    }
+
+    @Test
+    void onlyComparesWithinPartitionAndForgetsRemovedEntries() {
+        MinHashLsh index = new MinHashLsh();
+        index.put("leak", "room:12", "Water leaking from ceiling in corridor");
+
+        assertThat(index.best("room:14", "Water leaking from ceiling in corridor", THRESHOLD)).isNull();
+
+        index.remove("leak");
+        assertThat(index.best("room:12", "Water leaking from ceiling in corridor", THRESHOLD)).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void identicalTextsHaveIdenticalSignatures() {
+        int[] a = MinHashLsh.signature("Heater not working");
+        int[] b = MinHashLsh.signature("heater NOT working!");
+
+        assertThat(MinHashLsh.similarity(a, b)).isEqualTo(1.0);
+        assertThat(MinHashLsh.signature("  the a of ")).isNull();
+    }
+}